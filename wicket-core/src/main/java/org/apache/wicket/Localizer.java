@@ -16,14 +16,17 @@
  */
 package org.apache.wicket;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.wicket.core.util.string.interpolator.ConvertingPropertyVariableInterpolator;
 import org.apache.wicket.markup.repeater.AbstractRepeater;
@@ -31,6 +34,7 @@ import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
 import org.apache.wicket.resource.loader.IStringResourceLoader;
 import org.apache.wicket.settings.ResourceSettings;
+import org.apache.wicket.util.lang.Args;
 import org.apache.wicket.util.lang.Generics;
 import org.apache.wicket.util.string.AppendingStringBuffer;
 import org.slf4j.Logger;
@@ -45,6 +49,12 @@ import org.slf4j.LoggerFactory;
  * You may register additional IStringResourceLoader to extend or replace Wickets default search
  * strategy for the properties. E.g. string resource loaders which load the properties from a
  * database. There should be hardly any need to extend Localizer.
+ * <p>
+ * Cached strings are keyed by structured keys instead of strings: subclasses customizing the cache
+ * have to override {@link #newCacheKey(String, Component, Locale, String, String)},
+ * {@link #putIntoCache(Object, String)}, {@link #getFromCache(Object)} and {@link #newCacheMap()},
+ * which replace the former {@code String} based {@code getCacheKey()}, {@code putIntoCache()},
+ * {@code getFromCache()} and {@code newCache()}.
  * 
  * @see org.apache.wicket.settings.ResourceSettings#getLocalizer()
  * @see org.apache.wicket.resource.loader.IStringResourceLoader
@@ -60,8 +70,20 @@ public class Localizer
 	/** ConcurrentHashMap does not allow null values */
 	private static final String NULL_VALUE = "<null-value>";
 
-	/** Cache properties */
-	private Map<String, String> cache = newCache();
+	/** Default maximum number of cached strings in each generation of the cache */
+	public static final int DEFAULT_MAX_CACHE_SIZE = 10000;
+
+	/** Cache properties, the young generation */
+	private volatile Map<Object, String> cache = newCacheMap();
+
+	/** The old generation of the cache, still hit until the young generation is full */
+	private volatile Map<Object, String> oldCache;
+
+	private int maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
+
+	private final LongAdder cacheHits = new LongAdder();
+
+	private final LongAdder cacheMisses = new LongAdder();
 
 	/** Database that maps class names to an integer id. */
 	private final ClassMetaDatabase metaDatabase = new ClassMetaDatabase();
@@ -85,16 +107,66 @@ public class Localizer
 	/**
 	 * Clear all cache entries by instantiating a new cache object
 	 * 
-	 * @see #newCache()
+	 * @see #newCacheMap()
 	 */
 	public final void clearCache()
 	{
 		if (cache != null)
 		{
-			cache = newCache();
+			cache = newCacheMap();
+			oldCache = null;
 		}
 	}
 
+	/**
+	 * Sets the maximum number of cached strings. When the cache is full, its entries are moved to
+	 * an old generation which is dropped when the cache is full again, while entries hit in the
+	 * old generation are moved back. Thus at most twice the maximum number of strings are kept,
+	 * while the frequently used ones survive.
+	 * 
+	 * @param maxCacheSize
+	 *            the maximum number of cached strings, {@code 0} for an unbounded cache
+	 * @see #DEFAULT_MAX_CACHE_SIZE
+	 */
+	public final void setMaxCacheSize(int maxCacheSize)
+	{
+		this.maxCacheSize = Args.withinRange(0, Integer.MAX_VALUE, maxCacheSize, "maxCacheSize");
+	}
+
+	/**
+	 * @return the maximum number of cached strings, {@code 0} for an unbounded cache
+	 */
+	public final int getMaxCacheSize()
+	{
+		return maxCacheSize;
+	}
+
+	/**
+	 * @return the number of cached strings
+	 */
+	public final int getCacheSize()
+	{
+		Map<Object, String> young = cache;
+		Map<Object, String> old = oldCache;
+		return (young != null ? young.size() : 0) + (old != null ? old.size() : 0);
+	}
+
+	/**
+	 * @return the number of strings found in the cache
+	 */
+	public final long getCacheHits()
+	{
+		return cacheHits.sum();
+	}
+
+	/**
+	 * @return the number of strings not found in the cache
+	 */
+	public final long getCacheMisses()
+	{
+		return cacheMisses.sum();
+	}
+
 	/**
 	 * @see #getString(String, Component, IModel, Locale, String, String)
 	 * 
@@ -338,7 +410,7 @@ public class Localizer
 			}
 		}
 
-		String cacheKey = null;
+		Object cacheKey = null;
 		String value;
 
 		// Make sure locale, style and variation have the right values
@@ -366,12 +438,14 @@ public class Localizer
 		// cache as we can generate an invalid cache key
 		if ((cache != null) && ((component == null) || addedToPage))
 		{
-			cacheKey = getCacheKey(key, component, locale, style, variation);
+			cacheKey = newCacheKey(key, component, locale, style, variation);
 		}
 
 		// Value not found are cached as well (value = null)
-		if ((cacheKey != null) && cache.containsKey(cacheKey))
+		if ((cacheKey != null) && isCached(cacheKey))
 		{
+			cacheHits.increment();
+
 			value = getFromCache(cacheKey);
 			if (log.isDebugEnabled())
 			{
@@ -388,6 +462,11 @@ public class Localizer
 					(component != null ? component.toString(false) : null) + '\'');
 			}
 
+			if (cacheKey != null)
+			{
+				cacheMisses.increment();
+			}
+
 			// Iterate over all registered string resource loaders until the property has been found
 			Iterator<IStringResourceLoader> iter = getStringResourceLoaders().iterator();
 			value = null;
@@ -439,40 +518,103 @@ public class Localizer
 	 * Put the value into the cache and associate it with the cache key
 	 * 
 	 * @param cacheKey
+	 *            key created by {@link #newCacheKey(String, Component, Locale, String, String)}
 	 * @param string
 	 */
-	protected void putIntoCache(final String cacheKey, final String string)
+	protected void putIntoCache(final Object cacheKey, final String string)
 	{
-		if (cache == null)
+		// ConcurrentHashMap does not allow null values
+		put(cacheKey, string == null ? NULL_VALUE : string);
+	}
+
+	private void put(final Object cacheKey, final String string)
+	{
+		Map<Object, String> young = cache;
+		if (young == null)
 		{
 			return;
 		}
 
-		// ConcurrentHashMap does not allow null values
-		if (string == null)
+		if (maxCacheSize > 0 && young.size() >= maxCacheSize)
 		{
-			cache.put(cacheKey, NULL_VALUE);
+			// start a new generation
+			synchronized (this)
+			{
+				if (young == cache)
+				{
+					oldCache = young;
+					cache = young = newCacheMap();
+				}
+				else
+				{
+					young = cache;
+				}
+			}
 		}
-		else
+
+		young.put(cacheKey, string);
+	}
+
+	/**
+	 * Is a value cached for the given key, even if it is {@code null}.
+	 */
+	private boolean isCached(final Object cacheKey)
+	{
+		Map<Object, String> young = cache;
+		if (young == null)
+		{
+			return false;
+		}
+		if (young.containsKey(cacheKey))
 		{
-			cache.put(cacheKey, string);
+			return true;
 		}
+		Map<Object, String> old = oldCache;
+		return old != null && old.containsKey(cacheKey);
 	}
 
 	/**
-	 * Get the value associated with the key from the cache.
+	 * Looks up a key in both generations of the cache.
 	 * 
 	 * @param cacheKey
-	 * @return The value of the key
+	 * @return the cached value, {@link #NULL_VALUE} for a cached {@code null} or {@code null} if
+	 *         not cached
 	 */
-	protected String getFromCache(final String cacheKey)
+	private String lookup(final Object cacheKey)
 	{
-		if (cache == null)
+		Map<Object, String> young = cache;
+		if (young == null)
 		{
 			return null;
 		}
 
-		final String value = cache.get(cacheKey);
+		String value = young.get(cacheKey);
+		if (value == null)
+		{
+			Map<Object, String> old = oldCache;
+			if (old != null)
+			{
+				value = old.remove(cacheKey);
+				if (value != null)
+				{
+					// still in use, so move to the young generation
+					put(cacheKey, value);
+				}
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Get the value associated with the key from the cache.
+	 * 
+	 * @param cacheKey
+	 *            key created by {@link #newCacheKey(String, Component, Locale, String, String)}
+	 * @return The value of the key
+	 */
+	protected String getFromCache(final Object cacheKey)
+	{
+		final String value = lookup(cacheKey);
 
 		// ConcurrentHashMap does not allow null values
 		if (NULL_VALUE == value)
@@ -483,7 +625,8 @@ public class Localizer
 	}
 
 	/**
-	 * Gets the cache key
+	 * Creates the cache key. The key is a structured object referring to the given strings and the
+	 * ids of the component path, so creating it does not copy any characters.
 	 * 
 	 * @param key
 	 * @param component
@@ -491,21 +634,32 @@ public class Localizer
 	 *            Guaranteed to be != null
 	 * @param style
 	 * @param variation
-	 * @return The value of the key
+	 * @return The key, implementing {@link Object#equals(Object)} and {@link Object#hashCode()}
 	 */
-	protected String getCacheKey(final String key, final Component component, final Locale locale,
+	protected Object newCacheKey(final String key, final Component component, final Locale locale,
 		final String style, final String variation)
 	{
 		if (component != null)
 		{
-			StringBuilder buffer = new StringBuilder(200);
-			buffer.append(key);
-
+			int length = 0;
 			Component cursor = component;
+			while (cursor != null)
+			{
+				length += 2;
+				if (cursor instanceof Page)
+				{
+					break;
+				}
+				cursor = cursor.getParent();
+			}
+
+			Object[] path = new Object[length];
+			int index = 0;
 
+			cursor = component;
 			while (cursor != null)
 			{
-				buffer.append('-').append(metaDatabase.id(cursor.getClass()));
+				path[index++] = metaDatabase.id(cursor.getClass());
 
 				if (cursor instanceof Page)
 				{
@@ -513,11 +667,11 @@ public class Localizer
 				}
 
 				/*
-				 * only append component id if component is not a loop item because (a) these ids
+				 * only add component id if component is not a loop item because (a) these ids
 				 * are irrelevant when generating resource cache keys (b) they cause a lot of
 				 * redundant keys to be generated
 				 * 
-				 * also if the cursor component is an auto component we append a constant string
+				 * also if the cursor component is an auto component we add a constant string
 				 * instead of component's id because auto components have a newly generated id on
 				 * every render.
 				 */
@@ -526,23 +680,86 @@ public class Localizer
 
 				if (skip == false)
 				{
-					String cursorKey = cursor.isAuto() ? "wicket-auto" : cursor.getId();
-					buffer.append(':').append(cursorKey);
+					path[index] = cursor.isAuto() ? "wicket-auto" : cursor.getId();
 				}
+				index++;
 
 				cursor = parent;
 			}
 
-			buffer.append('-').append(locale);
-			buffer.append('-').append(style);
-			buffer.append('-').append(variation);
-
-			return buffer.toString();
+			return new CacheKey(key, path, locale, style, variation);
 		}
 		else
 		{
 			// locale is guaranteed to be != null
-			return key + '-' + locale.toString() + '-' + style;
+			return new CacheKey(key, null, locale, style, null);
+		}
+	}
+
+	/**
+	 * Key of a cached string.
+	 */
+	private static final class CacheKey
+	{
+		private final String key;
+
+		/**
+		 * class id and component id (or {@code null} for loop items) of each component up to the
+		 * page
+		 */
+		private final Object[] path;
+
+		private final Locale locale;
+
+		private final String style;
+
+		private final String variation;
+
+		private final int hash;
+
+		private CacheKey(String key, Object[] path, Locale locale, String style, String variation)
+		{
+			this.key = key;
+			this.path = path;
+			this.locale = locale;
+			this.style = style;
+			this.variation = variation;
+
+			int h = Objects.hashCode(key);
+			h = 31 * h + Arrays.hashCode(path);
+			h = 31 * h + locale.hashCode();
+			h = 31 * h + Objects.hashCode(style);
+			h = 31 * h + Objects.hashCode(variation);
+			hash = h;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (obj instanceof CacheKey == false)
+			{
+				return false;
+			}
+			CacheKey other = (CacheKey)obj;
+			return hash == other.hash && Objects.equals(key, other.key) &&
+				Arrays.equals(path, other.path) && locale.equals(other.locale) &&
+				Objects.equals(style, other.style) && Objects.equals(variation, other.variation);
+		}
+
+		@Override
+		public String toString()
+		{
+			return key + '-' + Arrays.toString(path) + '-' + locale + '-' + style + '-' + variation;
 		}
 	}
 
@@ -600,22 +817,25 @@ public class Localizer
 		if (value == false)
 		{
 			cache = null;
+			oldCache = null;
 		}
 		else if (cache == null)
 		{
-			cache = newCache();
+			cache = newCacheMap();
 		}
 	}
 
 	/**
-	 * Create a new cache, override this method if you want a different map to store the cache keys,
-	 * for example a map that hold only the last X number of elements..
+	 * Create a new cache for keys created by
+	 * {@link #newCacheKey(String, Component, Locale, String, String)}, override this method if you
+	 * want a different map to store the cache keys.
 	 * 
-	 * By default it uses the {@link ConcurrentHashMap}
+	 * By default it uses the {@link ConcurrentHashMap}, which is bounded by
+	 * {@link #setMaxCacheSize(int)}.
 	 * 
 	 * @return cache
 	 */
-	protected Map<String, String> newCache()
+	protected Map<Object, String> newCacheMap()
 	{
 		return new ConcurrentHashMap<>();
 	}
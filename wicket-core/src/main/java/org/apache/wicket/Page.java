@@ -127,6 +127,11 @@ public abstract class Page extends MarkupContainer
 	 */
 	private int renderCount = 0;
 
+	/**
+	 * @see #getModificationCount()
+	 */
+	private transient int modificationCount = 0;
+
 	/**
 	 * Constructor.
 	 */
@@ -269,6 +274,8 @@ public abstract class Page extends MarkupContainer
 	{
 		checkHierarchyChange(this);
 
+		modificationCount++;
+
 		if (getFlag(FLAG_PREVENT_DIRTY))
 		{
 			return;
@@ -953,6 +960,29 @@ public abstract class Page extends MarkupContainer
 		return renderCount;
 	}
 
+	/**
+	 * Counts each render of this page - including partial updates -, each invocation of a request
+	 * listener on it and each change to its components, i.e. all calls to {@link #dirty(boolean)}.
+	 * Changes to the fields of a page or its components outside of these are not counted, use
+	 * {@link #modified()} to report these.
+	 */
+	@Override
+	public final int getModificationCount()
+	{
+		return modificationCount;
+	}
+
+	/**
+	 * Reports a modification of this page which is not caused by a change to its components.
+	 * Unlike {@link #dirty()} this never creates a new version of the page.
+	 * 
+	 * @see #getModificationCount()
+	 */
+	public final void modified()
+	{
+		modificationCount++;
+	}
+
 	/**
 	 * THIS METHOD IS NOT PART OF WICKET API. DO NOT USE!
 	 *
@@ -985,6 +1015,7 @@ public abstract class Page extends MarkupContainer
 		try
 		{
 			++renderCount;
+			modificationCount++;
 
 			// delay rendering of feedbacks after all other components
 			try (FeedbackDelay delay = new FeedbackDelay(getRequestCycle())) {
@@ -966,7 +966,13 @@ public abstract class Session implements IClusterable, IEventSink, IMetadataCont
 			return;
 		}
 		
+		String oldId = id;
 		id = generateNewSessionId();
+
+		if (id != null && id.equals(oldId) == false)
+		{
+			getSessionStore().onSessionIdChanged(RequestCycle.get().getRequest(), oldId, id);
+		}
 	}
 
 	/**
@@ -590,11 +590,17 @@ public abstract class AbstractDefaultAjaxBehavior extends AbstractAjaxBehavior
 	@Override
 	public final void onRequest()
 	{
-		WebApplication app = (WebApplication)getComponent().getApplication();
-		AjaxRequestTarget target = app.newAjaxRequestTarget(getComponent().getPage());
-
 		RequestCycle requestCycle = RequestCycle.get();
-		requestCycle.scheduleRequestHandlerAfterCurrent(target);
+
+		// contribute to the shared target of a batch, see AjaxBatchBehavior
+		AjaxRequestTarget target = requestCycle.getMetaData(AjaxBatchBehavior.BATCH_TARGET);
+		if (target == null)
+		{
+			WebApplication app = (WebApplication)getComponent().getApplication();
+			target = app.newAjaxRequestTarget(getComponent().getPage());
+
+			requestCycle.scheduleRequestHandlerAfterCurrent(target);
+		}
 
 		respond(target);
 	}
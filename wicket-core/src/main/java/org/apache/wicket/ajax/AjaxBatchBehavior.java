@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.ajax;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.Page;
+import org.apache.wicket.behavior.Behavior;
+import org.apache.wicket.behavior.InvalidBehaviorIdException;
+import org.apache.wicket.request.Url;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.http.WebRequest;
+import org.apache.wicket.util.string.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.openjson.JSONArray;
+import com.github.openjson.JSONObject;
+
+/**
+ * A behavior for a page that executes several Ajax calls of its components in a single request.
+ * <p>
+ * All calls are processed in one request cycle, so the page is locked, loaded and stored only once
+ * and the components added by all calls are written in a single response.
+ * </p>
+ * <p>
+ * The calls are sent in the {@value #PARAM_CALLS} request parameter as a JSON array of objects:
+ * 
+ * <pre>
+ * [{"c": "form:field", "b": 0, "p": [{"name": "key", "value": "value"}]}, ...]
+ * </pre>
+ * 
+ * with {@code c} the page relative path of the component, {@code b} the id of the
+ * {@link AbstractDefaultAjaxBehavior} of the component to call and the optional {@code p} the
+ * parameters of the call. The parameters are available to the called behavior as query
+ * parameters, so calls submitting a form can not be batched.
+ * </p>
+ * <p>
+ * The called behaviors respond to the target of this behavior's request instead of scheduling
+ * targets of their own.
+ * </p>
+ * <p>
+ * A call to a component or behavior that cannot be found or does not
+ * {@link Component#canCallListener() accept calls} is skipped, the other calls are still
+ * executed.
+ * </p>
+ */
+public class AjaxBatchBehavior extends AbstractDefaultAjaxBehavior
+{
+	private static final long serialVersionUID = 1L;
+
+	private static final Logger LOG = LoggerFactory.getLogger(AjaxBatchBehavior.class);
+
+	/**
+	 * The name of the request parameter with the batched calls.
+	 */
+	public static final String PARAM_CALLS = "wicket-ajax-calls";
+
+	/**
+	 * The target shared by the batched calls, set on the request cycle while they are invoked.
+	 */
+	static final MetaDataKey<AjaxRequestTarget> BATCH_TARGET = new MetaDataKey<>()
+	{
+		private static final long serialVersionUID = 1L;
+	};
+
+	@Override
+	protected void onBind()
+	{
+		super.onBind();
+
+		if (getComponent() instanceof Page == false)
+		{
+			throw new IllegalStateException(getClass().getSimpleName() + " can only be added to a page");
+		}
+	}
+
+	@Override
+	protected void respond(AjaxRequestTarget target)
+	{
+		RequestCycle requestCycle = RequestCycle.get();
+		WebRequest request = (WebRequest)requestCycle.getRequest();
+
+		String calls = request.getRequestParameters().getParameterValue(PARAM_CALLS).toString();
+		if (Strings.isEmpty(calls))
+		{
+			return;
+		}
+
+		JSONArray array = new JSONArray(calls);
+		requestCycle.setMetaData(BATCH_TARGET, target);
+		try
+		{
+			for (int i = 0; i < array.length(); i++)
+			{
+				JSONObject call = array.getJSONObject(i);
+
+				requestCycle.setRequest(newCallRequest(request, call.optJSONArray("p")));
+
+				invoke(call.getString("c"), call.getInt("b"));
+			}
+		}
+		finally
+		{
+			requestCycle.setMetaData(BATCH_TARGET, null);
+			requestCycle.setRequest(request);
+		}
+	}
+
+	/**
+	 * Creates the request seen by a single call.
+	 * 
+	 * @param request
+	 *            the request with the batched calls
+	 * @param parameters
+	 *            the parameters of the call, may be {@code null}
+	 * @return a request with the parameters of the call as query parameters
+	 */
+	private WebRequest newCallRequest(WebRequest request, JSONArray parameters)
+	{
+		Url url = new Url(request.getUrl());
+		url.getQueryParameters().clear();
+		if (parameters != null)
+		{
+			for (int i = 0; i < parameters.length(); i++)
+			{
+				JSONObject parameter = parameters.getJSONObject(i);
+				url.addQueryParameter(parameter.getString("name"), parameter.getString("value"));
+			}
+		}
+		return request.cloneWithUrl(url);
+	}
+
+	/**
+	 * Invokes a single call.
+	 * 
+	 * @param componentPath
+	 *            the page relative path of the component
+	 * @param behaviorId
+	 *            the id of the behavior of the component
+	 */
+	private void invoke(String componentPath, int behaviorId)
+	{
+		Page page = getComponent().getPage();
+
+		Component component = Strings.isEmpty(componentPath) ? page : page.get(componentPath);
+		if (component == null)
+		{
+			LOG.info("Component '{}' not found, ignoring batched call", componentPath);
+			return;
+		}
+
+		Behavior behavior;
+		try
+		{
+			behavior = component.getBehaviorById(behaviorId);
+		}
+		catch (InvalidBehaviorIdException e)
+		{
+			LOG.info("Behavior {} of component '{}' not found, ignoring batched call", behaviorId,
+				componentPath);
+			return;
+		}
+
+		if (behavior instanceof AbstractDefaultAjaxBehavior == false || behavior == this)
+		{
+			LOG.warn("Behavior {} at component {} is not an Ajax behavior, ignoring batched call",
+				behavior, component);
+			return;
+		}
+
+		if (component.canCallListener() == false || behavior.canCallListener(component) == false)
+		{
+			LOG.info("Component {} or behavior {} not enabled or visible, ignoring batched call",
+				component, behavior);
+			return;
+		}
+
+		((AbstractDefaultAjaxBehavior)behavior).onRequest();
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.ajax;
+
+import org.apache.wicket.behavior.Behavior;
+
+/**
+ * A behavior marking its component to be updated by a diff of its markup, when it is added to an
+ * {@link AjaxRequestTarget} again.
+ * <p>
+ * The markup last written by an Ajax response is retained in the page, for a bounded number of
+ * components. If the client asked for the {@link org.apache.wicket.page.JsonPartialPageUpdate JSON
+ * encoding}, the next update of the component carries only the changes against that markup. This
+ * is useful for big components like tables which are refreshed often but change only in a few
+ * places, e.g. by an {@link AjaxSelfUpdatingTimerBehavior}.
+ * </p>
+ * <p>
+ * The client has to keep the markup of the last update of each component to apply the diffs on,
+ * and confirm it with each request. A diff is only written against a confirmed base, otherwise the
+ * component is replaced fully. A full render of the page resets the retained markup.
+ * </p>
+ *
+ * @see org.apache.wicket.page.JsonPartialPageUpdate
+ */
+public class AjaxMarkupDiffBehavior extends Behavior
+{
+	private static final long serialVersionUID = 1L;
+}
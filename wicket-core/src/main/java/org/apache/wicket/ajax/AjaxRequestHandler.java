@@ -32,6 +32,7 @@ import org.apache.wicket.core.request.handler.PageProvider;
 import org.apache.wicket.core.request.handler.RenderPageRequestHandler;
 import org.apache.wicket.core.request.handler.logger.PageLogData;
 import org.apache.wicket.event.Broadcast;
+import org.apache.wicket.page.JsonPartialPageUpdate;
 import org.apache.wicket.page.PartialPageUpdate;
 import org.apache.wicket.page.XmlPartialPageUpdate;
 import org.apache.wicket.request.IRequestCycle;
@@ -104,64 +105,93 @@ public class AjaxRequestHandler extends AbstractPartialPageRequestHandler implem
 	{
 		super(page);
 
-		update = new XmlPartialPageUpdate(page)
+		RequestCycle requestCycle = RequestCycle.get();
+		if (requestCycle != null && JsonPartialPageUpdate.isRequested(requestCycle.getRequest()))
 		{
-			/**
-			 * Freezes the {@link AjaxRequestHandler#listeners} before firing the event and
-			 * un-freezes them afterwards to allow components to add more
-			 * {@link AjaxRequestTarget.IListener}s for the second event.
-			 */
-			@Override
-			protected void onBeforeRespond(final Response response)
+			update = new JsonPartialPageUpdate(page)
 			{
-				listenersFrozen = true;
-
-				if (listeners != null)
+				@Override
+				protected void onBeforeRespond(final Response response)
 				{
-					for (AjaxRequestTarget.IListener listener : listeners)
-					{
-						listener.onBeforeRespond(markupIdToComponent, AjaxRequestHandler.this);
-					}
+					fireOnBeforeRespond(markupIdToComponent);
 				}
 
-				listenersFrozen = false;
-			}
-
-			/**
-			 * Freezes the {@link AjaxRequestHandler#listeners}, and does not un-freeze them as the
-			 * events will have been fired by now.
-			 * 
-			 * @param response
-			 *            the response to write to
-			 */
-			@Override
-			protected void onAfterRespond(final Response response)
+				@Override
+				protected void onAfterRespond(final Response response)
+				{
+					fireOnAfterRespond(markupIdToComponent,
+						script -> writeEvaluations(response, Collections.<CharSequence> singleton(script)));
+				}
+			};
+		}
+		else
+		{
+			update = new XmlPartialPageUpdate(page)
 			{
-				listenersFrozen = true;
+				@Override
+				protected void onBeforeRespond(final Response response)
+				{
+					fireOnBeforeRespond(markupIdToComponent);
+				}
 
-				// invoke onafterresponse event on listeners
-				if (listeners != null)
+				@Override
+				protected void onAfterRespond(final Response response)
 				{
-					final Map<String, Component> components = Collections
-						.unmodifiableMap(markupIdToComponent);
-
-					// create response that will be used by listeners to append javascript
-					final AjaxRequestTarget.IJavaScriptResponse jsresponse = new AjaxRequestTarget.IJavaScriptResponse()
-					{
-						@Override
-						public void addJavaScript(String script)
-						{
-							writeEvaluations(response, Collections.<CharSequence> singleton(script));
-						}
-					};
-
-					for (AjaxRequestTarget.IListener listener : listeners)
-					{
-						listener.onAfterRespond(components, jsresponse);
-					}
+					fireOnAfterRespond(markupIdToComponent,
+						script -> writeEvaluations(response, Collections.<CharSequence> singleton(script)));
 				}
+			};
+		}
+	}
+
+	/**
+	 * Freezes the {@link AjaxRequestHandler#listeners} before firing the event and un-freezes them
+	 * afterwards to allow components to add more {@link AjaxRequestTarget.IListener}s for the
+	 * second event.
+	 *
+	 * @param markupIdToComponent
+	 *            the components of the update
+	 */
+	private void fireOnBeforeRespond(final Map<String, Component> markupIdToComponent)
+	{
+		listenersFrozen = true;
+
+		if (listeners != null)
+		{
+			for (AjaxRequestTarget.IListener listener : listeners)
+			{
+				listener.onBeforeRespond(markupIdToComponent, this);
 			}
-		};
+		}
+
+		listenersFrozen = false;
+	}
+
+	/**
+	 * Freezes the {@link AjaxRequestHandler#listeners}, and does not un-freeze them as the events
+	 * will have been fired by now.
+	 *
+	 * @param markupIdToComponent
+	 *            the components of the update
+	 * @param jsresponse
+	 *            the response used by listeners to append javascript
+	 */
+	private void fireOnAfterRespond(final Map<String, Component> markupIdToComponent,
+		final AjaxRequestTarget.IJavaScriptResponse jsresponse)
+	{
+		listenersFrozen = true;
+
+		// invoke onafterresponse event on listeners
+		if (listeners != null)
+		{
+			final Map<String, Component> components = Collections
+				.unmodifiableMap(markupIdToComponent);
+
+			for (AjaxRequestTarget.IListener listener : listeners)
+			{
+				listener.onAfterRespond(components, jsresponse);
+			}
+		}
 	}
 
 	@Override
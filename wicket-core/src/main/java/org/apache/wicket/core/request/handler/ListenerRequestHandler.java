@@ -292,6 +292,10 @@ public class ListenerRequestHandler
 			page.internalInitialize();
 		}
 
+		// the listener might change state without dirtying the page, e.g. raw input or feedback
+		// messages
+		page.modified();
+
 		IRequestListener requestListener = (IRequestListener)target;
 		
 		if (requestListener.rendersPage() && !ajax)
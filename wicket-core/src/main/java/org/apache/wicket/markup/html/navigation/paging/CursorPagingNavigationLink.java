@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.html.navigation.paging;
+
+import org.apache.wicket.markup.html.link.DisabledAttributeLinkBehavior;
+import org.apache.wicket.markup.html.link.Link;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A link to the first, previous or next page of an {@link ICursorPageable}.
+ * 
+ * @param <T>
+ *            type of model object
+ */
+public class CursorPagingNavigationLink<T> extends Link<T>
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The page a link moves to.
+	 */
+	public enum Target
+	{
+		/** the first page */
+		FIRST,
+
+		/** the previous page */
+		PREVIOUS,
+
+		/** the next page */
+		NEXT
+	}
+
+	/** The pageable component the link is referring to. */
+	protected final ICursorPageable pageable;
+
+	private final Target target;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            See Component
+	 * @param pageable
+	 *            The pageable component the link is referring to
+	 * @param target
+	 *            the page to move to
+	 */
+	public CursorPagingNavigationLink(final String id, final ICursorPageable pageable,
+		final Target target)
+	{
+		super(id);
+		setAutoEnable(true);
+		this.pageable = Args.notNull(pageable, "pageable");
+		this.target = Args.notNull(target, "target");
+
+		add(new DisabledAttributeLinkBehavior());
+	}
+
+	/**
+	 * @return the page the link moves to
+	 */
+	public final Target getTarget()
+	{
+		return target;
+	}
+
+	@Override
+	public void onClick()
+	{
+		switch (target)
+		{
+			case FIRST :
+				pageable.firstPage();
+				break;
+			case PREVIOUS :
+				pageable.previousPage();
+				break;
+			case NEXT :
+				pageable.nextPage();
+				break;
+		}
+	}
+
+	/**
+	 * Disables the link if there is no page to move to.
+	 */
+	@Override
+	public boolean isEnabled()
+	{
+		if (target == Target.NEXT)
+		{
+			return pageable.hasNextPage() && super.isEnabled();
+		}
+		return pageable.hasPreviousPage() && super.isEnabled();
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.html.navigation.paging;
+
+import org.apache.wicket.markup.html.link.AbstractLink;
+import org.apache.wicket.markup.html.navigation.paging.CursorPagingNavigationLink.Target;
+import org.apache.wicket.markup.html.panel.Panel;
+
+/**
+ * A panel with links to the first, previous and next page of an {@link ICursorPageable}. Unlike
+ * {@link PagingNavigator} there are no links to numbered pages or to the last page, since a
+ * cursor pageable does not know its number of pages.
+ */
+public class CursorPagingNavigator extends Panel
+{
+	private static final long serialVersionUID = 1L;
+
+	private final ICursorPageable pageable;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            See Component
+	 * @param pageable
+	 *            The pageable component the page links are referring to.
+	 */
+	public CursorPagingNavigator(final String id, final ICursorPageable pageable)
+	{
+		super(id);
+		this.pageable = pageable;
+	}
+
+	/**
+	 * {@link ICursorPageable} this navigator is linked with
+	 * 
+	 * @return {@link ICursorPageable} instance
+	 */
+	public final ICursorPageable getPageable()
+	{
+		return pageable;
+	}
+
+	@Override
+	protected void onInitialize()
+	{
+		super.onInitialize();
+
+		add(newCursorPagingNavigationLink("first", pageable, Target.FIRST));
+		add(newCursorPagingNavigationLink("prev", pageable, Target.PREVIOUS));
+		add(newCursorPagingNavigationLink("next", pageable, Target.NEXT));
+	}
+
+	/**
+	 * Create a new navigation link. May be subclassed to make use of specialized links, e.g.
+	 * Ajaxian links.
+	 * 
+	 * @param id
+	 *            the link id
+	 * @param pageable
+	 *            the pageable to control
+	 * @param target
+	 *            the page to move to
+	 * @return the navigation link
+	 */
+	protected AbstractLink newCursorPagingNavigationLink(String id, ICursorPageable pageable,
+		Target target)
+	{
+		return new CursorPagingNavigationLink<Void>(id, pageable, target);
+	}
+}
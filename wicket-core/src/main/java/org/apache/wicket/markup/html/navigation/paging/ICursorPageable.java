@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.html.navigation.paging;
+
+import org.apache.wicket.util.io.IClusterable;
+
+/**
+ * Components that implement this interface are pageable by cursors, i.e. they know their
+ * neighbouring pages only, instead of the number of pages like {@link IPageable}.
+ * 
+ * @see org.apache.wicket.markup.repeater.data.CursorDataView
+ */
+public interface ICursorPageable extends IClusterable
+{
+	/**
+	 * @return whether the current page is not the first page
+	 */
+	boolean hasPreviousPage();
+
+	/**
+	 * @return whether the current page is not the last page
+	 */
+	boolean hasNextPage();
+
+	/**
+	 * Moves to the first page.
+	 */
+	void firstPage();
+
+	/**
+	 * Moves to the previous page, if any.
+	 */
+	void previousPage();
+
+	/**
+	 * Moves to the next page, if any.
+	 */
+	void nextPage();
+}
@@ -286,6 +286,17 @@ public abstract class AbstractPageableView<T> extends RefreshingView<T> implemen
 	}
 
 
+	/**
+	 * Get the index of the first item of the current page, without checking whether the current
+	 * page is out of bounds, i.e. without counting the items.
+	 * 
+	 * @return the index of the first requested item
+	 */
+	protected final long getRequestedItemOffset()
+	{
+		return currentPage * getItemsPerPage();
+	}
+
 	/**
 	 * @return the number of items visible
 	 */
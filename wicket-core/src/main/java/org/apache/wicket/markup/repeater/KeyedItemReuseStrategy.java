@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.repeater;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Generics;
+import org.danekja.java.util.function.serializable.SerializableFunction;
+
+/**
+ * Reuse strategy that will reuse an old item if its key is equal to the key of a model inside the
+ * newModels iterator. Unlike {@link ReuseIfModelsEqualStrategy} the models do not need to
+ * implement {@link #equals(Object)}, instead a stable key (e.g. a primary key) is taken from each
+ * model object.
+ * <p>
+ * The key of an item is remembered when it is created, so the models of old items are not loaded
+ * again. Only items for new keys are created, reused items keep their component id, so they can be
+ * updated by Ajax. A reused item gets the new model, unless it is equal to its current model.
+ * 
+ * @see org.apache.wicket.markup.repeater.data.IKeyedDataProvider
+ */
+public class KeyedItemReuseStrategy implements IItemReuseStrategy
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The key of an item
+	 */
+	private static final MetaDataKey<Serializable> ITEM_KEY = new MetaDataKey<>()
+	{
+		private static final long serialVersionUID = 1L;
+	};
+
+	private final SerializableFunction<Object, ? extends Serializable> keyFunction;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param <T>
+	 *            type of model objects
+	 * @param keyFunction
+	 *            function returning the key of a model object
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> KeyedItemReuseStrategy(SerializableFunction<T, ? extends Serializable> keyFunction)
+	{
+		this.keyFunction = (SerializableFunction<Object, ? extends Serializable>)Args.notNull(
+			keyFunction, "keyFunction");
+	}
+
+	/**
+	 * Gets the key of a model.
+	 * 
+	 * @param model
+	 *            the model
+	 * @return key of the model object
+	 */
+	protected Serializable getKey(IModel<?> model)
+	{
+		return keyFunction.apply(model.getObject());
+	}
+
+	@Override
+	public <T> Iterator<Item<T>> getItems(final IItemFactory<T> factory,
+		final Iterator<IModel<T>> newModels, Iterator<Item<T>> existingItems)
+	{
+		final Map<Serializable, Item<T>> keyToItem = Generics.newHashMap();
+		while (existingItems.hasNext())
+		{
+			final Item<T> item = existingItems.next();
+			Serializable key = item.getMetaData(ITEM_KEY);
+			if (key != null)
+			{
+				keyToItem.put(key, item);
+			}
+		}
+
+		return new Iterator<Item<T>>()
+		{
+			private int index = 0;
+
+			@Override
+			public boolean hasNext()
+			{
+				return newModels.hasNext();
+			}
+
+			@Override
+			public Item<T> next()
+			{
+				final IModel<T> model = newModels.next();
+				final Serializable key = getKey(model);
+
+				// removed, so an item is never reused twice for duplicate keys
+				Item<T> item = key == null ? null : keyToItem.remove(key);
+				if (item == null)
+				{
+					item = factory.newItem(index, model);
+					item.setMetaData(ITEM_KEY, key);
+				}
+				else
+				{
+					item.setIndex(index);
+					if (Objects.equals(item.getModel(), model) == false)
+					{
+						item.setModel(model);
+					}
+				}
+				index++;
+
+				return item;
+			}
+		};
+	}
+}
@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.repeater.data;
+
+import java.util.Iterator;
+import java.util.Objects;
+
+import org.apache.wicket.markup.html.navigation.paging.CursorPagingNavigator;
+import org.apache.wicket.markup.html.navigation.paging.ICursorPageable;
+import org.apache.wicket.markup.repeater.RefreshingView;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A data view with keyset pagination: the pages are looked up by cursors provided by an
+ * {@link ICursorDataProvider}, so rendering a deep page of a large result set takes as long as
+ * rendering the first one. Use a {@link CursorPagingNavigator} to move between the pages.
+ * <p>
+ * Since the view knows the neighbouring pages only, it does not implement
+ * {@link org.apache.wicket.markup.html.navigation.paging.IPageable} and cannot jump to a numbered
+ * page.
+ * 
+ * @see ICursorDataProvider
+ * 
+ * @param <T>
+ *            The Model type.
+ */
+public abstract class CursorDataView<T> extends RefreshingView<T> implements ICursorPageable
+{
+	private static final long serialVersionUID = 1L;
+
+	private final ICursorDataProvider<T> dataProvider;
+
+	private long itemsPerPage;
+
+	/**
+	 * cursor of the current page, {@code null} for the first page
+	 */
+	private String cursor;
+
+	/**
+	 * the current page, cached until detach
+	 */
+	private transient CursorPage<T> cachedPage;
+
+	/**
+	 * whether the cached page was fetched while rendering, otherwise it is fetched again for
+	 * rendering
+	 */
+	private transient boolean cachedPageRendering;
+
+	/**
+	 * @param id
+	 *            component id
+	 * @param dataProvider
+	 *            data provider
+	 * @param itemsPerPage
+	 *            items per page
+	 */
+	protected CursorDataView(String id, ICursorDataProvider<T> dataProvider, long itemsPerPage)
+	{
+		super(id);
+
+		this.dataProvider = Args.notNull(dataProvider, "dataProvider");
+		setItemsPerPage(itemsPerPage);
+	}
+
+	/**
+	 * @return data provider
+	 */
+	public ICursorDataProvider<T> getDataProvider()
+	{
+		return dataProvider;
+	}
+
+	/**
+	 * @return maximum number of items that will be shown per page
+	 */
+	public long getItemsPerPage()
+	{
+		return itemsPerPage;
+	}
+
+	/**
+	 * Sets the maximum number of items to show per page. The view will also move to the first
+	 * page.
+	 * 
+	 * @param items
+	 */
+	public final void setItemsPerPage(long items)
+	{
+		if (items < 1)
+		{
+			throw new IllegalArgumentException("Argument [itemsPerPage] cannot be less than 1");
+		}
+
+		if (itemsPerPage != items)
+		{
+			if (isVersioned())
+			{
+				addStateChange();
+			}
+		}
+
+		itemsPerPage = items;
+
+		firstPage();
+	}
+
+	/**
+	 * @return cursor of the current page, {@code null} for the first page
+	 */
+	public final String getCursor()
+	{
+		return cursor;
+	}
+
+	/**
+	 * Sets the cursor of the page that should be rendered.
+	 * 
+	 * @param cursor
+	 *            cursor as returned by the data provider, {@code null} for the first page
+	 */
+	public final void setCursor(String cursor)
+	{
+		if (Objects.equals(this.cursor, cursor) == false)
+		{
+			if (isVersioned())
+			{
+				addStateChange();
+			}
+		}
+
+		this.cursor = cursor;
+		cachedPage = null;
+	}
+
+	/**
+	 * Gets the current page, fetched once per request.
+	 * 
+	 * @return the current page
+	 */
+	protected final CursorPage<T> getCursorPage()
+	{
+		if (cachedPage == null)
+		{
+			cachedPage = dataProvider.page(cursor, itemsPerPage);
+
+			if (cachedPage.getItems().isEmpty() && cursor != null)
+			{
+				// the rows around the cursor are gone
+				if (isVersioned())
+				{
+					addStateChange();
+				}
+				cursor = null;
+				cachedPage = dataProvider.page(null, itemsPerPage);
+			}
+
+			cachedPageRendering = DataViewBase.isRenderingHierarchy(this);
+		}
+		return cachedPage;
+	}
+
+	/**
+	 * @return total number of items or {@code -1} if unknown
+	 * 
+	 * @see ICursorDataProvider#size()
+	 */
+	public long getItemCount()
+	{
+		return dataProvider.size();
+	}
+
+	@Override
+	public boolean hasPreviousPage()
+	{
+		return getCursorPage().getPreviousCursor() != null;
+	}
+
+	@Override
+	public boolean hasNextPage()
+	{
+		return getCursorPage().getNextCursor() != null;
+	}
+
+	@Override
+	public void firstPage()
+	{
+		setCursor(null);
+	}
+
+	@Override
+	public void previousPage()
+	{
+		String previous = getCursorPage().getPreviousCursor();
+		if (previous != null)
+		{
+			setCursor(previous);
+		}
+	}
+
+	@Override
+	public void nextPage()
+	{
+		String next = getCursorPage().getNextCursor();
+		if (next != null)
+		{
+			setCursor(next);
+		}
+	}
+
+	@Override
+	protected Iterator<IModel<T>> getItemModels()
+	{
+		final Iterator<? extends T> items = getCursorPage().getItems().iterator();
+
+		return new Iterator<IModel<T>>()
+		{
+			@Override
+			public boolean hasNext()
+			{
+				return items.hasNext();
+			}
+
+			@Override
+			public IModel<T> next()
+			{
+				return dataProvider.model(items.next());
+			}
+		};
+	}
+
+	/**
+	 * Clears the cached page if it was fetched before rendering, since the data might have been
+	 * changed in the meantime, e.g. by a listener.
+	 */
+	@Override
+	protected void onBeforeRender()
+	{
+		if (!cachedPageRendering)
+		{
+			cachedPage = null;
+		}
+		super.onBeforeRender();
+	}
+
+	@Override
+	protected void onModelChanged()
+	{
+		cachedPage = null;
+		super.onModelChanged();
+	}
+
+	@Override
+	protected void onDetach()
+	{
+		cachedPage = null;
+		dataProvider.detach();
+		super.onDetach();
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.repeater.data;
+
+import java.util.List;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A page of data along with the cursors to its neighbouring pages, as returned by
+ * {@link ICursorDataProvider#page(String, long)}.
+ * 
+ * @param <T>
+ *            type of items
+ */
+public class CursorPage<T>
+{
+	private final List<? extends T> items;
+
+	private final String previousCursor;
+
+	private final String nextCursor;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param items
+	 *            the items of the page
+	 * @param previousCursor
+	 *            cursor of the previous page, or {@code null} if this is the first page
+	 * @param nextCursor
+	 *            cursor of the next page, or {@code null} if this is the last page
+	 */
+	public CursorPage(List<? extends T> items, String previousCursor, String nextCursor)
+	{
+		this.items = Args.notNull(items, "items");
+		this.previousCursor = previousCursor;
+		this.nextCursor = nextCursor;
+	}
+
+	/**
+	 * @return the items of the page
+	 */
+	public List<? extends T> getItems()
+	{
+		return items;
+	}
+
+	/**
+	 * @return cursor of the previous page, or {@code null} if this is the first page
+	 */
+	public String getPreviousCursor()
+	{
+		return previousCursor;
+	}
+
+	/**
+	 * @return cursor of the next page, or {@code null} if this is the last page
+	 */
+	public String getNextCursor()
+	{
+		return nextCursor;
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.repeater.data;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A page of data along with the total number of items, as returned by
+ * {@link IPagingDataProvider#page(long, long)}.
+ * 
+ * @param <T>
+ *            type of items
+ */
+public class DataPage<T>
+{
+	private final List<? extends T> items;
+
+	private LongSupplier sizeSupplier;
+
+	private long size;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param items
+	 *            the items of the page
+	 * @param size
+	 *            the total number of items
+	 */
+	public DataPage(List<? extends T> items, long size)
+	{
+		this.items = Args.notNull(items, "items");
+		this.size = size;
+	}
+
+	/**
+	 * Constructor for a total number of items computed lazily, e.g. by a separate query which is
+	 * not needed if the total can be derived from the items of the page.
+	 * 
+	 * @param items
+	 *            the items of the page
+	 * @param sizeSupplier
+	 *            supplier of the total number of items, called once at most
+	 */
+	public DataPage(List<? extends T> items, LongSupplier sizeSupplier)
+	{
+		this.items = Args.notNull(items, "items");
+		this.sizeSupplier = Args.notNull(sizeSupplier, "sizeSupplier");
+	}
+
+	/**
+	 * @return the items of the page
+	 */
+	public List<? extends T> getItems()
+	{
+		return items;
+	}
+
+	/**
+	 * @return the total number of items
+	 */
+	public long getSize()
+	{
+		if (sizeSupplier != null)
+		{
+			size = sizeSupplier.getAsLong();
+			sizeSupplier = null;
+		}
+		return size;
+	}
+}
@@ -18,8 +18,10 @@ package org.apache.wicket.markup.repeater.data;
 
 import java.util.Iterator;
 
+import org.apache.wicket.Component;
 import org.apache.wicket.markup.html.navigation.paging.IPageable;
 import org.apache.wicket.markup.repeater.AbstractPageableView;
+import org.apache.wicket.markup.repeater.KeyedItemReuseStrategy;
 import org.apache.wicket.markup.repeater.RefreshingView;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.util.lang.Args;
@@ -46,6 +48,21 @@ public abstract class DataViewBase<T> extends AbstractPageableView<T>
 	private static final long serialVersionUID = 1L;
 	private final IDataProvider<T> dataProvider;
 
+	/**
+	 * Page of an {@link IPagingDataProvider}, cached until detach.
+	 */
+	private transient DataPage<T> cachedPage;
+
+	private transient long cachedPageOffset;
+
+	private transient long cachedPageCount;
+
+	/**
+	 * Whether the cached page was fetched while rendering, otherwise it is fetched again for
+	 * rendering.
+	 */
+	private transient boolean cachedPageRendering;
+
 	/**
 	 * @param id
 	 *            component id
@@ -57,6 +74,12 @@ public abstract class DataViewBase<T> extends AbstractPageableView<T>
 		super(id);
 
 		this.dataProvider = Args.notNull(dataProvider, "dataProvider");
+
+		if (dataProvider instanceof IKeyedDataProvider)
+		{
+			IKeyedDataProvider<T> keyedDataProvider = (IKeyedDataProvider<T>)dataProvider;
+			setItemReuseStrategy(new KeyedItemReuseStrategy(keyedDataProvider::getKey));
+		}
 	}
 
 	/**
@@ -71,9 +94,47 @@ public abstract class DataViewBase<T> extends AbstractPageableView<T>
 	@Override
 	protected final Iterator<IModel<T>> getItemModels(long offset, long count)
 	{
+		if (dataProvider instanceof IPagingDataProvider)
+		{
+			DataPage<T> page = getDataPage(offset, count);
+			return new ModelIterator<T>(dataProvider, page.getItems().iterator(), count);
+		}
+
 		return new ModelIterator<T>(internalGetDataProvider(), offset, count);
 	}
 
+	/**
+	 * Get a page of an {@link IPagingDataProvider}, reusing the cached page if it covers the
+	 * requested items.
+	 */
+	private DataPage<T> getDataPage(long offset, long count)
+	{
+		if (cachedPage == null || cachedPageOffset != offset || cachedPageCount < count)
+		{
+			cachedPage = ((IPagingDataProvider<T>)dataProvider).page(offset, count);
+			cachedPageOffset = offset;
+			cachedPageCount = count;
+			cachedPageRendering = isRenderingHierarchy(this);
+		}
+		return cachedPage;
+	}
+
+	/**
+	 * Is the given view or one of its parents rendering, e.g. a toolbar asking for the item count
+	 * before the view is prepared for render.
+	 */
+	static boolean isRenderingHierarchy(Component view)
+	{
+		for (Component current = view; current != null; current = current.getParent())
+		{
+			if (current.isRendering())
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Helper class that converts input from IDataProvider to an iterator over view items.
 	 * 
@@ -100,11 +161,25 @@ public abstract class DataViewBase<T> extends AbstractPageableView<T>
 		 *            max number of items to return
 		 */
 		public ModelIterator(IDataProvider<T> dataProvider, long offset, long count)
+		{
+			this(dataProvider, count > 0 ? dataProvider.iterator(offset, count) : null, count);
+		}
+
+		/**
+		 * Constructor
+		 * 
+		 * @param dataProvider
+		 *            data provider
+		 * @param items
+		 *            items
+		 * @param count
+		 *            max number of items to return
+		 */
+		public ModelIterator(IDataProvider<T> dataProvider, Iterator<? extends T> items, long count)
 		{
 			this.dataProvider = dataProvider;
+			this.items = items;
 			max = count;
-
-			items = count > 0 ? dataProvider.iterator(offset, count) : null;
 		}
 
 		/**
@@ -139,15 +214,50 @@ public abstract class DataViewBase<T> extends AbstractPageableView<T>
 	@Override
 	protected final long internalGetItemCount()
 	{
+		if (dataProvider instanceof IPagingDataProvider)
+		{
+			// fetch the current page along with the total
+			return getDataPage(getRequestedItemOffset(), getItemsPerPage()).getSize();
+		}
+
 		return internalGetDataProvider().size();
 	}
 
+	/**
+	 * Clears the cached page if it was fetched before rendering, since the data might have been
+	 * changed in the meantime, e.g. by a listener.
+	 * 
+	 * @see org.apache.wicket.markup.repeater.AbstractPageableView#onBeforeRender()
+	 */
+	@Override
+	protected void onBeforeRender()
+	{
+		if (!cachedPageRendering)
+		{
+			cachedPage = null;
+		}
+		super.onBeforeRender();
+	}
+
+	/**
+	 * Clears the cached page.
+	 * 
+	 * @see org.apache.wicket.Component#onModelChanged()
+	 */
+	@Override
+	protected void onModelChanged()
+	{
+		cachedPage = null;
+		super.onModelChanged();
+	}
+
 	/**
 	 * @see org.apache.wicket.markup.repeater.AbstractPageableView#onDetach()
 	 */
 	@Override
 	protected void onDetach()
 	{
+		cachedPage = null;
 		dataProvider.detach();
 		super.onDetach();
 	}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.repeater.data;
+
+import org.apache.wicket.model.IDetachable;
+import org.apache.wicket.model.IModel;
+
+/**
+ * Interface used to provide data to {@link CursorDataView}s with keyset pagination: instead of
+ * skipping a number of rows, which gets slower the deeper the page is, each page is looked up by
+ * a cursor, e.g. the sort key of the last row of the previous page:
+ * 
+ * <pre>
+ * SELECT * FROM users WHERE name &gt; :cursor ORDER BY name LIMIT :count
+ * </pre>
+ * 
+ * The cursors are opaque to the view, they are created by the provider and handed back to it
+ * unchanged. A cursor to a previous page has to encode its direction by itself, e.g. with a
+ * prefix.
+ * 
+ * @param <T>
+ *            type of items
+ */
+public interface ICursorDataProvider<T> extends IDetachable
+{
+	/**
+	 * Gets a page of data.
+	 * 
+	 * @param cursor
+	 *            cursor of the page as returned by an earlier page, or {@code null} for the first
+	 *            page
+	 * @param count
+	 *            maximum number of items to retrieve
+	 * @return page of data
+	 */
+	CursorPage<T> page(String cursor, long count);
+
+	/**
+	 * Gets the total number of items, if known. Since counting might be as expensive as an offset
+	 * query the default implementation does not.
+	 * 
+	 * @return total number of items or {@code -1} if unknown
+	 */
+	default long size()
+	{
+		return -1;
+	}
+
+	/**
+	 * Callback used by the consumer of this data provider to wrap objects retrieved from
+	 * {@link #page(String, long)} with a model (usually a detachable one).
+	 * 
+	 * @param object
+	 *            the object that needs to be wrapped
+	 * @return the model representation of the object
+	 */
+	IModel<T> model(T object);
+
+	@Override
+	default void detach()
+	{
+	}
+}
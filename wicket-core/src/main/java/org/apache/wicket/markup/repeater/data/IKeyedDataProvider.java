@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.repeater.data;
+
+import java.io.Serializable;
+
+import org.apache.wicket.markup.repeater.KeyedItemReuseStrategy;
+
+/**
+ * A data provider supplying a stable key for each object, e.g. its primary key. Data views use a
+ * {@link KeyedItemReuseStrategy} with these keys, so items of rows which are still present are
+ * reused instead of being recreated on each render.
+ * 
+ * @param <T>
+ *            type of items
+ */
+public interface IKeyedDataProvider<T> extends IDataProvider<T>
+{
+	/**
+	 * Gets the key of an object.
+	 * 
+	 * @param object
+	 *            the object
+	 * @return the stable key of the object
+	 */
+	Serializable getKey(T object);
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.repeater.data;
+
+import java.util.Iterator;
+
+/**
+ * A data provider returning a page of data together with the total number of items, e.g. with a
+ * single database query, instead of separate calls to {@link #iterator(long, long)} and
+ * {@link #size()}.
+ * <p>
+ * {@link DataViewBase} fetches the current page once per request, so the total number of items
+ * is computed only once even if it is asked for by several components like navigators or
+ * toolbars.
+ * 
+ * @param <T>
+ *            type of items
+ */
+public interface IPagingDataProvider<T> extends IDataProvider<T>
+{
+	/**
+	 * Gets a page of data together with the total number of items.
+	 * 
+	 * @param first
+	 *            first row of data
+	 * @param count
+	 *            maximum number of items to retrieve, might be {@code 0} if only the total is needed
+	 * @return page of data
+	 */
+	DataPage<T> page(long first, long count);
+
+	@Override
+	default Iterator<? extends T> iterator(long first, long count)
+	{
+		return page(first, count).getItems().iterator();
+	}
+
+	@Override
+	default long size()
+	{
+		return page(0, 0).getSize();
+	}
+}
@@ -19,6 +19,8 @@ package org.apache.wicket.model;
 import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.wicket.Application;
 import org.apache.wicket.Component;
@@ -202,6 +204,17 @@ public class StringResourceModel extends LoadableDetachableModel<String>
 {
 	private static final long serialVersionUID = 1L;
 
+	/** The maximum number of cached message formats for each locale. */
+	private static final int MAX_CACHED_FORMATS = 1000;
+
+	/** The parsed message formats by locale and resource value. */
+	private static final ConcurrentMap<Locale, ConcurrentMap<String, MessageFormat>> FORMATS =
+		new ConcurrentHashMap<>();
+
+	/** The parsed message formats with escaped property expressions by locale and resource value. */
+	private static final ConcurrentMap<Locale, ConcurrentMap<String, MessageFormat>> PROPERTY_FORMATS =
+		new ConcurrentHashMap<>();
+
 	/** The key of message to get. */
 	private final String resourceKey;
 
@@ -464,23 +477,13 @@ public class StringResourceModel extends LoadableDetachableModel<String>
 					}
 				}
 
-				// Escape all single quotes outside {..}
-				if (value.indexOf('\'') != -1)
-				{
-					value = escapeQuotes(value);
-				}
-
-				if (model != null)
+				// Apply the parameters
+				final MessageFormat format = getMessageFormat(value, model != null, getLocale());
+				synchronized (format)
 				{
-					// First escape all substitute properties so that message format doesn't try to
-					// parse that.
-					value = Strings.replaceAll(value, "${", "$'{'").toString();
+					value = format.format(realParams);
 				}
 
-				// Apply the parameters
-				final MessageFormat format = new MessageFormat(value, getLocale());
-				value = format.format(realParams);
-
 				if (model != null)
 				{
 					// un escape the substitute properties
@@ -512,13 +515,73 @@ public class StringResourceModel extends LoadableDetachableModel<String>
 		return locale;
 	}
 
+	/**
+	 * Gets the message format for a resource value. The parsed formats are cached for each locale,
+	 * so a label rendered in each row of a repeater parses its pattern only once.
+	 * <p>
+	 * {@link MessageFormat} is not thread-safe, callers have to synchronize on the returned format
+	 * while formatting.
+	 * 
+	 * @param value
+	 *            the resource value
+	 * @param escapeProperties
+	 *            whether <code>${..}</code> property expressions have to be escaped
+	 * @param locale
+	 *            the locale to format with
+	 * @return the shared message format
+	 */
+	static MessageFormat getMessageFormat(final String value, final boolean escapeProperties,
+		final Locale locale)
+	{
+		if (locale == null)
+		{
+			return newMessageFormat(value, escapeProperties, null);
+		}
+
+		ConcurrentMap<String, MessageFormat> formats = (escapeProperties ? PROPERTY_FORMATS
+			: FORMATS).computeIfAbsent(locale, l -> new ConcurrentHashMap<>());
+
+		MessageFormat format = formats.get(value);
+		if (format == null)
+		{
+			if (formats.size() >= MAX_CACHED_FORMATS)
+			{
+				formats.clear();
+			}
+			format = formats.computeIfAbsent(value,
+				v -> newMessageFormat(v, escapeProperties, locale));
+		}
+		return format;
+	}
+
+	private static MessageFormat newMessageFormat(final String value,
+		final boolean escapeProperties, final Locale locale)
+	{
+		String pattern = value;
+
+		// Escape all single quotes outside {..}
+		if (pattern.indexOf('\'') != -1)
+		{
+			pattern = escapeQuotes(pattern);
+		}
+
+		if (escapeProperties)
+		{
+			// First escape all substitute properties so that message format doesn't try to
+			// parse that.
+			pattern = Strings.replaceAll(pattern, "${", "$'{'").toString();
+		}
+
+		return new MessageFormat(pattern, locale);
+	}
+
 	/**
 	 * Replace "'" with "''" outside of "{..}"
 	 * 
 	 * @param value
 	 * @return escaped message format
 	 */
-	private String escapeQuotes(final String value)
+	private static String escapeQuotes(final String value)
 	{
 		StringBuilder newValue = new StringBuilder(value.length() + 10);
 		int count = 0;
@@ -65,4 +65,15 @@ public interface IManageablePage extends IClusterable
 	 * @return previous state
 	 */
 	boolean setFreezePageId(boolean freeze);
+
+	/**
+	 * Gets a counter of the modifications of this page, allowing to detect whether the page was
+	 * changed while it was used in a request.
+	 * 
+	 * @return count of modifications or {@code -1} if modifications are not tracked
+	 */
+	default int getModificationCount()
+	{
+		return -1;
+	}
 }
@@ -0,0 +1,383 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.page;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.Page;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.ajax.AjaxMarkupDiffBehavior;
+import org.apache.wicket.request.Request;
+import org.apache.wicket.request.Response;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.http.WebRequest;
+import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.util.diff.Chunk;
+import org.apache.wicket.util.diff.Delta;
+import org.apache.wicket.util.diff.Diff;
+import org.apache.wicket.util.diff.DifferentiationFailedException;
+import org.apache.wicket.util.diff.Revision;
+import org.apache.wicket.util.string.Strings;
+
+import com.github.openjson.JSONObject;
+
+/**
+ * A {@link PartialPageUpdate} that serializes itself to a compact JSON array.
+ * <p>
+ * Each element of the array is a step to be applied in order:
+ * <ul>
+ * <li>{@code ["c", markupId, markup]} replaces the component with the given markup id</li>
+ * <li>{@code ["c", markupId, markup, hash]} replaces a component with an
+ * {@link AjaxMarkupDiffBehavior}, the client keeps the markup and its hash as the base for later
+ * diffs</li>
+ * <li>{@code ["d", markupId, baseHash, edits, hash]} applies the {@link #diff(String, String)
+ * edits} to the base with the given hash, replaces the component with the result and keeps the
+ * result with its hash as the new base</li>
+ * <li>{@code ["h", contents]} contributes to the header, this includes the JavaScripts to
+ * evaluate</li>
+ * </ul>
+ * Unlike {@link XmlPartialPageUpdate} no CDATA escaping is needed and the client can decode the
+ * response without an XML parser.
+ * </p>
+ * <p>
+ * A diff is only written against a base the client confirmed: the client sends the hashes of the
+ * bases it holds in the {@value WebRequest#HEADER_AJAX_MARKUP_BASES} header, as a comma separated
+ * list of {@code markupId=hash}. If the confirmed hash does not match the markup retained by the
+ * server, e.g. because a previous response was lost or aborted, the component is replaced fully
+ * and both sides start again from the new base. The hash combines a version counted by the server
+ * for each written markup with a {@link #digest(String) digest} of the markup, so a base is never
+ * confused with another one of equal length or colliding {@link String#hashCode()}. A client
+ * finding a {@code "d"} step whose base hash does not match its own base must not apply it, it has
+ * to drop its base so that the next update of the component is a full replace. A client that replaces a component in another way,
+ * e.g. by an XML encoded update or when restoring a page from the history, has to drop its base,
+ * too.
+ * </p>
+ *
+ * @see #isRequested(Request)
+ */
+public class JsonPartialPageUpdate extends PartialPageUpdate
+{
+	/**
+	 * The value of the {@value WebRequest#HEADER_AJAX_RESPONSE_FORMAT} header asking for this
+	 * format.
+	 */
+	public static final String FORMAT = "json";
+
+	/**
+	 * Whether no step has been written yet.
+	 */
+	private transient boolean firstStep;
+
+	/**
+	 * The hashes of the bases confirmed by the client, by markup id, parsed lazily.
+	 */
+	private transient Map<String, String> confirmedBases;
+
+	public JsonPartialPageUpdate(final Page page)
+	{
+		super(page);
+	}
+
+	/**
+	 * @param request
+	 *      the current request
+	 * @return {@code true} if the client asked for an Ajax response in this format
+	 */
+	public static boolean isRequested(Request request)
+	{
+		return request instanceof WebRequest &&
+			FORMAT.equalsIgnoreCase(((WebRequest)request).getHeader(WebRequest.HEADER_AJAX_RESPONSE_FORMAT));
+	}
+
+	@Override
+	public void setContentType(WebResponse response, String encoding)
+	{
+		response.setContentType("application/json; charset=" + encoding);
+	}
+
+	@Override
+	protected void writeHeader(Response response, String encoding)
+	{
+		response.write("[");
+		firstStep = true;
+	}
+
+	@Override
+	protected void writeComponent(Response response, String markupId, Component component, String encoding)
+	{
+		// substitute our buffering response for the old one so we can capture
+		// component's markup
+		Response oldResponse = RequestCycle.get().setResponse(bodyBuffer);
+
+		try
+		{
+			// render any associated headers of the component
+			writeHeaderContribution(response, component);
+
+			bodyBuffer.reset();
+
+			try
+			{
+				component.renderPart();
+			}
+			catch (RuntimeException e)
+			{
+				bodyBuffer.reset();
+				throw e;
+			}
+		}
+		finally
+		{
+			// Restore original response
+			RequestCycle.get().setResponse(oldResponse);
+		}
+
+		String markup = bodyBuffer.getContents().toString();
+		bodyBuffer.reset();
+
+		String hash = null;
+		if (component.getBehaviors(AjaxMarkupDiffBehavior.class).isEmpty() == false)
+		{
+			Page page = component.getPage();
+			RenderedMarkup renderedMarkup = RenderedMarkup.get(page);
+			hash = renderedMarkup.nextVersion() + "-" + digest(markup);
+			RenderedMarkup.Written previous = renderedMarkup.replace(markupId, markup, hash);
+			page.modified();
+
+			// diff only against the markup the client confirmed to hold
+			String baseHash = getConfirmedBase(markupId);
+			if (previous != null && baseHash != null && baseHash.equals(previous.hash))
+			{
+				CharSequence edits = diff(previous.markup, markup);
+				if (edits != null && edits.length() < markup.length())
+				{
+					writeStep(response, "d");
+					response.write(",");
+					response.write(JSONObject.quote(markupId));
+					response.write(",");
+					response.write(JSONObject.quote(baseHash));
+					response.write(",");
+					response.write(edits);
+					response.write(",");
+					response.write(JSONObject.quote(hash));
+					response.write("]");
+					return;
+				}
+			}
+		}
+
+		writeStep(response, "c");
+		response.write(",");
+		response.write(JSONObject.quote(markupId));
+		response.write(",");
+		response.write(JSONObject.quote(markup));
+		if (hash != null)
+		{
+			response.write(",");
+			response.write(JSONObject.quote(hash));
+		}
+		response.write("]");
+	}
+
+	/**
+	 * Computes the digest of a markup written for a component, the first 96 bits of the SHA-256
+	 * of its UTF-8 bytes.
+	 *
+	 * @param markup
+	 *      the markup
+	 * @return the digest
+	 */
+	protected String digest(String markup)
+	{
+		MessageDigest digest;
+		try
+		{
+			digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new WicketRuntimeException("message digest SHA-256 not found", e);
+		}
+
+		byte[] bytes = digest.digest(markup.getBytes(StandardCharsets.UTF_8));
+		return Base64.getUrlEncoder().encodeToString(Arrays.copyOf(bytes, 12));
+	}
+
+	/**
+	 * @param markupId
+	 *      the markup id of a component
+	 * @return the hash of the base the client confirmed to hold for the component, or {@code null}
+	 */
+	private String getConfirmedBase(String markupId)
+	{
+		if (confirmedBases == null)
+		{
+			confirmedBases = new HashMap<>();
+
+			RequestCycle requestCycle = RequestCycle.get();
+			Request request = requestCycle == null ? null : requestCycle.getRequest();
+			if (request instanceof WebRequest)
+			{
+				String header = ((WebRequest)request).getHeader(WebRequest.HEADER_AJAX_MARKUP_BASES);
+				if (header != null)
+				{
+					for (String base : Strings.split(header, ','))
+					{
+						int index = base.indexOf('=');
+						if (index > 0)
+						{
+							confirmedBases.put(base.substring(0, index).trim(),
+								base.substring(index + 1).trim());
+						}
+					}
+				}
+			}
+		}
+		return confirmedBases.get(markupId);
+	}
+
+	/**
+	 * Computes the edits turning the previous markup into the current one. Each edit is a triple
+	 * of the offset in the previous markup, the number of chars to remove there and the text to
+	 * insert instead. The offsets are ascending, so the client has to apply the edits from last to
+	 * first.
+	 *
+	 * @param previous
+	 *      the markup written previously
+	 * @param current
+	 *      the current markup
+	 * @return a JSON array of the edits or {@code null} if the diff failed
+	 */
+	protected CharSequence diff(String previous, String current)
+	{
+		String[] previousTokens = tokenize(previous);
+		String[] currentTokens = tokenize(current);
+
+		Revision revision;
+		try
+		{
+			revision = Diff.diff(previousTokens, currentTokens);
+		}
+		catch (DifferentiationFailedException e)
+		{
+			return null;
+		}
+
+		// the offset of each token in the previous markup
+		int[] offsets = new int[previousTokens.length + 1];
+		for (int i = 0; i < previousTokens.length; i++)
+		{
+			offsets[i + 1] = offsets[i] + previousTokens[i].length();
+		}
+
+		StringBuilder edits = new StringBuilder("[");
+		for (int i = 0; i < revision.size(); i++)
+		{
+			Delta delta = revision.getDelta(i);
+			Chunk original = delta.getOriginal();
+			int start = offsets[original.first()];
+			int end = offsets[original.first() + original.size()];
+
+			StringBuilder insert = new StringBuilder();
+			for (Object token : delta.getRevised().chunk())
+			{
+				insert.append(token);
+			}
+
+			if (i > 0)
+			{
+				edits.append(',');
+			}
+			edits.append(start).append(',').append(end - start).append(',')
+				.append(JSONObject.quote(insert.toString()));
+		}
+		return edits.append(']');
+	}
+
+	/**
+	 * Splits markup into tags and the texts between them.
+	 */
+	private static String[] tokenize(String markup)
+	{
+		List<String> tokens = new ArrayList<>();
+		int start = 0;
+		for (int i = 0; i < markup.length(); i++)
+		{
+			char c = markup.charAt(i);
+			if (c == '<' && i > start)
+			{
+				tokens.add(markup.substring(start, i));
+				start = i;
+			}
+			else if (c == '>')
+			{
+				tokens.add(markup.substring(start, i + 1));
+				start = i + 1;
+			}
+		}
+		if (start < markup.length())
+		{
+			tokens.add(markup.substring(start));
+		}
+		return tokens.toArray(new String[0]);
+	}
+
+	@Override
+	protected void writeFooter(Response response, String encoding)
+	{
+		response.write("]");
+	}
+
+	@Override
+	protected void writeHeaderContribution(Response response, CharSequence contents)
+	{
+		if (Strings.isEmpty(contents) == false)
+		{
+			writeStep(response, "h");
+			response.write(",");
+			response.write(JSONObject.quote(contents.toString()));
+			response.write("]");
+		}
+	}
+
+	/**
+	 * Starts a step, the caller has to close it with {@code ]}.
+	 */
+	private void writeStep(Response response, String type)
+	{
+		if (firstStep)
+		{
+			firstStep = false;
+		}
+		else
+		{
+			response.write(",");
+		}
+		response.write("[\"");
+		response.write(type);
+		response.write("\"");
+	}
+}
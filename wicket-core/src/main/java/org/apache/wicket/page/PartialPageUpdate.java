@@ -153,6 +153,9 @@ public abstract class PartialPageUpdate
 	 */
 	public void writeTo(final Response response, final String encoding)
 	{
+		// rendering might assign markup ids without dirtying the page
+		page.modified();
+
 		try {
 			writeHeader(response, encoding);
 
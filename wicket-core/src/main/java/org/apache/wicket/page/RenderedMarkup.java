@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.page;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.Page;
+import org.apache.wicket.util.io.IClusterable;
+
+/**
+ * The markup last written by Ajax responses for the components of a page, bounded by the number of
+ * components.
+ *
+ * @see org.apache.wicket.ajax.AjaxMarkupDiffBehavior
+ */
+class RenderedMarkup implements IClusterable
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The maximum number of components to retain the markup for.
+	 */
+	static final int MAX_COMPONENTS = 16;
+
+	private static final MetaDataKey<RenderedMarkup> KEY = new MetaDataKey<>()
+	{
+		private static final long serialVersionUID = 1L;
+	};
+
+	/**
+	 * The render count of the page the markup was written for.
+	 */
+	private final int renderCount;
+
+	/**
+	 * The number of markups written since the page was rendered fully.
+	 */
+	private int writeCount;
+
+	private final LinkedHashMap<String, Written> markups = new LinkedHashMap<String, Written>(16, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Written> eldest)
+		{
+			return size() > MAX_COMPONENTS;
+		}
+	};
+
+	private RenderedMarkup(int renderCount)
+	{
+		this.renderCount = renderCount;
+	}
+
+	/**
+	 * Gets the retained markup of a page, a full render of the page discards it.
+	 *
+	 * @param page
+	 *      the page
+	 * @return the retained markup
+	 */
+	static RenderedMarkup get(Page page)
+	{
+		RenderedMarkup renderedMarkup = page.getMetaData(KEY);
+		if (renderedMarkup == null || renderedMarkup.renderCount != page.getRenderCount())
+		{
+			renderedMarkup = new RenderedMarkup(page.getRenderCount());
+			page.setMetaData(KEY, renderedMarkup);
+		}
+		return renderedMarkup;
+	}
+
+	/**
+	 * Counts a markup written for a component of the page.
+	 *
+	 * @return the version of the written markup, unique for the page until it is rendered fully
+	 *      again
+	 */
+	String nextVersion()
+	{
+		return renderCount + "." + (++writeCount);
+	}
+
+	/**
+	 * Replaces the retained markup of a component.
+	 *
+	 * @param markupId
+	 *      the markup id of the component
+	 * @param markup
+	 *      the markup written for the component
+	 * @param hash
+	 *      the hash identifying the markup
+	 * @return the previously written markup or {@code null}
+	 */
+	Written replace(String markupId, String markup, String hash)
+	{
+		return markups.put(markupId, new Written(markup, hash));
+	}
+
+	/**
+	 * Discards the retained markup of a component, e.g. because it was written in another encoding.
+	 *
+	 * @param markupId
+	 *      the markup id of the component
+	 * @return whether markup was retained for the component
+	 */
+	boolean remove(String markupId)
+	{
+		return markups.remove(markupId) != null;
+	}
+
+	/**
+	 * A markup written for a component along with its hash.
+	 */
+	static class Written implements IClusterable
+	{
+		private static final long serialVersionUID = 1L;
+
+		final String markup;
+
+		final String hash;
+
+		private Written(String markup, String hash)
+		{
+			this.markup = markup;
+			this.hash = hash;
+		}
+	}
+}
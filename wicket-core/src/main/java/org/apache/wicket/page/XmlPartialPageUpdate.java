@@ -20,6 +20,7 @@ import java.util.Collection;
 
 import org.apache.wicket.Component;
 import org.apache.wicket.Page;
+import org.apache.wicket.ajax.AjaxMarkupDiffBehavior;
 import org.apache.wicket.markup.head.JavaScriptHeaderItem;
 import org.apache.wicket.request.Response;
 import org.apache.wicket.request.cycle.RequestCycle;
@@ -94,6 +95,16 @@ public class XmlPartialPageUpdate extends PartialPageUpdate
 		response.write("]]></component>");
 
 		bodyBuffer.reset();
+
+		if (component.getBehaviors(AjaxMarkupDiffBehavior.class).isEmpty() == false)
+		{
+			// the client no longer holds the markup a JSON update would diff against
+			Page page = component.getPage();
+			if (RenderedMarkup.get(page).remove(markupId))
+			{
+				page.modified();
+			}
+		}
 	}
 
 	@Override
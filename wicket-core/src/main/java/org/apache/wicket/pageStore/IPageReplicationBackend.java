@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import java.util.Map;
+
+/**
+ * A remote backend for {@link ReplicatingPageStore}, keeping a single page per session, e.g. in
+ * a distributed cache shared by all nodes of a cluster.
+ * <p>
+ * Implementations have to be thread-safe.
+ */
+public interface IPageReplicationBackend
+{
+	/**
+	 * Writes a batch of pages.
+	 * 
+	 * @param pages
+	 *            compressed page by session id, a {@code null} value removes the page of the
+	 *            session
+	 */
+	void write(Map<String, byte[]> pages);
+
+	/**
+	 * Reads the page of a session.
+	 * 
+	 * @param sessionId
+	 *            id of session
+	 * @return compressed page or {@code null}
+	 */
+	byte[] read(String sessionId);
+}
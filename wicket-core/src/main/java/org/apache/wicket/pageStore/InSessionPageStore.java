@@ -26,6 +26,7 @@ import java.util.function.Supplier;
 
 import javax.servlet.http.HttpSession;
 
+import org.apache.wicket.Application;
 import org.apache.wicket.MetaDataKey;
 import org.apache.wicket.Session;
 import org.apache.wicket.WicketRuntimeException;
@@ -39,6 +40,8 @@ import org.apache.wicket.util.lang.Classes;
  * A store keeping a configurable maximum of pages in the session.
  * <p>
  * Note: see {@link #getKey()} for using more than once instance in an application
+ * 
+ * @see SessionSizeBudget
  */
 public class InSessionPageStore implements IPageStore
 {
@@ -125,6 +128,8 @@ public class InSessionPageStore implements IPageStore
 		SessionData data = getSessionData(context, true);
 
 		data.add(page);
+
+		account(context, data);
 	}
 
 	@Override
@@ -134,6 +139,8 @@ public class InSessionPageStore implements IPageStore
 		if (data != null)
 		{
 			data.remove(page.getPageId());
+
+			account(context, data);
 		}
 	}
 
@@ -144,9 +151,37 @@ public class InSessionPageStore implements IPageStore
 		if (data != null)
 		{
 			data.removeAll();
+
+			account(context, data);
 		}
 	}
 
+	/**
+	 * Account the pages to an installed {@link SessionSizeBudget}, evicting the oldest pages if
+	 * the budget is exceeded.
+	 */
+	private void account(IPageContext context, SessionData data)
+	{
+		if (Application.exists() == false)
+		{
+			return;
+		}
+		SessionSizeBudget budget = SessionSizeBudget.get(Application.get());
+		if (budget == null)
+		{
+			return;
+		}
+		String sessionId = context.getSessionId(false);
+		if (sessionId == null)
+		{
+			return;
+		}
+
+		int evicted = data.evict(budget.getAvailablePageBytes(sessionId));
+
+		budget.onPagesChanged(sessionId, data.getSize(), evicted);
+	}
+
 	private SessionData getSessionData(IPageContext context, boolean create)
 	{
 		SessionData data = context.getSessionData(getKey(), () -> {
@@ -243,6 +278,43 @@ public class InSessionPageStore implements IPageStore
 			pages.clear();
 		}
 
+		/**
+		 * Get the size of all serialized pages.
+		 * 
+		 * @return size in bytes
+		 */
+		public synchronized long getSize()
+		{
+			long size = 0;
+			for (IManageablePage page : pages)
+			{
+				if (page instanceof SerializedPage)
+				{
+					size += ((SerializedPage)page).getData().length;
+				}
+			}
+			return size;
+		}
+
+		/**
+		 * Evict the oldest pages until the size does not exceed the given bytes, keeping the
+		 * newest page in any case.
+		 * 
+		 * @param maxBytes
+		 *            maximum bytes
+		 * @return count of evicted pages
+		 */
+		public synchronized int evict(long maxBytes)
+		{
+			int evicted = 0;
+			while (pages.size() > 1 && getSize() > maxBytes)
+			{
+				removeOldest();
+				evicted++;
+			}
+			return evicted;
+		}
+
 		public synchronized IManageablePage get(int id)
 		{
 			for (int p = 0; p < pages.size(); p++)
@@ -373,6 +445,12 @@ public class InSessionPageStore implements IPageStore
 
 			size = 0;
 		}
+
+		@Override
+		public synchronized long getSize()
+		{
+			return size;
+		}
 	}
 
 	@Override
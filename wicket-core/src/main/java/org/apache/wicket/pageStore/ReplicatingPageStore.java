@@ -0,0 +1,627 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionBindingListener;
+
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.page.IManageablePage;
+import org.apache.wicket.util.io.ByteArrayOutputStream;
+import org.apache.wicket.util.lang.Args;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A store replicating the most recently added page of each session to an
+ * {@link IPageReplicationBackend}, so that a session can be continued on another node of a
+ * cluster after a failover - without replicating the whole page history of the session.
+ * <p>
+ * Pages are written asynchronously in batches of compressed pages. If a page was added again
+ * before it was written, only the latest page of the session is written. After a failover pages
+ * are fetched lazily from the backend, when they are not found in the delegate.
+ * <p>
+ * All pages added to this store <em>must</em> be {@code SerializedPage}s. You can achieve this
+ * by letting a {@link SerializingPageStore} delegate to this store.
+ * <p>
+ * Removed pages are removed from the backend too, and the page of a session expires from the
+ * backend when the session is unbound. When the id of a session is changed, its page is moved to
+ * the new id, see {@link org.apache.wicket.session.ISessionStore#onSessionIdChanged}.
+ */
+public class ReplicatingPageStore extends DelegatingPageStore
+{
+	private static final Logger log = LoggerFactory.getLogger(ReplicatingPageStore.class);
+
+	private static final String KEY = "wicket:" + ReplicatingPageStore.class.getSimpleName();
+
+	/**
+	 * All stores, the key is the application name suffixed with the store class.
+	 */
+	private static final ConcurrentMap<String, ReplicatingPageStore> STORES = new ConcurrentHashMap<>();
+
+	private final String storeKey;
+
+	private final IPageReplicationBackend backend;
+
+	private final int batchSize;
+
+	/**
+	 * The pages waiting to be written, by session id.
+	 */
+	private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+
+	/**
+	 * The ids of the pages written to or fetched from the backend, by session id.
+	 */
+	private final ConcurrentMap<String, Integer> replicatedPageIds = new ConcurrentHashMap<>();
+
+	private final Thread replicationThread;
+
+	private final AtomicLong replicatedPages = new AtomicLong();
+
+	private final AtomicLong replicatedBytes = new AtomicLong();
+
+	private final AtomicLong coalescedPages = new AtomicLong();
+
+	private final AtomicLong fetchedPages = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param applicationName
+	 *            name of the application
+	 * @param delegate
+	 *            store to delegate to
+	 * @param backend
+	 *            backend to replicate to
+	 * @param interval
+	 *            interval between writes to the backend
+	 * @param batchSize
+	 *            maximum pages written at once
+	 */
+	public ReplicatingPageStore(String applicationName, IPageStore delegate,
+		IPageReplicationBackend backend, Duration interval, int batchSize)
+	{
+		super(delegate);
+
+		this.backend = Args.notNull(backend, "backend");
+		Args.notNull(interval, "interval");
+		this.batchSize = Args.withinRange(1, Integer.MAX_VALUE, batchSize, "batchSize");
+
+		storeKey = Args.notNull(applicationName, "applicationName") + ":" +
+			getClass().getSimpleName();
+		if (STORES.putIfAbsent(storeKey, this) != null)
+		{
+			throw new IllegalStateException("Store with key '" + storeKey + "' already exists.");
+		}
+
+		replicationThread = new Thread(() -> {
+			while (!Thread.interrupted())
+			{
+				try
+				{
+					Thread.sleep(interval.toMillis());
+				}
+				catch (InterruptedException e)
+				{
+					log.debug("Replication interrupted...");
+					Thread.currentThread().interrupt();
+				}
+
+				try
+				{
+					flush();
+				}
+				catch (Exception x)
+				{
+					log.error("An error occurred while replicating pages", x);
+				}
+			}
+		}, "Wicket-ReplicatingPageStore");
+		replicationThread.setDaemon(true);
+		replicationThread.start();
+	}
+
+	@Override
+	public boolean canBeAsynchronous(IPageContext context)
+	{
+		// session attribute must be added here *before* any asynchronous calls
+		// when session is no longer available
+		getSessionAttribute(context, true);
+
+		return super.canBeAsynchronous(context);
+	}
+
+	/**
+	 * Get the attribute expiring the replicated page when the session is unbound.
+	 */
+	private SessionAttribute getSessionAttribute(IPageContext context, boolean create)
+	{
+		SessionAttribute attribute = context.getSessionAttribute(KEY, () -> {
+			if (create)
+			{
+				return new SessionAttribute(storeKey, context.getSessionId(true));
+			}
+
+			return null;
+		});
+
+		if (attribute != null)
+		{
+			// follow a changed session id, so the right page is expired
+			String sessionId = context.getSessionId(false);
+			if (sessionId != null)
+			{
+				attribute.sessionId = sessionId;
+			}
+		}
+
+		return attribute;
+	}
+
+	@Override
+	public void addPage(IPageContext context, IManageablePage page)
+	{
+		if (page instanceof SerializedPage == false)
+		{
+			throw new WicketRuntimeException(
+				"ReplicatingPageStore works with serialized pages only");
+		}
+
+		getDelegate().addPage(context, page);
+
+		getSessionAttribute(context, true);
+
+		String sessionId = context.getSessionId(true);
+		if (pending.put(sessionId, Pending.add((SerializedPage)page)) != null)
+		{
+			coalescedPages.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void removePage(IPageContext context, IManageablePage page)
+	{
+		getDelegate().removePage(context, page);
+
+		String sessionId = context.getSessionId(false);
+		if (sessionId != null)
+		{
+			int pageId = page.getPageId();
+			pending.compute(sessionId, (id, entry) -> {
+				if (entry == null)
+				{
+					// the backend might keep the page
+					return Pending.remove(Collections.singleton(pageId));
+				}
+				else if (entry.page != null)
+				{
+					// the page to be written replaces any page in the backend
+					return entry.page.getPageId() == pageId ? Pending.removeAll() : entry;
+				}
+				else if (entry.removedPageIds != null)
+				{
+					Set<Integer> pageIds = new HashSet<>(entry.removedPageIds);
+					pageIds.add(pageId);
+					return Pending.remove(pageIds);
+				}
+				return entry;
+			});
+		}
+	}
+
+	@Override
+	public void removeAllPages(IPageContext context)
+	{
+		getDelegate().removeAllPages(context);
+
+		String sessionId = context.getSessionId(false);
+		if (sessionId != null)
+		{
+			pending.put(sessionId, Pending.removeAll());
+		}
+	}
+
+	/**
+	 * Expire the page of the given session from the backend, called when the session is unbound.
+	 * 
+	 * @param sessionId
+	 *            id of session
+	 */
+	protected void expire(String sessionId)
+	{
+		pending.put(sessionId, Pending.removeAll());
+	}
+
+	/**
+	 * Moves the page of a session to its new id.
+	 * 
+	 * @param oldSessionId
+	 *            previous id of session
+	 * @param newSessionId
+	 *            new id of session
+	 */
+	protected void onSessionIdChanged(String oldSessionId, String newSessionId)
+	{
+		Pending entry = pending.remove(oldSessionId);
+		replicatedPageIds.remove(oldSessionId);
+
+		SerializedPage page = null;
+		if (entry != null && entry.page != null)
+		{
+			page = entry.page;
+		}
+		else if (entry == null || entry.removedPageIds != null)
+		{
+			// the session might have been continued after a failover, so ask the backend
+			byte[] data = backend.read(oldSessionId);
+			if (data != null)
+			{
+				SerializedPage replicated = decompress(data);
+				if (entry == null || entry.removedPageIds.contains(replicated.getPageId()) == false)
+				{
+					page = replicated;
+				}
+			}
+		}
+
+		if (page != null)
+		{
+			pending.putIfAbsent(newSessionId, Pending.add(page));
+		}
+		pending.put(oldSessionId, Pending.removeAll());
+	}
+
+	/**
+	 * Moves the pages of a session in all stores of an application to its new id, called by the
+	 * session store.
+	 * 
+	 * @param applicationName
+	 *            name of the application
+	 * @param oldSessionId
+	 *            previous id of session
+	 * @param newSessionId
+	 *            new id of session
+	 * 
+	 * @see org.apache.wicket.session.ISessionStore#onSessionIdChanged
+	 */
+	public static void onSessionIdChanged(String applicationName, String oldSessionId,
+		String newSessionId)
+	{
+		String prefix = applicationName + ":";
+		for (ReplicatingPageStore store : STORES.values())
+		{
+			if (store.storeKey.startsWith(prefix))
+			{
+				store.onSessionIdChanged(oldSessionId, newSessionId);
+			}
+		}
+	}
+
+	@Override
+	public IManageablePage getPage(IPageContext context, int id)
+	{
+		IManageablePage page = getDelegate().getPage(context, id);
+		if (page != null)
+		{
+			return page;
+		}
+
+		String sessionId = context.getSessionId(false);
+		if (sessionId == null)
+		{
+			return null;
+		}
+
+		Pending entry = pending.get(sessionId);
+		if (entry != null)
+		{
+			if (entry.page != null)
+			{
+				// not yet written, so the backend does not know any newer page
+				return entry.page.getPageId() == id ? entry.page : null;
+			}
+			if (entry.removedPageIds == null || entry.removedPageIds.contains(id))
+			{
+				return null;
+			}
+		}
+
+		byte[] data = backend.read(sessionId);
+		if (data == null)
+		{
+			return null;
+		}
+
+		SerializedPage replicated = decompress(data);
+		replicatedPageIds.put(sessionId, replicated.getPageId());
+		if (replicated.getPageId() != id)
+		{
+			return null;
+		}
+
+		log.debug("Fetched replicated page with id '{}' of session '{}'", id, sessionId);
+		fetchedPages.incrementAndGet();
+
+		// keep locally from now on
+		getDelegate().addPage(context, replicated);
+
+		return replicated;
+	}
+
+	/**
+	 * Write pending pages to the backend, called periodically.
+	 */
+	public void flush()
+	{
+		Map<String, byte[]> batch = new HashMap<>();
+
+		Iterator<Map.Entry<String, Pending>> iterator = pending.entrySet().iterator();
+		while (iterator.hasNext())
+		{
+			Map.Entry<String, Pending> entry = iterator.next();
+
+			// a newer page might be added concurrently
+			if (pending.remove(entry.getKey(), entry.getValue()) == false)
+			{
+				continue;
+			}
+
+			Pending value = entry.getValue();
+			if (value.page == null)
+			{
+				Integer replicatedPageId = replicatedPageIds.get(entry.getKey());
+				if (value.removedPageIds != null && (replicatedPageId == null ||
+					value.removedPageIds.contains(replicatedPageId) == false))
+				{
+					// none of the removed pages was replicated
+					continue;
+				}
+				replicatedPageIds.remove(entry.getKey());
+			}
+			else
+			{
+				replicatedPageIds.put(entry.getKey(), value.page.getPageId());
+			}
+
+			byte[] data = value.page == null ? null : compress(value.page);
+			batch.put(entry.getKey(), data);
+			if (data != null)
+			{
+				replicatedBytes.addAndGet(data.length);
+			}
+
+			if (batch.size() == batchSize)
+			{
+				write(batch);
+				batch = new HashMap<>();
+			}
+		}
+
+		if (batch.isEmpty() == false)
+		{
+			write(batch);
+		}
+	}
+
+	private void write(Map<String, byte[]> batch)
+	{
+		backend.write(batch);
+
+		replicatedPages.addAndGet(batch.size());
+	}
+
+	/**
+	 * Compress a page for the backend.
+	 * 
+	 * @param page
+	 *            page
+	 * @return compressed page
+	 */
+	protected byte[] compress(SerializedPage page)
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(bytes)))
+		{
+			output.writeInt(page.getPageId());
+			output.writeUTF(page.getPageType() == null ? "" : page.getPageType());
+			output.writeInt(page.getData().length);
+			output.write(page.getData());
+		}
+		catch (IOException e)
+		{
+			throw new WicketRuntimeException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Decompress a page from the backend.
+	 * 
+	 * @param data
+	 *            compressed page
+	 * @return page
+	 */
+	protected SerializedPage decompress(byte[] data)
+	{
+		try (DataInputStream input = new DataInputStream(
+			new InflaterInputStream(new ByteArrayInputStream(data))))
+		{
+			int pageId = input.readInt();
+			String pageType = input.readUTF();
+			byte[] pageData = new byte[input.readInt()];
+			input.readFully(pageData);
+
+			return new SerializedPage(pageId, pageType.isEmpty() ? null : pageType, pageData);
+		}
+		catch (IOException e)
+		{
+			throw new WicketRuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return count of pages written to the backend
+	 */
+	public long getReplicatedPages()
+	{
+		return replicatedPages.get();
+	}
+
+	/**
+	 * @return count of compressed bytes written to the backend
+	 */
+	public long getReplicatedBytes()
+	{
+		return replicatedBytes.get();
+	}
+
+	/**
+	 * @return count of pages replaced by a newer page of the same session before being written
+	 */
+	public long getCoalescedPages()
+	{
+		return coalescedPages.get();
+	}
+
+	/**
+	 * @return count of pages fetched from the backend
+	 */
+	public long getFetchedPages()
+	{
+		return fetchedPages.get();
+	}
+
+	@Override
+	public void destroy()
+	{
+		if (replicationThread.isAlive())
+		{
+			replicationThread.interrupt();
+			try
+			{
+				replicationThread.join();
+			}
+			catch (InterruptedException e)
+			{
+				log.error(e.getMessage(), e);
+			}
+		}
+
+		flush();
+
+		STORES.remove(storeKey);
+
+		super.destroy();
+	}
+
+	/**
+	 * Attribute held in session.
+	 */
+	private static class SessionAttribute implements Serializable, HttpSessionBindingListener
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String storeKey;
+
+		/**
+		 * id of the session, updated when it changes
+		 */
+		private volatile String sessionId;
+
+		private SessionAttribute(String storeKey, String sessionId)
+		{
+			this.storeKey = storeKey;
+			this.sessionId = Args.notNull(sessionId, "sessionId");
+		}
+
+		@Override
+		public void valueBound(HttpSessionBindingEvent event)
+		{
+		}
+
+		@Override
+		public void valueUnbound(HttpSessionBindingEvent event)
+		{
+			ReplicatingPageStore store = STORES.get(storeKey);
+			if (store == null)
+			{
+				log.warn("Cannot expire page of session '{}' because store '{}' is no longer present.",
+					sessionId, storeKey);
+			}
+			else
+			{
+				store.expire(sessionId);
+			}
+		}
+	}
+
+	/**
+	 * A page waiting to be written, or a removal.
+	 */
+	private static class Pending
+	{
+		/**
+		 * the page, {@code null} for removal
+		 */
+		private final SerializedPage page;
+
+		/**
+		 * ids of pages to remove if replicated, {@code null} to remove any page
+		 */
+		private final Set<Integer> removedPageIds;
+
+		private Pending(SerializedPage page, Set<Integer> removedPageIds)
+		{
+			this.page = page;
+			this.removedPageIds = removedPageIds;
+		}
+
+		private static Pending add(SerializedPage page)
+		{
+			return new Pending(page, null);
+		}
+
+		private static Pending remove(Set<Integer> pageIds)
+		{
+			return new Pending(null, pageIds);
+		}
+
+		private static Pending removeAll()
+		{
+			return new Pending(null, null);
+		}
+	}
+}
@@ -17,7 +17,9 @@
 package org.apache.wicket.pageStore;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.Map;
 
 import org.apache.wicket.MetaDataKey;
 import org.apache.wicket.page.IManageablePage;
@@ -28,6 +30,9 @@ import org.slf4j.LoggerFactory;
 /**
  * Buffers storage of added pages until the end of the request, when they are delegated to the next store in
  * the identical order they where added.
+ * <p>
+ * With {@link #withChangeTracking()} pages which were read from the delegate but not modified during the
+ * request are not delegated again.
  */
 public class RequestPageStore extends DelegatingPageStore
 {
@@ -39,11 +44,33 @@ public class RequestPageStore extends DelegatingPageStore
 		private static final long serialVersionUID = 1L;
 	};
 
+	/**
+	 * Are pages unchanged during the request skipped.
+	 */
+	private boolean changeTracking = false;
+
 	public RequestPageStore(IPageStore delegate)
 	{
 		super(delegate);
 	}
 
+	/**
+	 * Skip pages which were read from the delegate and not modified during the request, according to
+	 * {@link IManageablePage#getModificationCount()}, so that they are not serialized and stored again.
+	 * Pages which were rendered - fully or partially - or which a listener was invoked on are always
+	 * stored.
+	 * <p>
+	 * Note that changes to fields of a page or its components outside of rendering and listeners, e.g.
+	 * by a background thread, are not tracked, such pages have to report these changes with
+	 * {@link org.apache.wicket.Page#modified()} or {@link org.apache.wicket.Page#dirty()}.
+	 */
+	public RequestPageStore withChangeTracking()
+	{
+		changeTracking = true;
+
+		return this;
+	}
+
 	@Override
 	public IManageablePage getPage(IPageContext context, int id)
 	{
@@ -53,7 +80,12 @@ public class RequestPageStore extends DelegatingPageStore
 			return page;
 		}
 
-		return getDelegate().getPage(context, id);
+		page = getDelegate().getPage(context, id);
+		if (page != null && changeTracking)
+		{
+			getRequestData(context).loaded(page);
+		}
+		return page;
 	}
 
 	@Override
@@ -105,6 +137,12 @@ public class RequestPageStore extends DelegatingPageStore
 
 			if (isPageStateless == false)
 			{
+				if (changeTracking && requestData.isUnchanged(page))
+				{
+					log.debug("Skipping unchanged page with id '{}'", page.getPageId());
+					continue;
+				}
+
 				getDelegate().addPage(context, page);
 			}
 		}
@@ -124,6 +162,11 @@ public class RequestPageStore extends DelegatingPageStore
 	static class RequestData
 	{
 		private final LinkedList<IManageablePage> pages = new LinkedList<>();
+
+		/**
+		 * Modification counts of pages read from the delegate.
+		 */
+		private final Map<IManageablePage, Integer> loaded = new IdentityHashMap<>();
 		
 		public void add(IManageablePage page)
 		{
@@ -150,14 +193,32 @@ public class RequestPageStore extends DelegatingPageStore
 			return null;
 		}
 
+		public void loaded(IManageablePage page)
+		{
+			int modificationCount = page.getModificationCount();
+			if (modificationCount != -1)
+			{
+				loaded.putIfAbsent(page, modificationCount);
+			}
+		}
+
+		public boolean isUnchanged(IManageablePage page)
+		{
+			Integer modificationCount = loaded.get(page);
+
+			return modificationCount != null && modificationCount == page.getModificationCount();
+		}
+
 		public void remove(IManageablePage page)
 		{
 			pages.remove(page);
+			loaded.remove(page);
 		}
 
 		public void removeAll()
 		{
 			pages.clear();
-		}		
+			loaded.clear();
+		}
 	}
 }
@@ -0,0 +1,447 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.session.ISessionStore;
+import org.apache.wicket.util.io.ByteCountingOutputStream;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Enforces a maximum size of each session by evicting the oldest pages of an
+ * {@link InSessionPageStore} first.
+ * <p>
+ * The size is accounted incrementally: each session attribute is measured when it is set for the
+ * first time, with the pages of an {@link InSessionPageStore} left out, while the pages are
+ * accounted by the length of their serialized data. Thus no session has to be serialized
+ * completely, as {@code SessionSizeModel} of wicket-devutils does.
+ * <p>
+ * Attributes set again, e.g. the Wicket session on every request it was changed in, are measured
+ * sampled: at most once per {@link #setMeasureInterval(Duration) measure interval}, when the
+ * attribute is set or the available page bytes of its session are needed. Both happen in a request
+ * of the session, the statistics never measure. Until then the previous size is accounted, as it
+ * is if an attribute cannot be measured.
+ * <p>
+ * Install with {@link #install(Application)}, e.g. in {@link Application#init()}:
+ * 
+ * <pre>
+ * new SessionSizeBudget(Bytes.kilobytes(500)).install(this);
+ * </pre>
+ * 
+ * Only serialized pages are accounted for, so the {@link InSessionPageStore} should keep
+ * {@link SerializedPage}s, see {@link InSessionPageStore#InSessionPageStore(Bytes)}.
+ */
+public class SessionSizeBudget implements ISessionStore.UnboundListener
+{
+	private static final Logger log = LoggerFactory.getLogger(SessionSizeBudget.class);
+
+	private static final MetaDataKey<SessionSizeBudget> KEY = new MetaDataKey<>()
+	{
+		private static final long serialVersionUID = 1L;
+	};
+
+	private final Bytes maxBytes;
+
+	private final ConcurrentMap<String, Usage> usages = new ConcurrentHashMap<>();
+
+	private final AtomicLong evictedPages = new AtomicLong();
+
+	private volatile long measureIntervalNanos = Duration.ofSeconds(30).toNanos();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxBytes
+	 *            maximum bytes of each session
+	 */
+	public SessionSizeBudget(Bytes maxBytes)
+	{
+		Args.notNull(maxBytes, "maxBytes");
+
+		this.maxBytes = Args.withinRange(Bytes.bytes(1), Bytes.MAX, maxBytes, "maxBytes");
+	}
+
+	/**
+	 * Installs this budget in the given application.
+	 * 
+	 * @param application
+	 *            application
+	 * @return this
+	 */
+	public SessionSizeBudget install(Application application)
+	{
+		application.setMetaData(KEY, this);
+		application.getSessionStore().registerUnboundListener(this);
+
+		return this;
+	}
+
+	/**
+	 * Get the budget installed in the given application.
+	 * 
+	 * @param application
+	 *            application
+	 * @return budget or {@code null} if none is installed
+	 */
+	public static SessionSizeBudget get(Application application)
+	{
+		return application.getMetaData(KEY);
+	}
+
+	/**
+	 * @return maximum bytes of each session
+	 */
+	public Bytes getMaxBytes()
+	{
+		return maxBytes;
+	}
+
+	/**
+	 * Set the minimum interval between two measurements of the same attribute, defaults to 30
+	 * seconds.
+	 * 
+	 * @param measureInterval
+	 *            interval, {@link Duration#ZERO} to measure each change
+	 * @return this
+	 */
+	public SessionSizeBudget setMeasureInterval(Duration measureInterval)
+	{
+		Args.notNull(measureInterval, "measureInterval");
+
+		this.measureIntervalNanos = measureInterval.toNanos();
+		return this;
+	}
+
+	/**
+	 * Notification that an attribute was set in a session.
+	 * 
+	 * @param sessionId
+	 *            id of session
+	 * @param name
+	 *            name of attribute
+	 * @param value
+	 *            value of attribute
+	 */
+	public void onAttributeSet(String sessionId, String name, Serializable value)
+	{
+		getUsage(sessionId).attributes.computeIfAbsent(name, n -> new Attribute()).set(value);
+	}
+
+	/**
+	 * Notification that an attribute was removed from a session.
+	 * 
+	 * @param sessionId
+	 *            id of session
+	 * @param name
+	 *            name of attribute
+	 */
+	public void onAttributeRemoved(String sessionId, String name)
+	{
+		Usage usage = usages.get(sessionId);
+		if (usage != null)
+		{
+			usage.attributes.remove(name);
+		}
+	}
+
+	/**
+	 * Notification that the pages of a session changed.
+	 * 
+	 * @param sessionId
+	 *            id of session
+	 * @param bytes
+	 *            bytes of all pages
+	 * @param evicted
+	 *            count of pages evicted to stay within the budget
+	 */
+	public void onPagesChanged(String sessionId, long bytes, int evicted)
+	{
+		getUsage(sessionId).pages = bytes;
+
+		evictedPages.addAndGet(evicted);
+	}
+
+	/**
+	 * Get the bytes available to pages of a session, i.e. the budget minus the size of all its
+	 * attributes.
+	 * 
+	 * @param sessionId
+	 *            id of session
+	 * @return available bytes
+	 */
+	public long getAvailablePageBytes(String sessionId)
+	{
+		long available = maxBytes.bytes();
+
+		Usage usage = usages.get(sessionId);
+		if (usage != null)
+		{
+			usage.measureAttributes();
+
+			available -= usage.getAttributesSize();
+		}
+
+		return Math.max(0, available);
+	}
+
+	@Override
+	public void sessionUnbound(String sessionId)
+	{
+		usages.remove(sessionId);
+	}
+
+	/**
+	 * Notification that the id of a session changed, e.g. by
+	 * {@link org.apache.wicket.Session#changeSessionId()}.
+	 * 
+	 * @param oldSessionId
+	 *            previous id of session
+	 * @param newSessionId
+	 *            new id of session
+	 */
+	public void onSessionIdChanged(String oldSessionId, String newSessionId)
+	{
+		Usage usage = usages.remove(oldSessionId);
+		if (usage != null)
+		{
+			Usage existing = usages.putIfAbsent(newSessionId, usage);
+			if (existing != null)
+			{
+				usage.attributes.forEach(existing.attributes::putIfAbsent);
+			}
+		}
+	}
+
+	/**
+	 * Get the accounted size of a session.
+	 * 
+	 * @param sessionId
+	 *            id of session
+	 * @return size, {@link Bytes#bytes(long) zero} if the session is unknown
+	 */
+	public Bytes getSessionSize(String sessionId)
+	{
+		Usage usage = usages.get(sessionId);
+		return Bytes.bytes(usage == null ? 0 : usage.getSize());
+	}
+
+	/**
+	 * @return count of accounted sessions
+	 */
+	public int getSessionCount()
+	{
+		return usages.size();
+	}
+
+	/**
+	 * @return size of the largest session
+	 */
+	public Bytes getMaxSessionSize()
+	{
+		long max = 0;
+		for (Usage usage : usages.values())
+		{
+			max = Math.max(max, usage.getSize());
+		}
+		return Bytes.bytes(max);
+	}
+
+	/**
+	 * @return size of all sessions
+	 */
+	public Bytes getTotalSize()
+	{
+		long total = 0;
+		for (Usage usage : usages.values())
+		{
+			total += usage.getSize();
+		}
+		return Bytes.bytes(total);
+	}
+
+	/**
+	 * @return count of pages evicted to stay within the budget
+	 */
+	public long getEvictedPages()
+	{
+		return evictedPages.get();
+	}
+
+	/**
+	 * Get the distribution of session sizes in buckets of powers of two: bucket {@code n} counts
+	 * the sessions with a size of at least 2<sup>n</sup> and less than 2<sup>n+1</sup> bytes,
+	 * except bucket {@code 0} which counts empty sessions too.
+	 * 
+	 * @return session count in each of 64 buckets
+	 */
+	public long[] getSizeDistribution()
+	{
+		long[] buckets = new long[64];
+		for (Usage usage : usages.values())
+		{
+			long size = usage.getSize();
+
+			buckets[size == 0 ? 0 : 63 - Long.numberOfLeadingZeros(size)]++;
+		}
+		return buckets;
+	}
+
+	/**
+	 * Measure the serialized size of a session attribute, leaving out the pages of any
+	 * {@link InSessionPageStore}.
+	 * 
+	 * @param value
+	 *            value of attribute
+	 * @return size in bytes, {@code -1} if the value cannot be serialized
+	 */
+	protected long measure(Serializable value)
+	{
+		ByteCountingOutputStream counter = new ByteCountingOutputStream();
+		try (ObjectOutputStream output = new ObjectOutputStream(counter)
+		{
+			{
+				enableReplaceObject(true);
+			}
+
+			@Override
+			protected Object replaceObject(Object obj) throws IOException
+			{
+				if (obj instanceof InSessionPageStore.SessionData)
+				{
+					// accounted by onPagesChanged()
+					return null;
+				}
+				return obj;
+			}
+		})
+		{
+			output.writeObject(value);
+		}
+		catch (IOException | RuntimeException ex)
+		{
+			log.warn("Cannot measure session attribute, keeping its previous size", ex);
+			return -1;
+		}
+		return counter.size();
+	}
+
+	private Usage getUsage(String sessionId)
+	{
+		return usages.computeIfAbsent(sessionId, id -> new Usage());
+	}
+
+	/**
+	 * Usage of a single session.
+	 */
+	private static class Usage
+	{
+		private final ConcurrentMap<String, Attribute> attributes = new ConcurrentHashMap<>();
+
+		private volatile long pages;
+
+		private void measureAttributes()
+		{
+			for (Attribute attribute : attributes.values())
+			{
+				attribute.measureIfDue();
+			}
+		}
+
+		private long getAttributesSize()
+		{
+			long size = 0;
+			for (Attribute attribute : attributes.values())
+			{
+				size += attribute.getSize();
+			}
+			return size;
+		}
+
+		private long getSize()
+		{
+			return getAttributesSize() + pages;
+		}
+	}
+
+	/**
+	 * The measured size of an attribute.
+	 */
+	private class Attribute
+	{
+		/**
+		 * written guarded by {@code this}
+		 */
+		private volatile long size;
+
+		/**
+		 * time of the last measurement, guarded by {@code this}
+		 */
+		private long measuredAt;
+
+		/**
+		 * the value set since the last measurement, guarded by {@code this}
+		 */
+		private Serializable pending;
+
+		private boolean measured;
+
+		private synchronized void set(Serializable value)
+		{
+			pending = value;
+
+			measureIfDue();
+		}
+
+		private synchronized void measureIfDue()
+		{
+			if (pending != null &&
+				(measured == false || System.nanoTime() - measuredAt >= measureIntervalNanos))
+			{
+				measurePending();
+			}
+		}
+
+		private long getSize()
+		{
+			return size;
+		}
+
+		private void measurePending()
+		{
+			long measuredSize = measure(pending);
+			if (measuredSize >= 0)
+			{
+				size = measuredSize;
+			}
+			pending = null;
+			measured = true;
+			measuredAt = System.nanoTime();
+		}
+	}
+}
@@ -19,9 +19,17 @@ package org.apache.wicket.request.resource;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
+import javax.servlet.ServletContext;
+
+import org.apache.wicket.Application;
 import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.core.util.resource.WebExternalResourceStream;
+import org.apache.wicket.protocol.http.WebApplication;
+import org.apache.wicket.request.cycle.RequestCycle;
 import org.apache.wicket.request.resource.caching.IStaticCacheableResource;
 import org.apache.wicket.util.io.IOUtils;
 import org.apache.wicket.util.io.Streams;
@@ -45,6 +53,7 @@ public class ContextRelativeResource extends AbstractResource implements IStatic
 
 	private final String path;
 	private boolean cachingEnabled;
+	private boolean sendfileEnabled;
 
 	/**
 	 * Construct.
@@ -75,6 +84,30 @@ public class ContextRelativeResource extends AbstractResource implements IStatic
 		this.cachingEnabled = enabled;
 	}
 
+	/**
+	 * @return if the container's sendfile support is used for resources served from the file
+	 *         system
+	 * @see FileChannelPartWriterCallback#setSendfileEnabled(boolean)
+	 */
+	public boolean isSendfileEnabled()
+	{
+		return sendfileEnabled;
+	}
+
+	/**
+	 * Enables the usage of the container's sendfile support if the resource is served from the file
+	 * system. Only enable it if the response is not buffered or filtered (e.g. compressed) between
+	 * Wicket and the container.
+	 * 
+	 * @param enabled
+	 *            if sendfile should be used when the container supports it
+	 * @see FileChannelPartWriterCallback#setSendfileEnabled(boolean)
+	 */
+	public void setSendfileEnabled(final boolean enabled)
+	{
+		this.sendfileEnabled = enabled;
+	}
+
 	@Override
 	public Serializable getCacheKey()
 	{
@@ -97,6 +130,30 @@ public class ContextRelativeResource extends AbstractResource implements IStatic
 		resourceResponse.setContentType(webExternalResourceStream.getContentType());
 		resourceResponse.setLastModified(webExternalResourceStream.lastModifiedTime());
 		resourceResponse.setFileName(path);
+
+		final Path file = getFile();
+		if (file != null)
+		{
+			try
+			{
+				// served from the file system: support range requests by seeking in the file
+				long size = Files.size(file);
+				RequestCycle cycle = RequestCycle.get();
+				Long startbyte = cycle.getMetaData(CONTENT_RANGE_STARTBYTE);
+				Long endbyte = cycle.getMetaData(CONTENT_RANGE_ENDBYTE);
+				resourceResponse.setAcceptRange(ContentRangeType.BYTES);
+				resourceResponse.setContentLength(size);
+				resourceResponse.setWriteCallback(
+					new FileChannelPartWriterCallback(file, size, startbyte, endbyte)
+						.setSendfileEnabled(sendfileEnabled));
+				return resourceResponse;
+			}
+			catch (IOException e)
+			{
+				log.debug("Unable to read the size of '{}', falling back to the servlet context", file, e);
+			}
+		}
+
 		resourceResponse.setWriteCallback(new WriteCallback()
 		{
 			@Override
@@ -123,6 +180,29 @@ public class ContextRelativeResource extends AbstractResource implements IStatic
 		return resourceResponse;
 	}
 
+	/**
+	 * Resolves the file backing this resource, if the web application is deployed unpacked.
+	 * 
+	 * @return the file or <code>null</code> if the resource isn't available as a regular file
+	 */
+	private Path getFile()
+	{
+		if (Application.exists() && Application.get() instanceof WebApplication)
+		{
+			ServletContext servletContext = ((WebApplication)Application.get()).getServletContext();
+			String realPath = servletContext.getRealPath(path);
+			if (realPath != null)
+			{
+				Path file = Paths.get(realPath);
+				if (Files.isRegularFile(file))
+				{
+					return file;
+				}
+			}
+		}
+		return null;
+	}
+
 	@Override
 	public int hashCode()
 	{
@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.wicket.protocol.http.servlet.ResponseIOException;
+import org.apache.wicket.request.resource.AbstractResource.WriteCallback;
+import org.apache.wicket.request.resource.IResource.Attributes;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A {@link PartWriterCallback} alternative for resources backed by a file. The requested part of
+ * the file is read with positional reads of a {@link FileChannel}, so skipping to the start byte
+ * of a range request is a simple seek instead of reading and discarding the leading bytes. The
+ * content is still copied through a heap buffer into the response's output stream.<br>
+ * <br>
+ * Only if {@link #setSendfileEnabled(boolean) enabled} and the container announces support for it
+ * (Tomcat's <em>org.apache.tomcat.sendfile.support</em> request attribute), the file is not
+ * written by Wicket at all but handed over to the container which sends it with the operating
+ * system's sendfile call, i.e. without copying it into user space.
+ *
+ * @see PartWriterCallback
+ */
+public class FileChannelPartWriterCallback extends WriteCallback
+{
+	/**
+	 * Request attribute set by the container if it supports sendfile
+	 */
+	public static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+	/**
+	 * Request attribute for the absolute name of the file to send
+	 */
+	public static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+	/**
+	 * Request attribute for the first byte (inclusive) to send
+	 */
+	public static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+	/**
+	 * Request attribute for the last byte (exclusive) to send
+	 */
+	public static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+	/**
+	 * The file to read from
+	 */
+	private final Path path;
+
+	/**
+	 * The total length of the file
+	 */
+	private final long contentLength;
+
+	/**
+	 * The byte to start reading from. If omitted then the file will be read from its beginning
+	 */
+	private final Long startbyte;
+
+	/**
+	 * The end byte to read to. If omitted then the file will be read till its end
+	 */
+	private final Long endbyte;
+
+	/**
+	 * If the container's sendfile support should be used when it is available
+	 */
+	private boolean sendfileEnabled = false;
+
+	/**
+	 * The size of the buffer used to copy the file
+	 */
+	private int bufferSize;
+
+	/**
+	 * Creates a file channel part writer callback.<br>
+	 * <br>
+	 * Transfers a part of the given file. If the startbyte and endbyte are null the whole file is
+	 * transferred.
+	 *
+	 * @param path
+	 *            the file to read from
+	 * @param contentLength
+	 *            the length of the file
+	 * @param startbyte
+	 *            the start position to read from (may be null)
+	 * @param endbyte
+	 *            the end position to read to, inclusive (if null or -1 the file is read till its
+	 *            end)
+	 */
+	public FileChannelPartWriterCallback(Path path, long contentLength, Long startbyte,
+		Long endbyte)
+	{
+		this.path = Args.notNull(path, "path");
+		this.contentLength = contentLength;
+		this.startbyte = startbyte;
+		this.endbyte = endbyte;
+	}
+
+	/**
+	 * Checks whether the given path can be transferred by this callback, i.e. it is located on the
+	 * default file system and can be opened as {@link FileChannel}.
+	 *
+	 * @param path
+	 *            the path to check
+	 * @return <code>true</code> if this callback can be used for the given path
+	 */
+	public static boolean isSupported(Path path)
+	{
+		return path != null && path.getFileSystem() == FileSystems.getDefault();
+	}
+
+	/**
+	 * Writes the data
+	 *
+	 * @param attributes
+	 *            the attributes to get the output stream of the response
+	 * @throws IOException
+	 *             if something went wrong while writing the data to the output stream
+	 */
+	@Override
+	public void writeData(Attributes attributes) throws IOException
+	{
+		long position = startbyte != null ? startbyte : 0L;
+		long last = (endbyte == null || endbyte == -1L) ? contentLength - 1 : endbyte;
+		long count = Math.min(last + 1, contentLength) - position;
+		if (count <= 0)
+		{
+			return;
+		}
+
+		if (sendfileEnabled && trySendfile(attributes, position, count))
+		{
+			return;
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			OutputStream outputStream = attributes.getResponse().getOutputStream();
+			ByteBuffer buffer = ByteBuffer.allocate((int)Math.min(getBufferSize(), count));
+			while (count > 0)
+			{
+				buffer.clear();
+				if (buffer.remaining() > count)
+				{
+					buffer.limit((int)count);
+				}
+				int read = channel.read(buffer, position);
+				if (read <= 0)
+				{
+					// the file has been truncated in the meantime
+					break;
+				}
+				outputStream.write(buffer.array(), 0, read);
+				position += read;
+				count -= read;
+			}
+		}
+		catch (ResponseIOException e)
+		{
+			// the client has closed the connection and
+			// doesn't read the stream further on
+			// we ignore this case
+		}
+	}
+
+	/**
+	 * Hands the file over to the container if it supports sendfile.
+	 *
+	 * @param attributes
+	 *            the request attributes
+	 * @param position
+	 *            the first byte to send
+	 * @param count
+	 *            the number of bytes to send
+	 * @return <code>true</code> if the container is going to send the file
+	 */
+	private boolean trySendfile(Attributes attributes, long position, long count)
+	{
+		Object containerRequest = attributes.getRequest().getContainerRequest();
+		if (containerRequest instanceof HttpServletRequest)
+		{
+			HttpServletRequest request = (HttpServletRequest)containerRequest;
+			if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE)))
+			{
+				request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE,
+					path.toAbsolutePath().toString());
+				request.setAttribute(SENDFILE_START_ATTRIBUTE, position);
+				request.setAttribute(SENDFILE_END_ATTRIBUTE, position + count);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return if the container's sendfile support is used when it is available
+	 */
+	public boolean isSendfileEnabled()
+	{
+		return sendfileEnabled;
+	}
+
+	/**
+	 * Enables the usage of the container's sendfile support. Only enable it if the response is not
+	 * buffered or filtered (e.g. compressed) between Wicket and the container, since the file
+	 * content will bypass them.
+	 *
+	 * @param sendfileEnabled
+	 *            if the container's sendfile support should be used when it is available
+	 * @return the file channel part writer callback
+	 */
+	public FileChannelPartWriterCallback setSendfileEnabled(boolean sendfileEnabled)
+	{
+		this.sendfileEnabled = sendfileEnabled;
+		return this;
+	}
+
+	/**
+	 * @return the size of the buffer used to copy the file
+	 */
+	public int getBufferSize()
+	{
+		return bufferSize > 0 ? bufferSize : 4096;
+	}
+
+	/**
+	 * Sets the size of the buffer used to copy the file if sendfile isn't used
+	 *
+	 * @param bufferSize
+	 *            the size of the buffer
+	 * @return the file channel part writer callback
+	 */
+	public FileChannelPartWriterCallback setBufferSize(int bufferSize)
+	{
+		this.bufferSize = bufferSize;
+		return this;
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource.caching.version;
+
+import java.util.regex.Pattern;
+
+import org.apache.wicket.request.resource.caching.IStaticCacheableResource;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * Looks up resource versions in a {@link ResourceVersionManifest} computed at build time. Only
+ * resources missing in the manifest (e.g. added after the manifest has been built) are versioned
+ * by the delegating {@link IResourceVersion}.
+ * <p/>
+ * The delegate should be the same resource version provider the manifest has been built with,
+ * so the versions in the manifest match its {@link #getVersionPattern() version pattern}:
+ *
+ * <pre>
+ * ResourceVersionManifest manifest = ResourceVersionManifest.read(
+ * 	getClass().getResource(&quot;/resource-versions.properties&quot;));
+ *
+ * getResourceSettings().setCachingStrategy(new FilenameWithVersionResourceCachingStrategy(
+ * 	new ManifestResourceVersion(manifest, new CachingResourceVersion(
+ * 		new MessageDigestResourceVersion()))));
+ * </pre>
+ *
+ * @see ResourceVersionManifest
+ */
+public class ManifestResourceVersion implements IResourceVersion
+{
+	/**
+	 * precomputed versions
+	 */
+	private final ResourceVersionManifest manifest;
+
+	/**
+	 * resource version provider for resources missing in the manifest
+	 */
+	private final IResourceVersion delegate;
+
+	/**
+	 * create a resource version provider backed by a manifest
+	 *
+	 * @param manifest
+	 *            precomputed versions
+	 * @param delegate
+	 *            resource version provider for resources missing in the manifest
+	 */
+	public ManifestResourceVersion(ResourceVersionManifest manifest, IResourceVersion delegate)
+	{
+		this.manifest = Args.notNull(manifest, "manifest");
+		this.delegate = Args.notNull(delegate, "delegate");
+	}
+
+	@Override
+	public String getVersion(IStaticCacheableResource resource)
+	{
+		String version = manifest.getVersion(resource);
+		if (version == null)
+		{
+			version = delegate.getVersion(resource);
+		}
+		return version;
+	}
+
+	@Override
+	public Pattern getVersionPattern()
+	{
+		return delegate.getVersionPattern();
+	}
+}
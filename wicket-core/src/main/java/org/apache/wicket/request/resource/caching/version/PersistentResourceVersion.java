@@ -0,0 +1,370 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource.caching.version;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Serializable;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.apache.wicket.request.resource.caching.IStaticCacheableResource;
+import org.apache.wicket.util.io.IOUtils;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the results of a delegating {@link IResourceVersion} (e.g. a
+ * {@link MessageDigestResourceVersion}) in a file, so they survive restarts of the application.
+ * <p/>
+ * Each version is stored with the last modification time of the resource it was computed for and
+ * is recomputed when the resource changes. New versions are appended to the file, so the file
+ * can be shared by all nodes of a cluster on a shared file system or copied between them. It can
+ * also be pre-seeded at build time, either by shipping a file written by this class or by
+ * {@link #seed(URL) seeding} from a classpath resource.
+ * <p/>
+ * Checking the modification time of a resource is much cheaper than hashing it, but still not
+ * free, so this class should be wrapped by a {@link CachingResourceVersion}:
+ *
+ * <pre>
+ * new CachingResourceVersion(new PersistentResourceVersion(new MessageDigestResourceVersion(),
+ * 	Paths.get(&quot;/var/cache/myapp/resource-versions.properties&quot;)));
+ * </pre>
+ */
+public class PersistentResourceVersion implements IResourceVersion
+{
+	private static final Logger log = LoggerFactory.getLogger(PersistentResourceVersion.class);
+
+	/**
+	 * separator between last modification time and version in a stored value
+	 */
+	private static final char SEPARATOR = ':';
+
+	/**
+	 * delegating resource version provider
+	 */
+	private final IResourceVersion delegate;
+
+	/**
+	 * file to store the versions in
+	 */
+	private final Path file;
+
+	/**
+	 * versions by cache key
+	 */
+	private final ConcurrentMap<String, StoredVersion> versions = new ConcurrentHashMap<>();
+
+	/**
+	 * number of versions served from the store
+	 */
+	private final AtomicLong hits = new AtomicLong();
+
+	/**
+	 * number of versions computed by the delegate
+	 */
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * nanoseconds spent by the delegate computing versions
+	 */
+	private final AtomicLong computeNanos = new AtomicLong();
+
+	/**
+	 * create a persistent version store
+	 *
+	 * @param delegate
+	 *            resource version provider
+	 * @param file
+	 *            file to store the versions in, read if it already exists
+	 */
+	public PersistentResourceVersion(IResourceVersion delegate, Path file)
+	{
+		this.delegate = Args.notNull(delegate, "delegate");
+		this.file = Args.notNull(file, "file");
+
+		if (Files.exists(file))
+		{
+			try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+			{
+				load(reader);
+			}
+			catch (IOException e)
+			{
+				log.warn("unable to read resource versions from " + file, e);
+			}
+		}
+	}
+
+	/**
+	 * Adds the versions stored in the given location, e.g. a store created at build time and
+	 * packaged into the application. Seeded versions are not written to this store's file until
+	 * they have to be recomputed.
+	 *
+	 * @param url
+	 *            location of stored versions
+	 * @throws IOException
+	 */
+	public void seed(URL url) throws IOException
+	{
+		Args.notNull(url, "url");
+
+		InputStream inputStream = url.openStream();
+		try
+		{
+			load(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+		}
+		finally
+		{
+			IOUtils.close(inputStream);
+		}
+	}
+
+	private void load(Reader reader) throws IOException
+	{
+		Properties properties = new Properties();
+		properties.load(reader);
+
+		for (String key : properties.stringPropertyNames())
+		{
+			String value = properties.getProperty(key);
+			int index = value.indexOf(SEPARATOR);
+			if (index > 0)
+			{
+				try
+				{
+					long lastModified = Long.parseLong(value.substring(0, index));
+					versions.merge(key, new StoredVersion(lastModified, value.substring(index + 1)),
+						StoredVersion::later);
+				}
+				catch (NumberFormatException e)
+				{
+					log.debug("ignoring invalid stored resource version {}={}", key, value);
+				}
+			}
+		}
+	}
+
+	@Override
+	public String getVersion(IStaticCacheableResource resource)
+	{
+		final Serializable cacheKey = resource.getCacheKey();
+		final Long lastModified = getLastModified(resource);
+
+		// without key or modification time a stored version can not be validated
+		if (cacheKey == null || lastModified == null)
+		{
+			return compute(resource);
+		}
+
+		final String key = cacheKey.toString();
+		StoredVersion stored = versions.get(key);
+		if (stored != null && stored.lastModified == lastModified)
+		{
+			hits.incrementAndGet();
+			return stored.version;
+		}
+
+		String version = compute(resource);
+		if (version != null)
+		{
+			versions.put(key, new StoredVersion(lastModified, version));
+			append(key, lastModified + String.valueOf(SEPARATOR) + version);
+		}
+		return version;
+	}
+
+	private String compute(IStaticCacheableResource resource)
+	{
+		final long start = System.nanoTime();
+		try
+		{
+			return delegate.getVersion(resource);
+		}
+		finally
+		{
+			computeNanos.addAndGet(System.nanoTime() - start);
+			misses.incrementAndGet();
+		}
+	}
+
+	private Long getLastModified(IStaticCacheableResource resource)
+	{
+		IResourceStream stream = resource.getResourceStream();
+		if (stream == null)
+		{
+			return null;
+		}
+
+		try
+		{
+			Instant lastModified = stream.lastModifiedTime();
+			return lastModified == null ? null : lastModified.toEpochMilli();
+		}
+		finally
+		{
+			IOUtils.closeQuietly(stream);
+		}
+	}
+
+	private synchronized void append(String key, String value)
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+			StandardOpenOption.WRITE, StandardOpenOption.APPEND); FileLock lock = channel.lock())
+		{
+			StringWriter writer = new StringWriter();
+			ResourceVersionManifest.writeEntry(writer, key, value);
+			write(channel, writer.toString());
+		}
+		catch (IOException e)
+		{
+			log.warn("unable to store resource version in " + file, e);
+		}
+	}
+
+	/**
+	 * Rewrites the file with the current versions only, dropping outdated entries accumulated by
+	 * appending.
+	 * <p/>
+	 * The file is locked while it is rewritten. Entries appended by other nodes since this store
+	 * read the file are merged first, the entry for the later modification time wins.
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void compact() throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+			StandardOpenOption.READ, StandardOpenOption.WRITE); FileLock lock = channel.lock())
+		{
+			ByteBuffer content = ByteBuffer.allocate((int)channel.size());
+			int read = 0;
+			while (content.hasRemaining() && read != -1)
+			{
+				read = channel.read(content);
+			}
+			content.flip();
+			load(new StringReader(StandardCharsets.UTF_8.decode(content).toString()));
+
+			StringWriter writer = new StringWriter();
+			for (Map.Entry<String, StoredVersion> entry : versions.entrySet())
+			{
+				StoredVersion stored = entry.getValue();
+				ResourceVersionManifest.writeEntry(writer, entry.getKey(),
+					stored.lastModified + String.valueOf(SEPARATOR) + stored.version);
+			}
+
+			channel.truncate(0);
+			write(channel, writer.toString());
+		}
+	}
+
+	private static void write(FileChannel channel, String text) throws IOException
+	{
+		ByteBuffer buffer = StandardCharsets.UTF_8.encode(text);
+		while (buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+	}
+
+	@Override
+	public Pattern getVersionPattern()
+	{
+		return delegate.getVersionPattern();
+	}
+
+	/**
+	 * @return number of versions served from the store
+	 */
+	public long getHits()
+	{
+		return hits.get();
+	}
+
+	/**
+	 * @return number of versions computed by the delegate
+	 */
+	public long getMisses()
+	{
+		return misses.get();
+	}
+
+	/**
+	 * @return time spent by the delegate computing versions
+	 */
+	public Duration getComputeTime()
+	{
+		return Duration.ofNanos(computeNanos.get());
+	}
+
+	/**
+	 * Estimates the time saved by serving versions from the store, based on the average time the
+	 * delegate needed for computing a version.
+	 *
+	 * @return the estimated time saved
+	 */
+	public Duration getSavedTime()
+	{
+		long computed = misses.get();
+		if (computed == 0)
+		{
+			return Duration.ZERO;
+		}
+		return Duration.ofNanos(computeNanos.get() / computed * hits.get());
+	}
+
+	/**
+	 * A stored version with the modification time of the resource it was computed for
+	 */
+	private static class StoredVersion
+	{
+		private final long lastModified;
+
+		private final String version;
+
+		private StoredVersion(long lastModified, String version)
+		{
+			this.lastModified = lastModified;
+			this.version = version;
+		}
+
+		private static StoredVersion later(StoredVersion version1, StoredVersion version2)
+		{
+			return version2.lastModified >= version1.lastModified ? version2 : version1;
+		}
+	}
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource.caching.version;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.apache.wicket.request.resource.caching.IStaticCacheableResource;
+import org.apache.wicket.util.io.IOUtils;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A manifest of precomputed resource versions.
+ * <p/>
+ * The manifest is meant to be created at build time, e.g. by a small program or test started from
+ * the build which {@link #add(IStaticCacheableResource, IResourceVersion) adds} all static
+ * resources of the application and {@link #write(OutputStream) writes} the manifest into the
+ * application's classpath. At runtime the manifest is {@link #read(URL) read} on startup and
+ * used by a {@link ManifestResourceVersion}, so no resource has to be read and hashed for
+ * computing its version.
+ * <p/>
+ * Resources are identified by the string representation of their
+ * {@link IStaticCacheableResource#getCacheKey() cache key}.
+ *
+ * @see ManifestResourceVersion
+ */
+public class ResourceVersionManifest
+{
+	/**
+	 * versions by manifest key, sorted to produce reproducible manifest files
+	 */
+	private final Map<String, String> versions = new TreeMap<>();
+
+	/**
+	 * Computes the version of the given resource and adds it to the manifest.
+	 *
+	 * @param resource
+	 *            cacheable resource
+	 * @param resourceVersion
+	 *            resource version provider computing the version
+	 * @return <code>true</code> if a version could be computed and has been added
+	 */
+	public boolean add(IStaticCacheableResource resource, IResourceVersion resourceVersion)
+	{
+		Args.notNull(resourceVersion, "resourceVersion");
+
+		String key = getKey(resource);
+		if (key == null)
+		{
+			return false;
+		}
+
+		String version = resourceVersion.getVersion(resource);
+		if (version == null)
+		{
+			return false;
+		}
+
+		put(key, version);
+		return true;
+	}
+
+	/**
+	 * Adds a version to the manifest.
+	 *
+	 * @param key
+	 *            manifest key
+	 * @param version
+	 *            resource version
+	 */
+	public void put(String key, String version)
+	{
+		Args.notNull(key, "key");
+		Args.notNull(version, "version");
+
+		synchronized (versions)
+		{
+			versions.put(key, version);
+		}
+	}
+
+	/**
+	 * Gets the precomputed version of the given resource.
+	 *
+	 * @param resource
+	 *            cacheable resource
+	 * @return the version or <code>null</code> if the resource is not contained in the manifest
+	 */
+	public String getVersion(IStaticCacheableResource resource)
+	{
+		String key = getKey(resource);
+		if (key == null)
+		{
+			return null;
+		}
+
+		synchronized (versions)
+		{
+			return versions.get(key);
+		}
+	}
+
+	/**
+	 * @return number of versions in this manifest
+	 */
+	public int size()
+	{
+		synchronized (versions)
+		{
+			return versions.size();
+		}
+	}
+
+	/**
+	 * @return an unmodifiable copy of all versions by their manifest key
+	 */
+	public Map<String, String> getVersions()
+	{
+		synchronized (versions)
+		{
+			return Collections.unmodifiableMap(new TreeMap<>(versions));
+		}
+	}
+
+	/**
+	 * Writes the manifest as properties file, sorted by key.
+	 *
+	 * @param outputStream
+	 *            stream to write to, it is not closed
+	 * @throws IOException
+	 */
+	public void write(OutputStream outputStream) throws IOException
+	{
+		Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+		for (Map.Entry<String, String> entry : getVersions().entrySet())
+		{
+			writeEntry(writer, entry.getKey(), entry.getValue());
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Writes a single properties entry.
+	 *
+	 * @param writer
+	 *            writer to write to
+	 * @param key
+	 *            property key
+	 * @param value
+	 *            property value
+	 * @throws IOException
+	 */
+	static void writeEntry(Writer writer, String key, String value) throws IOException
+	{
+		Properties line = new Properties();
+		line.setProperty(key, value);
+
+		// let Properties do the escaping but skip its date comment
+		StringWriter escaped = new StringWriter();
+		line.store(escaped, null);
+		String text = escaped.toString();
+		writer.write(text.substring(text.indexOf('\n') + 1));
+	}
+
+	/**
+	 * Reads a manifest.
+	 *
+	 * @param inputStream
+	 *            stream to read from, it is not closed
+	 * @return the manifest
+	 * @throws IOException
+	 */
+	public static ResourceVersionManifest read(InputStream inputStream) throws IOException
+	{
+		Properties properties = new Properties();
+		properties.load(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+		ResourceVersionManifest manifest = new ResourceVersionManifest();
+		for (String key : properties.stringPropertyNames())
+		{
+			manifest.put(key, properties.getProperty(key));
+		}
+		return manifest;
+	}
+
+	/**
+	 * Reads a manifest, e.g. located in the classpath.
+	 *
+	 * @param url
+	 *            location of the manifest
+	 * @return the manifest
+	 * @throws IOException
+	 */
+	public static ResourceVersionManifest read(URL url) throws IOException
+	{
+		Args.notNull(url, "url");
+
+		InputStream inputStream = url.openStream();
+		try
+		{
+			return read(inputStream);
+		}
+		finally
+		{
+			IOUtils.close(inputStream);
+		}
+	}
+
+	/**
+	 * Gets the key identifying a resource in the manifest.
+	 *
+	 * @param resource
+	 *            cacheable resource
+	 * @return the key or <code>null</code> if the resource has no cache key
+	 */
+	protected String getKey(IStaticCacheableResource resource)
+	{
+		final Serializable cacheKey = Args.notNull(resource, "resource").getCacheKey();
+
+		return cacheKey == null ? null : cacheKey.toString();
+	}
+}
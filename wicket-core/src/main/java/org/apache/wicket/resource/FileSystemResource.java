@@ -28,6 +28,7 @@ import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.model.LoadableDetachableModel;
 import org.apache.wicket.request.cycle.RequestCycle;
 import org.apache.wicket.request.resource.AbstractResource;
+import org.apache.wicket.request.resource.FileChannelPartWriterCallback;
 import org.apache.wicket.request.resource.PartWriterCallback;
 
 /**
@@ -44,6 +45,8 @@ public class FileSystemResource extends AbstractResource
 
 	private LoadableDetachableModel<Path> path;
 
+	private boolean sendfileEnabled;
+
 	/**
 	 * Creates a new file system resource based on the given path
 	 * 
@@ -119,8 +122,7 @@ public class FileSystemResource extends AbstractResource
 			RequestCycle cycle = RequestCycle.get();
 			Long startbyte = cycle.getMetaData(CONTENT_RANGE_STARTBYTE);
 			Long endbyte = cycle.getMetaData(CONTENT_RANGE_ENDBYTE);
-			resourceResponse.setWriteCallback(
-				new PartWriterCallback(getInputStream(), size, startbyte, endbyte).setClose(true));
+			resourceResponse.setWriteCallback(newWriteCallback(path, size, startbyte, endbyte));
 			return resourceResponse;
 		}
 		catch (IOException e)
@@ -130,6 +132,59 @@ public class FileSystemResource extends AbstractResource
 		}
 	}
 
+	/**
+	 * @return if the container's sendfile support is used for paths on the default file system
+	 * @see FileChannelPartWriterCallback#setSendfileEnabled(boolean)
+	 */
+	public boolean isSendfileEnabled()
+	{
+		return sendfileEnabled;
+	}
+
+	/**
+	 * Enables the usage of the container's sendfile support for paths on the default file system.
+	 * Only enable it if the response is not buffered or filtered (e.g. compressed) between Wicket
+	 * and the container.
+	 * 
+	 * @param sendfileEnabled
+	 *            if sendfile should be used when the container supports it
+	 * @return this resource
+	 * @see FileChannelPartWriterCallback#setSendfileEnabled(boolean)
+	 */
+	public FileSystemResource setSendfileEnabled(boolean sendfileEnabled)
+	{
+		this.sendfileEnabled = sendfileEnabled;
+		return this;
+	}
+
+	/**
+	 * Creates the callback writing the (partial) content of the given path. Paths located on the
+	 * default file system are transferred with a {@link FileChannelPartWriterCallback}, all others
+	 * are read by a {@link PartWriterCallback} from {@link #getInputStream()}.
+	 * 
+	 * @param path
+	 *            the path to write
+	 * @param size
+	 *            the size of the path
+	 * @param startbyte
+	 *            the requested start byte or <code>null</code>
+	 * @param endbyte
+	 *            the requested end byte or <code>null</code>
+	 * @return the write callback
+	 * @throws IOException
+	 *             if the input stream can't be opened
+	 */
+	protected WriteCallback newWriteCallback(Path path, long size, Long startbyte, Long endbyte)
+		throws IOException
+	{
+		if (FileChannelPartWriterCallback.isSupported(path))
+		{
+			return new FileChannelPartWriterCallback(path, size, startbyte, endbyte)
+				.setSendfileEnabled(sendfileEnabled);
+		}
+		return new PartWriterCallback(getInputStream(), size, startbyte, endbyte).setClose(true);
+	}
+
 	/**
 	 * Gets the size of the resource
 	 * 
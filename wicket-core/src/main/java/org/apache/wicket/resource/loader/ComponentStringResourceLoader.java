@@ -17,8 +17,13 @@
 package org.apache.wicket.resource.loader;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.wicket.Application;
 import org.apache.wicket.Component;
@@ -92,6 +97,10 @@ import org.slf4j.LoggerFactory;
  * be registered with the Application (ResourceSettings) though.
  * <p>
  * You may enable log debug messages for this class to fully understand the search order.
+ * <p>
+ * With {@link #withCompiledBundles()} the resources of a class are compiled into a single lookup
+ * table per class, locale, style and variation on first access, so resolving a key against a class
+ * needs a single hash probe instead of probing all properties files of the class hierarchy.
  * 
  * @author Chris Turner
  * @author Juergen Donnerstag
@@ -101,6 +110,11 @@ public class ComponentStringResourceLoader implements IStringResourceLoader
 	/** Log. */
 	private static final Logger log = LoggerFactory.getLogger(ComponentStringResourceLoader.class);
 
+	/** Compiled bundles, {@code null} if not compiled */
+	private ConcurrentMap<BundleKey, Map<String, String>> bundles;
+
+	private volatile boolean bundlesListening;
+
 	/**
 	 * Create and initialize the resource loader.
 	 */
@@ -108,6 +122,122 @@ public class ComponentStringResourceLoader implements IStringResourceLoader
 	{
 	}
 
+	/**
+	 * Compile the resources of each class into a lookup table.
+	 * 
+	 * @return this loader
+	 * 
+	 * @see #compileBundle(Class, Locale, String, String)
+	 */
+	public ComponentStringResourceLoader withCompiledBundles()
+	{
+		if (bundles == null)
+		{
+			bundles = new ConcurrentHashMap<>();
+		}
+		return this;
+	}
+
+	/**
+	 * Compiles the resources of a class, e.g. at application startup to avoid compiling on the
+	 * first request. Does nothing if the bundles are not {@link #withCompiledBundles() compiled}.
+	 * 
+	 * @param clazz
+	 *            the class
+	 * @param locale
+	 *            the locale
+	 * @param style
+	 *            the style
+	 * @param variation
+	 *            the variation
+	 */
+	public void compileBundle(final Class<?> clazz, final Locale locale, final String style,
+		final String variation)
+	{
+		if (bundles != null)
+		{
+			getBundle(clazz, locale, style, variation);
+		}
+	}
+
+	/**
+	 * Removes all compiled bundles, they are removed automatically when a properties file has
+	 * changed.
+	 */
+	public void clearCompiledBundles()
+	{
+		if (bundles != null)
+		{
+			bundles.clear();
+		}
+	}
+
+	private Map<String, String> getBundle(final Class<?> clazz, final Locale locale,
+		final String style, final String variation)
+	{
+		if (bundlesListening == false)
+		{
+			bundlesListening = true;
+			getPropertiesFactory().addListener(key -> clearCompiledBundles());
+		}
+
+		BundleKey bundleKey = new BundleKey(clazz, locale, style, variation);
+		Map<String, String> bundle = bundles.get(bundleKey);
+		if (bundle == null)
+		{
+			bundle = newBundle(clazz, bundleKey);
+			bundles.put(bundleKey, bundle);
+		}
+		return bundle;
+	}
+
+	/**
+	 * Merges the properties in search order, so the first value of a key wins.
+	 */
+	private Map<String, String> newBundle(Class<?> clazz, BundleKey bundleKey)
+	{
+		Map<String, String> bundle = new HashMap<>();
+
+		IPropertiesFactory propertiesFactory = getPropertiesFactory();
+		while (true)
+		{
+			String path = clazz.getName().replace('.', '/');
+
+			IResourceNameIterator iter = newResourceNameIterator(path, bundleKey.locale,
+				bundleKey.style, bundleKey.variation);
+			while (iter.hasNext())
+			{
+				String newPath = iter.next();
+
+				Properties props = propertiesFactory.load(clazz, newPath);
+				if (props != null)
+				{
+					for (String key : props.getAll().keySet())
+					{
+						if (bundle.containsKey(key) == false)
+						{
+							bundle.put(key, props.getString(key));
+						}
+					}
+				}
+			}
+
+			if (isStopResourceSearch(clazz))
+			{
+				break;
+			}
+
+			clazz = clazz.getSuperclass();
+
+			if (clazz == null)
+			{
+				break;
+			}
+		}
+
+		return bundle;
+	}
+
 	@Override
 	public String loadStringResource(Class<?> clazz, final String key, final Locale locale,
 		final String style, final String variation)
@@ -123,6 +253,11 @@ public class ComponentStringResourceLoader implements IStringResourceLoader
 				"'; Style: '" + style + "'; Variation: '" + variation + '\'');
 		}
 
+		if (bundles != null)
+		{
+			return getBundle(clazz, locale, style, variation).get(key);
+		}
+
 		// Load the properties associated with the path
 		IPropertiesFactory propertiesFactory = getPropertiesFactory();
 		while (true)
@@ -353,4 +488,48 @@ public class ComponentStringResourceLoader implements IStringResourceLoader
 		return clazz.equals(Page.class) || clazz.equals(MarkupContainer.class) ||
 			clazz.equals(Component.class);
 	}
+
+	/**
+	 * Key of a compiled bundle.
+	 */
+	private static final class BundleKey
+	{
+		private final Class<?> clazz;
+
+		private final Locale locale;
+
+		private final String style;
+
+		private final String variation;
+
+		private BundleKey(Class<?> clazz, Locale locale, String style, String variation)
+		{
+			this.clazz = clazz;
+			this.locale = locale;
+			this.style = style;
+			this.variation = variation;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(clazz, locale, style, variation);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (obj instanceof BundleKey == false)
+			{
+				return false;
+			}
+			BundleKey other = (BundleKey)obj;
+			return clazz == other.clazz && Objects.equals(locale, other.locale) &&
+				Objects.equals(style, other.style) && Objects.equals(variation, other.variation);
+		}
+	}
 }
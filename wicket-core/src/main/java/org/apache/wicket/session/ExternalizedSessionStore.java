@@ -0,0 +1,472 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.session;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionBindingListener;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.Session;
+import org.apache.wicket.pageStore.SessionSizeBudget;
+import org.apache.wicket.protocol.http.IRequestLogger;
+import org.apache.wicket.request.Request;
+import org.apache.wicket.serialize.ISerializer;
+import org.apache.wicket.util.lang.Args;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A session store keeping the attributes of sessions - including the Wicket {@link Session}
+ * itself - in an {@link ISessionBackend} instead of the {@link HttpSession}. The http session
+ * keeps only a small key generated by this store, so container session replication has next to
+ * nothing to ship. The key does not change when the id of the http session is changed, e.g. by
+ * {@link Session#changeSessionId()} on login, and the attributes are removed from the backend when
+ * the http session is invalidated.
+ * <p>
+ * Each node keeps a near-cache of the deserialized attributes:
+ * <ul>
+ * <li>With sticky sessions, i.e. all requests of a session are routed to the same node as long
+ * as it is available, cached attributes are read without accessing the backend at all. Only after
+ * a failover the attributes are read from the backend.</li>
+ * <li>Without sticky sessions, each read is checked against the backend. An unchanged attribute
+ * is not deserialized again though.</li>
+ * </ul>
+ * The backend keeps serialized attributes, so each {@link #setAttribute(Request, String,
+ * Serializable) set} serializes the value once. Wicket sets its session only in requests it was
+ * changed in. Optionally writes of attributes whose serialized state did not change can be
+ * {@link #setSkipUnchangedWrites(boolean) skipped}, at the cost of comparing the serialized
+ * states.
+ * <p>
+ * Use a separate backend (or key space) for each application sharing the same http sessions.
+ */
+public class ExternalizedSessionStore extends HttpSessionStore
+{
+	private static final Logger log = LoggerFactory.getLogger(ExternalizedSessionStore.class);
+
+	/**
+	 * Prefix of the http session attribute keeping the key of the session in the backend.
+	 */
+	private static final String KEY_ATTRIBUTE = "Wicket:ExternalizedSessionKey-";
+
+	private final ISessionBackend backend;
+
+	private final boolean sticky;
+
+	private volatile boolean skipUnchangedWrites;
+
+	/**
+	 * Near-cache of sessions by backend key, least recently used first.
+	 */
+	private final Map<String, CachedSession> cache;
+
+	private final AtomicLong remoteReads = new AtomicLong();
+
+	private final AtomicLong remoteWrites = new AtomicLong();
+
+	private final AtomicLong skippedWrites = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param backend
+	 *            backend for the attributes
+	 * @param sticky
+	 *            whether requests of a session are routed to the same node
+	 * @param maxCachedSessions
+	 *            maximum number of sessions in the near-cache of this node
+	 */
+	public ExternalizedSessionStore(ISessionBackend backend, boolean sticky,
+		final int maxCachedSessions)
+	{
+		this.backend = Args.notNull(backend, "backend");
+		this.sticky = sticky;
+
+		Args.withinRange(1, Integer.MAX_VALUE, maxCachedSessions, "maxCachedSessions");
+		cache = Collections.synchronizedMap(new LinkedHashMap<String, CachedSession>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedSession> eldest)
+			{
+				return size() > maxCachedSessions;
+			}
+		});
+	}
+
+	/**
+	 * @return the backend
+	 */
+	public ISessionBackend getBackend()
+	{
+		return backend;
+	}
+
+	/**
+	 * Whether to skip writing an attribute whose serialized state did not change since it was
+	 * last read or written by this node, defaults to {@code false}.
+	 * 
+	 * @param skipUnchangedWrites
+	 *            {@code true} to compare the serialized states
+	 * @return this
+	 */
+	public ExternalizedSessionStore setSkipUnchangedWrites(boolean skipUnchangedWrites)
+	{
+		this.skipUnchangedWrites = skipUnchangedWrites;
+		return this;
+	}
+
+	/**
+	 * Gets the key of the session in the backend, generated once per http session.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param create
+	 *            whether to generate a key if the http session has none yet
+	 * @return the key or {@code null} if there is no http session or it has no key
+	 */
+	String getBackendKey(final Request request, final boolean create)
+	{
+		HttpSession httpSession = getHttpSession(request, false);
+		if (httpSession == null)
+		{
+			return null;
+		}
+
+		String applicationKey = Application.get().getName();
+		String attributeName = KEY_ATTRIBUTE + applicationKey;
+		SessionKey key = (SessionKey)httpSession.getAttribute(attributeName);
+		if (key == null && create)
+		{
+			synchronized (this)
+			{
+				key = (SessionKey)httpSession.getAttribute(attributeName);
+				if (key == null)
+				{
+					key = new SessionKey(applicationKey, UUID.randomUUID().toString());
+					httpSession.setAttribute(attributeName, key);
+				}
+			}
+		}
+		return key == null ? null : key.key;
+	}
+
+	@Override
+	public Serializable getAttribute(final Request request, final String name)
+	{
+		String key = getBackendKey(request, false);
+		if (key == null)
+		{
+			return null;
+		}
+
+		String attributeName = getSessionAttributePrefix(request) + name;
+		CachedSession session = cache.computeIfAbsent(key, k -> new CachedSession());
+		synchronized (session)
+		{
+			CachedAttribute attribute = session.attributes.get(attributeName);
+			if (attribute != null && sticky)
+			{
+				return attribute.value;
+			}
+
+			remoteReads.incrementAndGet();
+			byte[] data = backend.get(key, attributeName);
+			if (data == null)
+			{
+				session.attributes.remove(attributeName);
+				return null;
+			}
+			if (attribute != null && Arrays.equals(attribute.data, data))
+			{
+				// unchanged by other nodes
+				return attribute.value;
+			}
+
+			Serializable value = (Serializable)getSerializer().deserialize(data);
+			session.attributes.put(attributeName, new CachedAttribute(value, data));
+			return value;
+		}
+	}
+
+	@Override
+	public List<String> getAttributeNames(final Request request)
+	{
+		String key = getBackendKey(request, false);
+		if (key == null)
+		{
+			return Collections.emptyList();
+		}
+
+		remoteReads.incrementAndGet();
+		List<String> names = new ArrayList<>();
+		String prefix = getSessionAttributePrefix(request);
+		for (String name : backend.getNames(key))
+		{
+			if (name.startsWith(prefix))
+			{
+				names.add(name.substring(prefix.length()));
+			}
+		}
+		return names;
+	}
+
+	@Override
+	public void setAttribute(final Request request, final String name, final Serializable value)
+	{
+		// ignore call if the session was marked invalid
+		String key = getBackendKey(request, true);
+		if (key == null)
+		{
+			return;
+		}
+
+		byte[] data = getSerializer().serialize(value);
+		if (data == null)
+		{
+			log.warn("Attribute '{}' of session '{}' could not be serialized", name, key);
+			return;
+		}
+
+		String attributeName = getSessionAttributePrefix(request) + name;
+		IRequestLogger logger = Application.get().getRequestLogger();
+		CachedSession session = cache.computeIfAbsent(key, k -> new CachedSession());
+		synchronized (session)
+		{
+			CachedAttribute attribute = session.attributes.get(attributeName);
+			if (logger != null)
+			{
+				if (attribute == null && backend.get(key, attributeName) == null)
+				{
+					logger.objectCreated(value);
+				}
+				else
+				{
+					logger.objectUpdated(value);
+				}
+			}
+
+			if (skipUnchangedWrites && attribute != null && Arrays.equals(attribute.data, data))
+			{
+				skippedWrites.incrementAndGet();
+			}
+			else
+			{
+				remoteWrites.incrementAndGet();
+				backend.put(key, attributeName, data);
+			}
+			session.attributes.put(attributeName, new CachedAttribute(value, data));
+		}
+
+		SessionSizeBudget budget = SessionSizeBudget.get(Application.get());
+		if (budget != null)
+		{
+			budget.onAttributeSet(getSessionId(request, false), name, value);
+		}
+	}
+
+	@Override
+	public void removeAttribute(final Request request, final String name)
+	{
+		String key = getBackendKey(request, false);
+		if (key == null)
+		{
+			return;
+		}
+
+		IRequestLogger logger = Application.get().getRequestLogger();
+		if (logger != null)
+		{
+			Object value = getAttribute(request, name);
+			if (value != null)
+			{
+				logger.objectRemoved(value);
+			}
+		}
+
+		String attributeName = getSessionAttributePrefix(request) + name;
+		CachedSession session = cache.get(key);
+		if (session != null)
+		{
+			synchronized (session)
+			{
+				session.attributes.remove(attributeName);
+			}
+		}
+
+		remoteWrites.incrementAndGet();
+		backend.remove(key, attributeName);
+
+		SessionSizeBudget budget = SessionSizeBudget.get(Application.get());
+		if (budget != null)
+		{
+			budget.onAttributeRemoved(getSessionId(request, false), name);
+		}
+	}
+
+	/**
+	 * The Wicket session is kept in the backend, so it must not be referenced from the http
+	 * session.
+	 */
+	@Override
+	protected SessionBindingListener newSessionBindingListener(String applicationKey,
+		Session session)
+	{
+		return super.newSessionBindingListener(applicationKey, null);
+	}
+
+	/**
+	 * Called when the http session keeping the given key is invalidated.
+	 * 
+	 * @param key
+	 *            key of the session in the backend
+	 */
+	protected void onUnbindKey(String key)
+	{
+		CachedSession session = cache.remove(key);
+		if (session != null)
+		{
+			List<CachedAttribute> attributes;
+			synchronized (session)
+			{
+				attributes = new ArrayList<>(session.attributes.values());
+			}
+			for (CachedAttribute attribute : attributes)
+			{
+				if (attribute.value instanceof Session)
+				{
+					((Session)attribute.value).onInvalidate();
+				}
+			}
+		}
+
+		backend.removeAll(key);
+	}
+
+	/**
+	 * @return count of reads from the backend
+	 */
+	public long getRemoteReads()
+	{
+		return remoteReads.get();
+	}
+
+	/**
+	 * @return count of writes to the backend
+	 */
+	public long getRemoteWrites()
+	{
+		return remoteWrites.get();
+	}
+
+	/**
+	 * @return count of writes skipped because an attribute was unchanged
+	 */
+	public long getSkippedWrites()
+	{
+		return skippedWrites.get();
+	}
+
+	/**
+	 * @return the serializer for the attributes
+	 */
+	protected ISerializer getSerializer()
+	{
+		return Application.get().getFrameworkSettings().getSerializer();
+	}
+
+	/**
+	 * The key of a session in the backend, kept in the http session. Removes the attributes from
+	 * the backend when the http session is invalidated.
+	 */
+	private static final class SessionKey implements HttpSessionBindingListener, Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		/** The unique key of the application within this web application. */
+		private final String applicationKey;
+
+		private final String key;
+
+		private SessionKey(String applicationKey, String key)
+		{
+			this.applicationKey = applicationKey;
+			this.key = key;
+		}
+
+		@Override
+		public void valueBound(HttpSessionBindingEvent event)
+		{
+		}
+
+		@Override
+		public void valueUnbound(HttpSessionBindingEvent event)
+		{
+			Application application = Application.get(applicationKey);
+			if (application == null)
+			{
+				log.debug("Wicket application with name '{}' not found.", applicationKey);
+				return;
+			}
+
+			ISessionStore sessionStore = application.getSessionStore();
+			if (sessionStore instanceof ExternalizedSessionStore)
+			{
+				((ExternalizedSessionStore)sessionStore).onUnbindKey(key);
+			}
+		}
+	}
+
+	/**
+	 * A session in the near-cache.
+	 */
+	private static class CachedSession
+	{
+		/**
+		 * guarded by {@code this}
+		 */
+		private final Map<String, CachedAttribute> attributes = new HashMap<>();
+	}
+
+	/**
+	 * An attribute in the near-cache along with its serialized state in the backend.
+	 */
+	private static class CachedAttribute
+	{
+		private final Serializable value;
+
+		private final byte[] data;
+
+		private CachedAttribute(Serializable value, byte[] data)
+		{
+			this.value = value;
+			this.data = data;
+		}
+	}
+}
@@ -32,6 +32,8 @@ import javax.servlet.http.HttpSessionBindingListener;
 import org.apache.wicket.Application;
 import org.apache.wicket.Session;
 import org.apache.wicket.markup.MarkupParser;
+import org.apache.wicket.pageStore.ReplicatingPageStore;
+import org.apache.wicket.pageStore.SessionSizeBudget;
 import org.apache.wicket.protocol.http.IRequestLogger;
 import org.apache.wicket.protocol.http.WebApplication;
 import org.apache.wicket.request.Request;
@@ -104,7 +106,7 @@ public class HttpSessionStore implements ISessionStore
 				// register an unbinding listener for cleaning up
 				String applicationKey = Application.get().getName();
 				httpSession.setAttribute("Wicket:SessionUnbindingListener-" + applicationKey,
-					new SessionBindingListener(applicationKey, newSession));
+					newSessionBindingListener(applicationKey, newSession));
 
 				// register the session object itself
 				setWicketSession(request, newSession);
@@ -131,6 +133,20 @@ public class HttpSessionStore implements ISessionStore
 	{
 	}
 
+	@Override
+	public void onSessionIdChanged(final Request request, final String oldSessionId,
+		final String newSessionId)
+	{
+		SessionSizeBudget budget = SessionSizeBudget.get(Application.get());
+		if (budget != null)
+		{
+			budget.onSessionIdChanged(oldSessionId, newSessionId);
+		}
+
+		ReplicatingPageStore.onSessionIdChanged(Application.get().getName(), oldSessionId,
+			newSessionId);
+	}
+
 	@Override
 	public String getSessionId(final Request request, final boolean create)
 	{
@@ -199,6 +215,22 @@ public class HttpSessionStore implements ISessionStore
 		setAttribute(request, Session.SESSION_ATTRIBUTE_NAME, session);
 	}
 
+	/**
+	 * Creates the listener which is stored in the {@link HttpSession} to clean up when it is
+	 * unbound.
+	 * 
+	 * @param applicationKey
+	 *            The unique key of the application within this web application
+	 * @param session
+	 *            The Wicket session
+	 * @return the listener
+	 */
+	protected SessionBindingListener newSessionBindingListener(final String applicationKey,
+		final Session session)
+	{
+		return new SessionBindingListener(applicationKey, session);
+	}
+
 	/**
 	 * Template method that is called when a session is being bound to the session store. It is
 	 * called <strong>before</strong> the session object itself is added to this store (which is
@@ -234,7 +266,7 @@ public class HttpSessionStore implements ISessionStore
 	 * 
 	 * @return the prefix for storing variables in the actual session
 	 */
-	private String getSessionAttributePrefix(final Request request)
+	protected final String getSessionAttributePrefix(final Request request)
 	{
 		String sessionAttributePrefix = MarkupParser.WICKET;
 
@@ -248,7 +280,7 @@ public class HttpSessionStore implements ISessionStore
 	}
 
 	@Override
-	public final Serializable getAttribute(final Request request, final String name)
+	public Serializable getAttribute(final Request request, final String name)
 	{
 		HttpSession httpSession = getHttpSession(request, false);
 		if (httpSession != null)
@@ -259,7 +291,7 @@ public class HttpSessionStore implements ISessionStore
 	}
 
 	@Override
-	public final List<String> getAttributeNames(final Request request)
+	public List<String> getAttributeNames(final Request request)
 	{
 		List<String> list = new ArrayList<String>();
 		HttpSession httpSession = getHttpSession(request, false);
@@ -281,7 +313,7 @@ public class HttpSessionStore implements ISessionStore
 	}
 
 	@Override
-	public final void removeAttribute(final Request request, final String name)
+	public void removeAttribute(final Request request, final String name)
 	{
 		HttpSession httpSession = getHttpSession(request, false);
 		if (httpSession != null)
@@ -298,11 +330,17 @@ public class HttpSessionStore implements ISessionStore
 				}
 			}
 			httpSession.removeAttribute(attributeName);
+
+			SessionSizeBudget budget = SessionSizeBudget.get(Application.get());
+			if (budget != null)
+			{
+				budget.onAttributeRemoved(httpSession.getId(), name);
+			}
 		}
 	}
 
 	@Override
-	public final void setAttribute(final Request request, final String name,
+	public void setAttribute(final Request request, final String name,
 		final Serializable value)
 	{
 		// ignore call if the session was marked invalid
@@ -323,6 +361,12 @@ public class HttpSessionStore implements ISessionStore
 				}
 			}
 			httpSession.setAttribute(attributeName, value);
+
+			SessionSizeBudget budget = SessionSizeBudget.get(Application.get());
+			if (budget != null)
+			{
+				budget.onAttributeSet(httpSession.getId(), name, value);
+			}
 		}
 	}
 
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.session;
+
+import java.util.List;
+
+/**
+ * A key-value backend keeping the serialized attributes of sessions outside of the
+ * {@link javax.servlet.http.HttpSession}, e.g. in a distributed cache shared by all nodes of a
+ * cluster.
+ * <p>
+ * Implementations have to be thread-safe.
+ * 
+ * @see ExternalizedSessionStore
+ */
+public interface ISessionBackend
+{
+	/**
+	 * Reads an attribute.
+	 * 
+	 * @param sessionId
+	 *            id of the session
+	 * @param name
+	 *            name of the attribute
+	 * @return serialized value or {@code null} if there is no such attribute
+	 */
+	byte[] get(String sessionId, String name);
+
+	/**
+	 * Writes an attribute.
+	 * 
+	 * @param sessionId
+	 *            id of the session
+	 * @param name
+	 *            name of the attribute
+	 * @param data
+	 *            serialized value
+	 */
+	void put(String sessionId, String name, byte[] data);
+
+	/**
+	 * Removes an attribute.
+	 * 
+	 * @param sessionId
+	 *            id of the session
+	 * @param name
+	 *            name of the attribute
+	 */
+	void remove(String sessionId, String name);
+
+	/**
+	 * @param sessionId
+	 *            id of the session
+	 * @return names of all attributes of the session
+	 */
+	List<String> getNames(String sessionId);
+
+	/**
+	 * Removes all attributes of a session.
+	 * 
+	 * @param sessionId
+	 *            id of the session
+	 */
+	void removeAll(String sessionId);
+}
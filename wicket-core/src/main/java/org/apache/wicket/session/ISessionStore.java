@@ -144,6 +144,22 @@ public interface ISessionStore
 	 */
 	void flushSession(Request request, Session session);
 
+	/**
+	 * Notification that the id of the current session was changed by
+	 * {@link Session#changeSessionId()}. Stores keeping data by session id have to move it to the
+	 * new id.
+	 * 
+	 * @param request
+	 *            current request
+	 * @param oldSessionId
+	 *            previous id of the session
+	 * @param newSessionId
+	 *            new id of the session
+	 */
+	default void onSessionIdChanged(Request request, String oldSessionId, String newSessionId)
+	{
+	}
+
 	/**
 	 * Called when the WebApplication is destroyed.
 	 */
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A backend keeping the session attributes in memory, for tests and single node deployments.
+ */
+public class InMemorySessionBackend implements ISessionBackend
+{
+	private final ConcurrentMap<String, Map<String, byte[]>> sessions = new ConcurrentHashMap<>();
+
+	@Override
+	public byte[] get(String sessionId, String name)
+	{
+		Map<String, byte[]> attributes = sessions.get(sessionId);
+		if (attributes == null)
+		{
+			return null;
+		}
+		return attributes.get(name);
+	}
+
+	@Override
+	public void put(String sessionId, String name, byte[] data)
+	{
+		sessions.compute(sessionId, (id, attributes) -> {
+			if (attributes == null)
+			{
+				attributes = new ConcurrentHashMap<>();
+			}
+			attributes.put(name, data);
+			return attributes;
+		});
+	}
+
+	@Override
+	public void remove(String sessionId, String name)
+	{
+		sessions.computeIfPresent(sessionId, (id, attributes) -> {
+			attributes.remove(name);
+			return attributes.isEmpty() ? null : attributes;
+		});
+	}
+
+	@Override
+	public List<String> getNames(String sessionId)
+	{
+		Map<String, byte[]> attributes = sessions.get(sessionId);
+		if (attributes == null)
+		{
+			return Collections.emptyList();
+		}
+		return new ArrayList<>(attributes.keySet());
+	}
+
+	@Override
+	public void removeAll(String sessionId)
+	{
+		sessions.remove(sessionId);
+	}
+}
@@ -21,8 +21,10 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.MissingResourceException;
 
@@ -257,6 +259,63 @@ class LocalizerTest
 		}
 	}
 
+	/**
+	 * The cache is bounded by two generations.
+	 */
+	@Test
+	void boundedCache()
+	{
+		settings.setUseDefaultOnMissingResource(true);
+		localizer.setMaxCacheSize(2);
+		localizer.clearCache();
+		long hits = localizer.getCacheHits();
+		long misses = localizer.getCacheMisses();
+
+		assertEquals("This is a test", localizer.getString("test.string", null, null, "DEFAULT"));
+		assertEquals("This is a test", localizer.getString("test.string", null, null, "DEFAULT"));
+		assertEquals(hits + 1, localizer.getCacheHits());
+		assertEquals(misses + 1, localizer.getCacheMisses());
+
+		localizer.getString("unknown.a", null, null, "DEFAULT");
+		localizer.getString("unknown.b", null, null, "DEFAULT");
+		assertEquals(3, localizer.getCacheSize());
+
+		// hit in the old generation
+		assertEquals("This is a test", localizer.getString("test.string", null, null, "DEFAULT"));
+		assertEquals(hits + 2, localizer.getCacheHits());
+
+		// drops unknown.a
+		localizer.getString("unknown.c", null, null, "DEFAULT");
+		assertEquals(3, localizer.getCacheSize());
+		assertEquals("DEFAULT", localizer.getString("unknown.a", null, null, "DEFAULT"));
+		assertEquals(misses + 5, localizer.getCacheMisses());
+	}
+
+	/**
+	 * Cached strings are read through {@link Localizer#getFromCache(Object)}.
+	 */
+	@Test
+	void getFromCacheHook()
+	{
+		settings.setUseDefaultOnMissingResource(true);
+		final List<Object> keys = new ArrayList<>();
+		Localizer localizer = new Localizer()
+		{
+			@Override
+			protected String getFromCache(Object cacheKey)
+			{
+				keys.add(cacheKey);
+				return super.getFromCache(cacheKey);
+			}
+		};
+
+		assertEquals("This is a test", localizer.getString("test.string", null, null, "DEFAULT"));
+		assertTrue(keys.isEmpty());
+
+		assertEquals("This is a test", localizer.getString("test.string", null, null, "DEFAULT"));
+		assertEquals(1, keys.size());
+	}
+
 	public static class MyMockPage extends WebPage
 	{
 		private static final long serialVersionUID = 1L;
@@ -166,6 +166,21 @@ public class MockPage extends MockComponent implements IRequestablePage
 		this.renderCount = renderCount;
 	}
 
+	private int modificationCount;
+
+	@Override
+	public int getModificationCount()
+	{
+		return modificationCount;
+	}
+
+	/**
+	 * Increments the modification count
+	 */
+	public void modified()
+	{
+		modificationCount++;
+	}
 
 	@Override
 	public boolean setFreezePageId(boolean freeze)
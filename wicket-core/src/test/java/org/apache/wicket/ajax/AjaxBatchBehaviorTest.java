@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.ajax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.markup.IMarkupResourceStreamProvider;
+import org.apache.wicket.markup.html.WebComponent;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link AjaxBatchBehavior}
+ */
+class AjaxBatchBehaviorTest extends WicketTestCase
+{
+	/**
+	 * All calls are executed and their components are written in one response.
+	 */
+	@Test
+	void batchedCalls()
+	{
+		BatchPage page = new BatchPage();
+		tester.startPage(page);
+
+		String calls = "[" + call(page.one, page.oneBehavior, "v1") + "," +
+			call(page.two, page.twoBehavior, "v2") + "," + call(page.one, page.oneBehavior, "v3") + "]";
+		tester.getRequest().getPostParameters().setParameterValue(AjaxBatchBehavior.PARAM_CALLS, calls);
+		tester.executeBehavior(page.batch);
+
+		assertEquals("[one:v1, two:v2, one:v3]", page.calls.toString());
+		tester.assertComponentOnAjaxResponse(page.one);
+		tester.assertComponentOnAjaxResponse(page.two);
+
+		// all calls shared the target of the batch
+		assertEquals(1, page.targets.stream().distinct().count());
+		assertNull(tester.getRequestCycle().getMetaData(AjaxBatchBehavior.BATCH_TARGET));
+	}
+
+	/**
+	 * Calls to disabled components are skipped.
+	 */
+	@Test
+	void disabledComponentIsSkipped()
+	{
+		BatchPage page = new BatchPage();
+		tester.startPage(page);
+		page.one.setEnabled(false);
+
+		String calls = "[" + call(page.one, page.oneBehavior, "v1") + "," +
+			call(page.two, page.twoBehavior, "v2") + "]";
+		tester.getRequest().getPostParameters().setParameterValue(AjaxBatchBehavior.PARAM_CALLS, calls);
+		tester.executeBehavior(page.batch);
+
+		assertEquals("[two:v2]", page.calls.toString());
+	}
+
+	private String call(WebComponent component, AjaxEventBehavior behavior, String value)
+	{
+		return "{\"c\":\"" + component.getPageRelativePath() + "\",\"b\":" +
+			component.getBehaviorId(behavior) + ",\"p\":[{\"name\":\"value\",\"value\":\"" + value +
+			"\"}]}";
+	}
+
+	private static class BatchPage extends WebPage implements IMarkupResourceStreamProvider
+	{
+		private final List<String> calls = new ArrayList<>();
+
+		private final List<AjaxRequestTarget> targets = new ArrayList<>();
+
+		private final WebComponent one;
+		private final WebComponent two;
+		private final AjaxEventBehavior oneBehavior;
+		private final AjaxEventBehavior twoBehavior;
+		private final AjaxBatchBehavior batch;
+
+		private BatchPage()
+		{
+			one = new WebComponent("one");
+			one.setOutputMarkupId(true);
+			add(one);
+			one.add(oneBehavior = new CallBehavior());
+
+			two = new WebComponent("two");
+			two.setOutputMarkupId(true);
+			add(two);
+			two.add(twoBehavior = new CallBehavior());
+
+			add(batch = new AjaxBatchBehavior());
+		}
+
+		@Override
+		public IResourceStream getMarkupResourceStream(MarkupContainer container,
+			Class<?> containerClass)
+		{
+			return new StringResourceStream(
+				"<html><body><span wicket:id='one'></span><span wicket:id='two'></span></body></html>");
+		}
+
+		private class CallBehavior extends AjaxEventBehavior
+		{
+			private CallBehavior()
+			{
+				super("click");
+			}
+
+			@Override
+			protected void onEvent(AjaxRequestTarget target)
+			{
+				String value = RequestCycle.get()
+					.getRequest()
+					.getRequestParameters()
+					.getParameterValue("value")
+					.toString();
+				calls.add(getComponent().getId() + ":" + value);
+				targets.add(target);
+				target.add(getComponent());
+			}
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.repeater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.Model;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link KeyedItemReuseStrategy}.
+ */
+public class KeyedItemReuseStrategyTest extends WicketTestCase
+{
+	private int created;
+
+	private final IItemFactory<String> factory = (index, model) -> new Item<>(
+		String.valueOf(created++), index, model);
+
+	private final IItemReuseStrategy strategy = new KeyedItemReuseStrategy(
+		(String object) -> object.substring(0, 1));
+
+	/**
+	 * Items are reused by key, moved to their new index, and created for new keys only.
+	 */
+	@Test
+	public void reuseByKey()
+	{
+		List<Item<String>> items = getItems(Arrays.asList("a1", "b1", "c1"), new ArrayList<>());
+		assertEquals(3, created);
+
+		List<Item<String>> reused = getItems(Arrays.asList("c2", "d2", "a2"), items);
+		assertEquals(4, created);
+
+		assertSame(items.get(2), reused.get(0));
+		assertEquals(0, reused.get(0).getIndex());
+		assertEquals("3", reused.get(1).getId());
+		assertEquals(1, reused.get(1).getIndex());
+		assertSame(items.get(0), reused.get(2));
+		assertEquals(2, reused.get(2).getIndex());
+
+		assertEquals("c2", reused.get(0).getModelObject());
+		assertEquals("d2", reused.get(1).getModelObject());
+		assertEquals("a2", reused.get(2).getModelObject());
+	}
+
+	/**
+	 * A reused item keeps its model if it is equal to the new model.
+	 */
+	@Test
+	public void equalModelIsKept()
+	{
+		List<Item<String>> items = getItems(Arrays.asList("a1"), new ArrayList<>());
+		IModel<String> model = items.get(0).getModel();
+
+		List<Item<String>> reused = getItems(Arrays.asList("a1"), items);
+
+		assertSame(items.get(0), reused.get(0));
+		assertSame(model, reused.get(0).getModel());
+	}
+
+	/**
+	 * An item is not reused twice for duplicate keys.
+	 */
+	@Test
+	public void duplicateKeys()
+	{
+		List<Item<String>> items = getItems(Arrays.asList("a1"), new ArrayList<>());
+
+		List<Item<String>> reused = getItems(Arrays.asList("a1", "a2"), items);
+
+		assertSame(items.get(0), reused.get(0));
+		assertNotSame(items.get(0), reused.get(1));
+		assertEquals(2, created);
+	}
+
+	private List<Item<String>> getItems(List<String> objects, List<Item<String>> existing)
+	{
+		List<IModel<String>> models = new ArrayList<>();
+		for (String object : objects)
+		{
+			models.add(Model.of(object));
+		}
+
+		List<Item<String>> items = new ArrayList<>();
+		Iterator<Item<String>> iterator = strategy.getItems(factory, models.iterator(),
+			existing.iterator());
+		while (iterator.hasNext())
+		{
+			items.add(iterator.next());
+		}
+		assertFalse(iterator.hasNext());
+		return items;
+	}
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.repeater.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.markup.repeater.Item;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.Model;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link CursorDataView}.
+ */
+public class CursorDataViewTest extends WicketTestCase
+{
+	/**
+	 * Moving forwards and backwards.
+	 */
+	@Test
+	public void navigate()
+	{
+		KeysetProvider provider = new KeysetProvider(25);
+		View view = new View("view", provider, 10);
+
+		assertFalse(view.hasPreviousPage());
+		assertTrue(view.hasNextPage());
+		assertItems(view, 0, 10);
+
+		view.nextPage();
+		assertTrue(view.hasPreviousPage());
+		assertItems(view, 10, 20);
+
+		view.nextPage();
+		assertFalse(view.hasNextPage());
+		assertItems(view, 20, 25);
+
+		view.previousPage();
+		assertItems(view, 10, 20);
+
+		view.previousPage();
+		assertFalse(view.hasPreviousPage());
+		assertItems(view, 0, 10);
+
+		view.nextPage();
+		view.firstPage();
+		assertNull(view.getCursor());
+		assertItems(view, 0, 10);
+
+		assertEquals(-1, view.getItemCount());
+	}
+
+	/**
+	 * The current page is fetched once until detach.
+	 */
+	@Test
+	public void cachedPage()
+	{
+		KeysetProvider provider = new KeysetProvider(25);
+		View view = new View("view", provider, 10);
+
+		view.hasNextPage();
+		assertItems(view, 0, 10);
+		assertEquals(1, provider.pages);
+
+		view.detach();
+		assertItems(view, 0, 10);
+		assertEquals(2, provider.pages);
+	}
+
+	/**
+	 * The page fetched before rendering is not reused for rendering, e.g. if a listener changed the
+	 * data after asking for the next page.
+	 */
+	@Test
+	public void refetchOnRender()
+	{
+		KeysetProvider provider = new KeysetProvider(25);
+		View view = new View("view", provider, 10);
+
+		assertTrue(view.hasNextPage());
+		assertEquals(1, provider.pages);
+
+		provider.size = 5;
+		view.onBeforeRender();
+
+		assertFalse(view.hasNextPage());
+		assertItems(view, 0, 5);
+		assertEquals(2, provider.pages);
+	}
+
+	/**
+	 * The view falls back to the first page if the rows around the cursor are gone.
+	 */
+	@Test
+	public void vanishedPage()
+	{
+		KeysetProvider provider = new KeysetProvider(25);
+		View view = new View("view", provider, 10);
+		view.nextPage();
+		view.nextPage();
+		view.detach();
+
+		provider.size = 15;
+
+		assertItems(view, 0, 10);
+		assertNull(view.getCursor());
+	}
+
+	private void assertItems(View view, int from, int to)
+	{
+		Iterator<IModel<Integer>> models = view.getItemModels();
+		for (int i = from; i < to; i++)
+		{
+			assertEquals(i, models.next().getObject());
+		}
+		assertFalse(models.hasNext());
+	}
+
+	private static class View extends CursorDataView<Integer>
+	{
+		private static final long serialVersionUID = 1L;
+
+		View(String id, ICursorDataProvider<Integer> dataProvider, long itemsPerPage)
+		{
+			super(id, dataProvider, itemsPerPage);
+		}
+
+		@Override
+		protected void populateItem(Item<Integer> item)
+		{
+		}
+	}
+
+	/**
+	 * Pages through the integers, cursors are "&gt;n" for the items after n and "&lt;n" for the
+	 * items before n.
+	 */
+	private static class KeysetProvider implements ICursorDataProvider<Integer>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private int size;
+
+		private int pages;
+
+		KeysetProvider(int size)
+		{
+			this.size = size;
+		}
+
+		@Override
+		public CursorPage<Integer> page(String cursor, long count)
+		{
+			pages++;
+
+			int from = 0;
+			if (cursor != null)
+			{
+				int key = Integer.parseInt(cursor.substring(1));
+				from = cursor.charAt(0) == '>' ? key + 1 : Math.max(0, key - (int)count);
+			}
+			int to = (int)Math.min(from + count, size);
+
+			List<Integer> items = new ArrayList<>();
+			for (int i = from; i < to; i++)
+			{
+				items.add(i);
+			}
+			if (items.isEmpty())
+			{
+				return new CursorPage<>(items, null, null);
+			}
+			return new CursorPage<>(items, from > 0 ? "<" + from : null,
+				to < size ? ">" + (to - 1) : null);
+		}
+
+		@Override
+		public IModel<Integer> model(Integer object)
+		{
+			return Model.of(object);
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.repeater.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.markup.repeater.Item;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.Model;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link DataViewBase}.
+ */
+public class DataViewBaseTest extends WicketTestCase
+{
+	/**
+	 * The page and the total of an {@link IPagingDataProvider} are fetched once.
+	 */
+	@Test
+	public void pagingDataProvider()
+	{
+		PagingProvider provider = new PagingProvider(25);
+		View view = new View("view", provider);
+		view.setItemsPerPage(10);
+		view.setCurrentPage(1);
+
+		assertEquals(25, view.getItemCount());
+		assertEquals(3, view.getPageCount());
+
+		Iterator<IModel<Integer>> models = view.getItemModels(10, 10);
+		for (int i = 10; i < 20; i++)
+		{
+			assertEquals(i, models.next().getObject());
+		}
+		assertFalse(models.hasNext());
+
+		assertEquals(1, provider.pages);
+		assertEquals(1, provider.sizes);
+
+		view.detach();
+
+		assertEquals(25, view.getItemCount());
+		assertEquals(2, provider.pages);
+		assertEquals(2, provider.sizes);
+	}
+
+	/**
+	 * The page fetched before rendering is not reused for rendering.
+	 */
+	@Test
+	public void refetchOnRender()
+	{
+		PagingProvider provider = new PagingProvider(25);
+		View view = new View("view", provider);
+		view.setItemsPerPage(10);
+
+		assertEquals(25, view.getItemCount());
+		assertEquals(1, provider.pages);
+
+		view.onBeforeRender();
+
+		assertEquals(25, view.getItemCount());
+		assertEquals(2, provider.pages);
+	}
+
+	/**
+	 * The cached page is dropped when the model changes.
+	 */
+	@Test
+	public void refetchOnModelChanged()
+	{
+		PagingProvider provider = new PagingProvider(25);
+		View view = new View("view", provider);
+		view.setItemsPerPage(10);
+
+		view.getItemModels(0, 10);
+		assertEquals(1, provider.pages);
+
+		view.modelChanged();
+
+		view.getItemModels(0, 10);
+		assertEquals(2, provider.pages);
+	}
+
+	/**
+	 * A lazy total is not computed when only the items are needed.
+	 */
+	@Test
+	public void lazySize()
+	{
+		PagingProvider provider = new PagingProvider(25);
+		View view = new View("view", provider);
+
+		Iterator<IModel<Integer>> models = view.getItemModels(0, 5);
+		assertEquals(0, models.next().getObject());
+
+		assertEquals(1, provider.pages);
+		assertEquals(0, provider.sizes);
+	}
+
+	private static class View extends DataView<Integer>
+	{
+		private static final long serialVersionUID = 1L;
+
+		View(String id, IDataProvider<Integer> dataProvider)
+		{
+			super(id, dataProvider);
+		}
+
+		@Override
+		protected void populateItem(Item<Integer> item)
+		{
+		}
+	}
+
+	private static class PagingProvider implements IPagingDataProvider<Integer>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final int size;
+
+		private int pages;
+
+		private int sizes;
+
+		PagingProvider(int size)
+		{
+			this.size = size;
+		}
+
+		@Override
+		public DataPage<Integer> page(long first, long count)
+		{
+			pages++;
+
+			List<Integer> items = new ArrayList<>();
+			for (long i = first; i < Math.min(first + count, size); i++)
+			{
+				items.add((int)i);
+			}
+			return new DataPage<>(items, () -> {
+				sizes++;
+				return size;
+			});
+		}
+
+		@Override
+		public IModel<Integer> model(Integer object)
+		{
+			return Model.of(object);
+		}
+	}
+}
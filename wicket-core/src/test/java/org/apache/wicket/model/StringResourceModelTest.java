@@ -19,7 +19,9 @@ package org.apache.wicket.model;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -186,6 +188,32 @@ public class StringResourceModelTest extends WicketTestCase
 		assertEquals("2010.00", model.getString());
 	}
 
+	/** */
+	@Test
+	void sharedFormatPerLocale()
+	{
+		StringResourceModel model = new StringResourceModel("no.such.key", page)
+			.setDefaultValue("It''s {0,number,#.#} ${units}")
+			.setModel(wsModel)
+			.setParameters(new PropertyModel<Double>(wsModel, "currentTemperature"));
+
+		tester.getSession().setLocale(Locale.ENGLISH);
+		ws.setCurrentTemperature(25.7);
+		assertEquals("It's 25.7 \u00B0C", model.getString());
+		ws.setCurrentTemperature(11.5);
+		assertEquals("It's 11.5 \u00B0C", model.getString());
+
+		tester.getSession().setLocale(Locale.GERMAN);
+		assertEquals("It's 11,5 \u00B0C", model.getString());
+
+		String value = "It''s {0,number,#.#} ${units}";
+		MessageFormat english = StringResourceModel.getMessageFormat(value, true, Locale.ENGLISH);
+		assertSame(english, StringResourceModel.getMessageFormat(value, true, Locale.ENGLISH));
+		assertNotSame(english, StringResourceModel.getMessageFormat(value, true, Locale.GERMAN));
+		assertNotSame(english, StringResourceModel.getMessageFormat(value, false, Locale.ENGLISH));
+		assertEquals(Locale.ENGLISH, english.getLocale());
+	}
+
 	/** */
 	@Test
 	void textResourceWithSubstitutionAndSingleQuote()
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.page;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.wicket.ajax.AjaxMarkupDiffBehavior;
+import org.apache.wicket.ajax.AjaxRequestHandler;
+import org.apache.wicket.mock.MockWebResponse;
+import org.apache.wicket.request.http.WebRequest;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+import com.github.openjson.JSONArray;
+
+/**
+ * Test for {@link JsonPartialPageUpdate}.
+ */
+class JsonPartialPageUpdateTest extends WicketTestCase
+{
+	/**
+	 * Components and header contributions are written as steps of a JSON array.
+	 */
+	@Test
+	void writeSteps()
+	{
+		PageForPartialUpdate page = new PageForPartialUpdate();
+
+		JsonPartialPageUpdate update = new JsonPartialPageUpdate(page);
+
+		update.add(page.container, page.container.getMarkupId());
+		update.appendJavaScript("alert('appended');");
+
+		MockWebResponse response = new MockWebResponse();
+
+		update.writeTo(response, "UTF-8");
+
+		JSONArray steps = new JSONArray(response.getTextResponse().toString());
+		assertEquals(3, steps.length());
+
+		assertEquals("c", steps.getJSONArray(0).getString(0));
+		assertEquals("container1", steps.getJSONArray(0).getString(1));
+		assertEquals("<span wicket:id=\"container\" id=\"container1\"> two brackets: ]] greater than: > CDATA end: ]]> </span>",
+			steps.getJSONArray(0).getString(2));
+
+		// the header contribution of the component
+		assertEquals("h", steps.getJSONArray(1).getString(0));
+		assertTrue(steps.getJSONArray(1).getString(1).contains("CDATA end: ]]>"));
+
+		assertEquals("h", steps.getJSONArray(2).getString(0));
+		assertTrue(steps.getJSONArray(2).getString(1).contains("alert('appended');"));
+	}
+
+	/**
+	 * An empty update is an empty array.
+	 */
+	@Test
+	void empty()
+	{
+		PageForPartialUpdate page = new PageForPartialUpdate();
+
+		JsonPartialPageUpdate update = new JsonPartialPageUpdate(page);
+
+		MockWebResponse response = new MockWebResponse();
+
+		update.writeTo(response, "UTF-8");
+
+		assertEquals("[]", response.getTextResponse().toString());
+	}
+
+	/**
+	 * The second update of a component with an {@link AjaxMarkupDiffBehavior} is a diff against
+	 * the base confirmed by the client.
+	 */
+	@Test
+	void diffedUpdate()
+	{
+		PageForPartialUpdate page = new PageForPartialUpdate();
+		page.container.add(new AjaxMarkupDiffBehavior());
+
+		JSONArray step = writeContainer(page);
+		assertEquals("c", step.getString(0));
+		String hash = step.getString(3);
+
+		tester.getRequest().setHeader(WebRequest.HEADER_AJAX_MARKUP_BASES, "other=1, container1=" + hash);
+		step = writeContainer(page);
+		assertEquals("d", step.getString(0));
+		assertEquals("container1", step.getString(1));
+		assertEquals(hash, step.getString(2));
+		assertEquals(0, step.getJSONArray(3).length());
+
+		// same markup but a new version
+		String next = step.getString(4);
+		assertNotEquals(hash, next);
+		assertEquals(hash.substring(hash.indexOf('-')), next.substring(next.indexOf('-')));
+	}
+
+	/**
+	 * The hash of a markup is its version and a digest over its bytes.
+	 */
+	@Test
+	void hash()
+	{
+		PageForPartialUpdate page = new PageForPartialUpdate();
+		page.container.add(new AjaxMarkupDiffBehavior());
+
+		JsonPartialPageUpdate update = new JsonPartialPageUpdate(page);
+		String digest = update.digest("<td>1</td>");
+		assertEquals(16, digest.length());
+		assertEquals(digest, update.digest("<td>1</td>"));
+		// equal length and String#hashCode()
+		assertEquals("Aa".hashCode(), "BB".hashCode());
+		assertNotEquals(update.digest("Aa"), update.digest("BB"));
+
+		JSONArray step = writeContainer(page);
+		assertEquals(page.getRenderCount() + ".1-" + update.digest(step.getString(2)),
+			step.getString(3));
+
+		step = writeContainer(page);
+		assertEquals(page.getRenderCount() + ".2-" + update.digest(step.getString(2)),
+			step.getString(3));
+	}
+
+	/**
+	 * Without a confirmed base, or with a base the server does not hold, the component is
+	 * replaced fully.
+	 */
+	@Test
+	void unconfirmedBase()
+	{
+		PageForPartialUpdate page = new PageForPartialUpdate();
+		page.container.add(new AjaxMarkupDiffBehavior());
+
+		String hash = writeContainer(page).getString(3);
+		assertEquals("c", writeContainer(page).getString(0));
+
+		// e.g. the client did not apply a lost response
+		tester.getRequest().setHeader(WebRequest.HEADER_AJAX_MARKUP_BASES, "container1=stale");
+		assertEquals("c", writeContainer(page).getString(0));
+
+		// the client's base was replaced by an XML encoded update
+		tester.getRequest().setHeader(WebRequest.HEADER_AJAX_MARKUP_BASES, "container1=" + hash);
+		XmlPartialPageUpdate xmlUpdate = new XmlPartialPageUpdate(page);
+		xmlUpdate.add(page.container, page.container.getMarkupId());
+		xmlUpdate.writeTo(new MockWebResponse(), "UTF-8");
+		assertEquals("c", writeContainer(page).getString(0));
+	}
+
+	private JSONArray writeContainer(PageForPartialUpdate page)
+	{
+		JsonPartialPageUpdate update = new JsonPartialPageUpdate(page);
+		update.add(page.container, page.container.getMarkupId());
+		MockWebResponse response = new MockWebResponse();
+		update.writeTo(response, "UTF-8");
+		return new JSONArray(response.getTextResponse().toString()).getJSONArray(0);
+	}
+
+	/**
+	 * The edits are offsets into the previous markup.
+	 */
+	@Test
+	void diff()
+	{
+		JsonPartialPageUpdate update = new JsonPartialPageUpdate(new PageForPartialUpdate());
+
+		assertEquals("[14,1,\"3\"]", update.diff("<td>1</td><td>2</td>", "<td>1</td><td>3</td>").toString());
+
+		assertDiff(update, "<td>1</td>", "<td>1</td><td>2</td>");
+		assertDiff(update, "<td>1</td><td>2</td>", "<td>2</td>");
+		assertDiff(update, "<table><tr><td>a</td></tr></table>", "<table><tr><td>b</td></tr><tr><td>c</td></tr></table>");
+		assertDiff(update, "text only", "<b>text</b> only");
+	}
+
+	private void assertDiff(JsonPartialPageUpdate update, String previous, String current)
+	{
+		JSONArray edits = new JSONArray(update.diff(previous, current).toString());
+		StringBuilder markup = new StringBuilder(previous);
+		for (int i = edits.length() - 3; i >= 0; i -= 3)
+		{
+			int offset = edits.getInt(i);
+			markup.replace(offset, offset + edits.getInt(i + 1), edits.getString(i + 2));
+		}
+		assertEquals(current, markup.toString());
+	}
+
+	/**
+	 * The format is negotiated with a request header.
+	 */
+	@Test
+	void negotiated()
+	{
+		PageForPartialUpdate page = new PageForPartialUpdate();
+
+		assertTrue(new AjaxRequestHandler(page).getUpdate() instanceof XmlPartialPageUpdate);
+
+		tester.getRequest().setHeader(WebRequest.HEADER_AJAX_RESPONSE_FORMAT, JsonPartialPageUpdate.FORMAT);
+
+		assertTrue(new AjaxRequestHandler(page).getUpdate() instanceof JsonPartialPageUpdate);
+	}
+}
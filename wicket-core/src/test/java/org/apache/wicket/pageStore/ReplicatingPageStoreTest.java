@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionBindingListener;
+
+import org.apache.wicket.mock.MockPageContext;
+import org.apache.wicket.protocol.http.mock.MockHttpSession;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ReplicatingPageStore}
+ */
+public class ReplicatingPageStoreTest extends AbstractPageStoreTest
+{
+	private final MapBackend backend = new MapBackend();
+
+	@Override
+	protected IPageStore createPageStore(int maxEntries)
+	{
+		return new ReplicatingPageStore("test", new InMemoryPageStore("test", maxEntries),
+			backend, Duration.ofHours(1), 10);
+	}
+
+	@Test
+	void latestPageIsReplicated()
+	{
+		ReplicatingPageStore store = (ReplicatingPageStore)pageStore;
+		IPageContext context = new MockPageContext(sessionId);
+
+		store.addPage(context, new SerializedPage(1, "Page1", new byte[100]));
+		store.addPage(context, new SerializedPage(2, "Page2", new byte[100]));
+		assertTrue(backend.pages.isEmpty());
+
+		store.flush();
+
+		assertEquals(1, backend.pages.size());
+		assertEquals(1, backend.writes);
+		assertEquals(1, store.getReplicatedPages());
+		assertEquals(1, store.getCoalescedPages());
+		assertTrue(store.getReplicatedBytes() < 100);
+
+		SerializedPage replicated = store.decompress(backend.pages.get(sessionId));
+		assertEquals(2, replicated.getPageId());
+		assertEquals("Page2", replicated.getPageType());
+		assertArrayEquals(new byte[100], replicated.getData());
+	}
+
+	@Test
+	void fetchOnFailover()
+	{
+		ReplicatingPageStore store = (ReplicatingPageStore)pageStore;
+		IPageContext context = new MockPageContext(sessionId);
+
+		store.addPage(context, new SerializedPage(1, "Page1", new byte[] { 1, 2, 3 }));
+		store.flush();
+
+		ReplicatingPageStore otherNode = new ReplicatingPageStore("other",
+			new InMemoryPageStore("other", 10), backend, Duration.ofHours(1), 10);
+		try
+		{
+			IPageContext otherContext = new MockPageContext(sessionId);
+
+			SerializedPage page = (SerializedPage)otherNode.getPage(otherContext, 1);
+			assertArrayEquals(new byte[] { 1, 2, 3 }, page.getData());
+			assertEquals(1, otherNode.getFetchedPages());
+
+			assertNull(otherNode.getPage(otherContext, 2));
+
+			// kept locally
+			backend.pages.clear();
+			assertArrayEquals(new byte[] { 1, 2, 3 },
+				((SerializedPage)otherNode.getPage(otherContext, 1)).getData());
+		}
+		finally
+		{
+			otherNode.destroy();
+		}
+	}
+
+	@Test
+	void removeAllPages()
+	{
+		ReplicatingPageStore store = (ReplicatingPageStore)pageStore;
+		IPageContext context = new MockPageContext(sessionId);
+
+		store.addPage(context, new SerializedPage(1, new byte[1]));
+		store.flush();
+
+		store.removeAllPages(context);
+		store.flush();
+
+		assertTrue(backend.pages.isEmpty());
+	}
+
+	@Test
+	void removePage()
+	{
+		ReplicatingPageStore store = (ReplicatingPageStore)pageStore;
+		IPageContext context = new MockPageContext(sessionId);
+
+		SerializedPage page = new SerializedPage(1, new byte[1]);
+		store.addPage(context, page);
+		store.flush();
+
+		store.removePage(context, new SerializedPage(2, new byte[1]));
+		store.flush();
+		assertEquals(1, backend.pages.size());
+
+		store.removePage(context, page);
+		assertNull(store.getPage(context, 1));
+		store.flush();
+		assertTrue(backend.pages.isEmpty());
+
+		// known locally which page was replicated
+		assertEquals(0, backend.reads);
+	}
+
+	@Test
+	void sessionIdChanged()
+	{
+		ReplicatingPageStore store = (ReplicatingPageStore)pageStore;
+		IPageContext context = new MockPageContext(sessionId);
+
+		store.addPage(context, new SerializedPage(1, new byte[] { 1, 2, 3 }));
+		store.flush();
+
+		ReplicatingPageStore.onSessionIdChanged("test", sessionId, "newSessionId");
+		store.flush();
+
+		assertNull(backend.pages.get(sessionId));
+		assertEquals(1, store.decompress(backend.pages.get("newSessionId")).getPageId());
+
+		// pending pages are moved too
+		store.addPage(context, new SerializedPage(2, new byte[1]));
+		ReplicatingPageStore.onSessionIdChanged("test", sessionId, "newerSessionId");
+		store.flush();
+
+		assertNull(backend.pages.get(sessionId));
+		assertEquals(2, store.decompress(backend.pages.get("newerSessionId")).getPageId());
+	}
+
+	@Test
+	void expireOnUnbind()
+	{
+		ReplicatingPageStore store = (ReplicatingPageStore)pageStore;
+		IPageContext context = new MockPageContext(sessionId);
+
+		store.addPage(context, new SerializedPage(1, new byte[1]));
+		store.flush();
+
+		String name = "wicket:ReplicatingPageStore";
+		HttpSessionBindingListener attribute = (HttpSessionBindingListener)context
+			.getSessionAttribute(name, () -> (Serializable)null);
+		attribute.valueUnbound(new HttpSessionBindingEvent(new MockHttpSession(null), name));
+		store.flush();
+
+		assertTrue(backend.pages.isEmpty());
+	}
+
+	@Test
+	void batches()
+	{
+		ReplicatingPageStore store = (ReplicatingPageStore)pageStore;
+
+		for (int s = 0; s < 25; s++)
+		{
+			store.addPage(new MockPageContext("session" + s), new SerializedPage(1, new byte[1]));
+		}
+		store.flush();
+
+		assertEquals(25, backend.pages.size());
+		assertEquals(3, backend.writes);
+	}
+
+	private static class MapBackend implements IPageReplicationBackend
+	{
+		private final Map<String, byte[]> pages = new ConcurrentHashMap<>();
+
+		private int writes;
+
+		private int reads;
+
+		@Override
+		public void write(Map<String, byte[]> batch)
+		{
+			writes++;
+
+			batch.forEach((sessionId, data) -> {
+				if (data == null)
+				{
+					pages.remove(sessionId);
+				}
+				else
+				{
+					pages.put(sessionId, data);
+				}
+			});
+		}
+
+		@Override
+		public byte[] read(String sessionId)
+		{
+			reads++;
+
+			return pages.get(sessionId);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.ajax.markup.html.form.AjaxButton;
+import org.apache.wicket.markup.IMarkupResourceStreamProvider;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.markup.html.form.Form;
+import org.apache.wicket.markup.html.form.TextField;
+import org.apache.wicket.mock.MockPageContext;
+import org.apache.wicket.mock.MockPageStore;
+import org.apache.wicket.model.Model;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link RequestPageStore#withChangeTracking()} with listener invocations.
+ */
+class RequestPageStoreChangeTrackingTest extends WicketTestCase
+{
+	/**
+	 * A page whose Ajax submit failed validation keeps its raw input and feedback messages, so it
+	 * has to be stored again.
+	 */
+	@Test
+	void ajaxSubmitFailingValidation()
+	{
+		FormPage page = tester.startPage(FormPage.class);
+
+		MockPageStore mockStore = new MockPageStore();
+		MockPageContext context = new MockPageContext();
+		mockStore.addPage(context, page);
+
+		RequestPageStore store = new RequestPageStore(mockStore).withChangeTracking();
+		assertSame(page, store.getPage(context, page.getPageId()));
+
+		tester.executeAjaxEvent("form:submit", "click");
+		assertTrue(page.get("form:text").hasErrorMessage());
+
+		store.addPage(context, page);
+		mockStore.getPages().clear();
+		store.detach(context);
+
+		assertEquals(1, mockStore.getPages().size());
+		assertSame(page, mockStore.getPages().get(0));
+	}
+
+	/**
+	 * Page with a form.
+	 */
+	public static class FormPage extends WebPage implements IMarkupResourceStreamProvider
+	{
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Constructor.
+		 */
+		public FormPage()
+		{
+			Form<Void> form = new Form<>("form");
+			add(form);
+
+			form.add(new TextField<>("text", Model.of("")).setRequired(true));
+			form.add(new AjaxButton("submit")
+			{
+				private static final long serialVersionUID = 1L;
+			});
+		}
+
+		@Override
+		public IResourceStream getMarkupResourceStream(MarkupContainer container,
+			Class<?> containerClass)
+		{
+			return new StringResourceStream("<html><body><form wicket:id=\"form\">" +
+				"<input type=\"text\" wicket:id=\"text\"/>" +
+				"<input type=\"submit\" wicket:id=\"submit\"/></form></body></html>");
+		}
+	}
+}
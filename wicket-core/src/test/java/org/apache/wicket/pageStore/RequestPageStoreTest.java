@@ -18,6 +18,7 @@ package org.apache.wicket.pageStore;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.apache.wicket.MockPage;
@@ -86,4 +87,34 @@ public class RequestPageStoreTest
 		
 		assertNull(store.getPage(context, 1), "no page in request store");
 	}
+
+	@Test
+	void testChangeTracking()
+	{
+		MockPageStore mockStore = new MockPageStore();
+		
+		MockPageContext context = new MockPageContext();
+
+		MockPage page1 = new MockPage(1);
+		MockPage page2 = new MockPage(2);
+		MockPage page3 = new MockPage(3);
+		mockStore.addPage(context, page1);
+		mockStore.addPage(context, page2);
+
+		RequestPageStore store = new RequestPageStore(mockStore).withChangeTracking();
+		
+		store.addPage(context, store.getPage(context, 1));
+		store.addPage(context, store.getPage(context, 2));
+		store.addPage(context, page3);
+		
+		page2.modified();
+		
+		mockStore.getPages().clear();
+		
+		store.detach(context);
+		
+		assertEquals(2, mockStore.getPages().size(), "unchanged page not delegated on detach");
+		assertSame(page2, mockStore.getPages().get(0));
+		assertSame(page3, mockStore.getPages().get(1));
+	}
 }
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.apache.wicket.mock.MockPageContext;
+import org.apache.wicket.util.lang.Bytes;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link SessionSizeBudget}.
+ */
+class SessionSizeBudgetTest extends WicketTestCase
+{
+	private static final String SESSION_ID = "1234567890";
+
+	@Test
+	void oldestPagesAreEvicted()
+	{
+		SessionSizeBudget budget = new SessionSizeBudget(Bytes.bytes(250)).install(tester.getApplication());
+
+		IPageStore store = new InSessionPageStore(Bytes.kilobytes(10));
+		IPageContext context = new MockPageContext(SESSION_ID);
+
+		store.addPage(context, new SerializedPage(1, new byte[100]));
+		store.addPage(context, new SerializedPage(2, new byte[100]));
+		assertEquals(200, budget.getSessionSize(SESSION_ID).bytes());
+
+		store.addPage(context, new SerializedPage(3, new byte[100]));
+		assertNull(store.getPage(context, 1));
+		assertNotNull(store.getPage(context, 2));
+		assertNotNull(store.getPage(context, 3));
+		assertEquals(200, budget.getSessionSize(SESSION_ID).bytes());
+		assertEquals(1, budget.getEvictedPages());
+	}
+
+	@Test
+	void attributesReduceAvailablePageBytes()
+	{
+		SessionSizeBudget budget = new SessionSizeBudget(Bytes.bytes(1000)).install(tester.getApplication());
+
+		budget.onAttributeSet(SESSION_ID, "attribute", new byte[600]);
+		long attributeSize = budget.getSessionSize(SESSION_ID).bytes();
+		assertTrue(attributeSize > 600);
+		assertEquals(1000 - attributeSize, budget.getAvailablePageBytes(SESSION_ID));
+
+		IPageStore store = new InSessionPageStore(Bytes.kilobytes(10));
+		IPageContext context = new MockPageContext(SESSION_ID);
+
+		store.addPage(context, new SerializedPage(1, new byte[200]));
+		store.addPage(context, new SerializedPage(2, new byte[200]));
+		assertNull(store.getPage(context, 1));
+		assertNotNull(store.getPage(context, 2));
+
+		budget.onAttributeRemoved(SESSION_ID, "attribute");
+		assertEquals(200, budget.getSessionSize(SESSION_ID).bytes());
+	}
+
+	@Test
+	void changedAttributeIsMeasuredSampled()
+	{
+		SessionSizeBudget budget = new SessionSizeBudget(Bytes.kilobytes(10)).install(tester.getApplication());
+
+		budget.onAttributeSet(SESSION_ID, "attribute", new byte[100]);
+		long small = budget.getSessionSize(SESSION_ID).bytes();
+
+		// not measured again within the interval
+		budget.onAttributeSet(SESSION_ID, "attribute", new byte[1000]);
+		assertEquals(small, budget.getSessionSize(SESSION_ID).bytes());
+
+		// statistics do not measure
+		budget.setMeasureInterval(Duration.ZERO);
+		assertEquals(small, budget.getSessionSize(SESSION_ID).bytes());
+
+		budget.getAvailablePageBytes(SESSION_ID);
+		assertEquals(small + 900, budget.getSessionSize(SESSION_ID).bytes());
+	}
+
+	@Test
+	void failedMeasureKeepsPreviousSize()
+	{
+		SessionSizeBudget budget = new SessionSizeBudget(Bytes.kilobytes(10)).install(tester.getApplication());
+		budget.setMeasureInterval(Duration.ZERO);
+
+		budget.onAttributeSet(SESSION_ID, "attribute", new byte[100]);
+		long size = budget.getSessionSize(SESSION_ID).bytes();
+
+		budget.onAttributeSet(SESSION_ID, "attribute", new Object[] { new Object() });
+		assertEquals(size, budget.getSessionSize(SESSION_ID).bytes());
+	}
+
+	@Test
+	void usageMovesWithSessionId()
+	{
+		SessionSizeBudget budget = new SessionSizeBudget(Bytes.kilobytes(10)).install(tester.getApplication());
+
+		budget.onAttributeSet(SESSION_ID, "attribute", new byte[100]);
+		budget.onPagesChanged(SESSION_ID, 200, 0);
+		long size = budget.getSessionSize(SESSION_ID).bytes();
+
+		budget.onSessionIdChanged(SESSION_ID, "new");
+		assertEquals(0, budget.getSessionSize(SESSION_ID).bytes());
+		assertEquals(size, budget.getSessionSize("new").bytes());
+		assertEquals(1, budget.getSessionCount());
+	}
+
+	@Test
+	void newestPageIsKept()
+	{
+		new SessionSizeBudget(Bytes.bytes(10)).install(tester.getApplication());
+
+		IPageStore store = new InSessionPageStore(Bytes.kilobytes(10));
+		IPageContext context = new MockPageContext(SESSION_ID);
+
+		store.addPage(context, new SerializedPage(1, new byte[100]));
+		assertNotNull(store.getPage(context, 1));
+	}
+
+	@Test
+	void pagesAreNotMeasuredWithAttributes()
+	{
+		SessionSizeBudget budget = new SessionSizeBudget(Bytes.kilobytes(10));
+
+		InSessionPageStore.SessionData data = new InSessionPageStore.SizeLimitedData(Bytes.kilobytes(10));
+		long empty = budget.measure(data);
+		data.add(new SerializedPage(1, new byte[1000]));
+
+		assertEquals(empty, budget.measure(data));
+	}
+
+	@Test
+	void distribution()
+	{
+		SessionSizeBudget budget = new SessionSizeBudget(Bytes.kilobytes(10)).install(tester.getApplication());
+
+		budget.onPagesChanged("a", 100, 0);
+		budget.onPagesChanged("b", 120, 0);
+		budget.onPagesChanged("c", 1000, 0);
+
+		long[] distribution = budget.getSizeDistribution();
+		assertEquals(2, distribution[6]);
+		assertEquals(1, distribution[9]);
+		assertEquals(3, budget.getSessionCount());
+		assertEquals(1220, budget.getTotalSize().bytes());
+		assertEquals(1000, budget.getMaxSessionSize().bytes());
+
+		budget.sessionUnbound("c");
+		assertEquals(2, budget.getSessionCount());
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.wicket.mock.MockApplication;
+import org.apache.wicket.util.tester.WicketTester;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ContextRelativeResource} served from the file system
+ */
+class ContextRelativeResourceTest
+{
+	private Path webappRoot;
+
+	private Path file;
+
+	private byte[] data;
+
+	private WicketTester tester;
+
+	@BeforeEach
+	void before() throws IOException
+	{
+		data = new byte[10000];
+		for (int i = 0; i < data.length; i++)
+		{
+			data[i] = (byte)i;
+		}
+		webappRoot = Files.createTempDirectory("wicket");
+		file = webappRoot.resolve("data.bin");
+		Files.write(file, data);
+
+		tester = new WicketTester(new MockApplication(), webappRoot.toString());
+	}
+
+	@AfterEach
+	void after() throws IOException
+	{
+		tester.destroy();
+
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(webappRoot);
+	}
+
+	@Test
+	void fileContent()
+	{
+		tester.startResource(new ContextRelativeResource("data.bin"));
+
+		assertArrayEquals(data, tester.getLastResponse().getBinaryContent());
+		assertEquals("bytes", tester.getLastResponse().getHeader("Accept-Range"));
+	}
+
+	@Test
+	void sendfileDisabledByDefault()
+	{
+		tester.getRequest().setAttribute(FileChannelPartWriterCallback.SENDFILE_SUPPORT_ATTRIBUTE,
+			Boolean.TRUE);
+
+		tester.startResource(new ContextRelativeResource("data.bin"));
+
+		assertNull(tester.getLastRequest()
+			.getAttribute(FileChannelPartWriterCallback.SENDFILE_FILENAME_ATTRIBUTE));
+		assertArrayEquals(data, tester.getLastResponse().getBinaryContent());
+	}
+
+	@Test
+	void sendfile()
+	{
+		tester.getRequest().setAttribute(FileChannelPartWriterCallback.SENDFILE_SUPPORT_ATTRIBUTE,
+			Boolean.TRUE);
+
+		ContextRelativeResource resource = new ContextRelativeResource("data.bin");
+		resource.setSendfileEnabled(true);
+		tester.startResource(resource);
+
+		assertEquals(file.toAbsolutePath().toString(), tester.getLastRequest()
+			.getAttribute(FileChannelPartWriterCallback.SENDFILE_FILENAME_ATTRIBUTE));
+		assertEquals(0L, tester.getLastRequest()
+			.getAttribute(FileChannelPartWriterCallback.SENDFILE_START_ATTRIBUTE));
+		assertEquals((long)data.length, tester.getLastRequest()
+			.getAttribute(FileChannelPartWriterCallback.SENDFILE_END_ATTRIBUTE));
+		assertEquals(0, tester.getLastResponse().getBinaryContent().length);
+	}
+}
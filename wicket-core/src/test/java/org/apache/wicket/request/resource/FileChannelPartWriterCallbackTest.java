@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.apache.wicket.mock.MockWebRequest;
+import org.apache.wicket.request.Url;
+import org.apache.wicket.request.resource.IResource.Attributes;
+import org.apache.wicket.response.ByteArrayResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link FileChannelPartWriterCallback}
+ */
+class FileChannelPartWriterCallbackTest
+{
+	private Path file;
+
+	private byte[] data;
+
+	@BeforeEach
+	void before() throws IOException
+	{
+		data = new byte[20000];
+		for (int i = 0; i < data.length; i++)
+		{
+			data[i] = (byte)i;
+		}
+		file = Files.createTempFile("wicket", "part");
+		Files.write(file, data);
+	}
+
+	@AfterEach
+	void after() throws IOException
+	{
+		Files.deleteIfExists(file);
+	}
+
+	private byte[] write(Long startbyte, Long endbyte) throws IOException
+	{
+		ByteArrayResponse response = new ByteArrayResponse();
+		Attributes attributes = new Attributes(new MockWebRequest(new Url()), response);
+		new FileChannelPartWriterCallback(file, data.length, startbyte, endbyte).writeData(
+			attributes);
+		return response.getBytes();
+	}
+
+	@Test
+	void wholeFile() throws IOException
+	{
+		assertArrayEquals(data, write(null, null));
+	}
+
+	@Test
+	void range() throws IOException
+	{
+		assertArrayEquals(Arrays.copyOfRange(data, 100, 5001), write(100L, 5000L));
+	}
+
+	@Test
+	void openEndedRange() throws IOException
+	{
+		assertArrayEquals(Arrays.copyOfRange(data, 15000, data.length), write(15000L, -1L));
+	}
+
+	@Test
+	void rangeBeyondEnd() throws IOException
+	{
+		assertArrayEquals(Arrays.copyOfRange(data, 19990, data.length), write(19990L, 50000L));
+	}
+
+	@Test
+	void startBeyondEnd() throws IOException
+	{
+		assertEquals(0, write(30000L, null).length);
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+
+import org.apache.wicket.request.resource.caching.version.ManifestResourceVersion;
+import org.apache.wicket.request.resource.caching.version.MessageDigestResourceVersion;
+import org.apache.wicket.request.resource.caching.version.ResourceVersionManifest;
+import org.apache.wicket.request.resource.caching.version.StaticResourceVersion;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ResourceVersionManifest} and {@link ManifestResourceVersion}
+ */
+class ManifestResourceVersionTest
+{
+	private static final String TEST_RESOURCE_VERSION = "9A0364B9E99BB480DD25E1F0284C8555";
+
+	@Test
+	void writeAndRead() throws IOException
+	{
+		ResourceVersionManifest manifest = new ResourceVersionManifest();
+		assertTrue(manifest.add(new TestResource(), new MessageDigestResourceVersion()));
+		manifest.put("some key=with:special chars", "1");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		manifest.write(out);
+
+		ResourceVersionManifest read = ResourceVersionManifest.read(
+			new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(manifest.getVersions(), read.getVersions());
+		assertEquals(TEST_RESOURCE_VERSION, read.getVersion(new TestResource()));
+	}
+
+	@Test
+	void delegateForMissingResources()
+	{
+		ResourceVersionManifest manifest = new ResourceVersionManifest();
+		manifest.put("key", "from-manifest");
+
+		ManifestResourceVersion resourceVersion = new ManifestResourceVersion(manifest,
+			new StaticResourceVersion("from-delegate"));
+
+		assertEquals("from-manifest", resourceVersion.getVersion(new TestResource()));
+		assertEquals("from-delegate", resourceVersion.getVersion(new TestResource()
+		{
+			@Override
+			public Serializable getCacheKey()
+			{
+				return "other";
+			}
+		}));
+	}
+
+	@Test
+	void resourceWithoutCacheKey()
+	{
+		ResourceVersionManifest manifest = new ResourceVersionManifest();
+		assertNull(manifest.getVersion(new TestResource()
+		{
+			@Override
+			public Serializable getCacheKey()
+			{
+				return null;
+			}
+		}));
+	}
+}
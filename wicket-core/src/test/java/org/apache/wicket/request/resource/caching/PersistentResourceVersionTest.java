@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.apache.wicket.request.resource.caching.version.IResourceVersion;
+import org.apache.wicket.request.resource.caching.version.PersistentResourceVersion;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link PersistentResourceVersion}
+ */
+class PersistentResourceVersionTest
+{
+	private Path file;
+
+	private final AtomicInteger computations = new AtomicInteger();
+
+	private final IResourceVersion counting = new IResourceVersion()
+	{
+		@Override
+		public String getVersion(IStaticCacheableResource resource)
+		{
+			return "v" + computations.incrementAndGet();
+		}
+
+		@Override
+		public Pattern getVersionPattern()
+		{
+			return null;
+		}
+	};
+
+	@BeforeEach
+	void before() throws IOException
+	{
+		file = Files.createTempFile("wicket", "versions");
+		Files.delete(file);
+	}
+
+	@AfterEach
+	void after() throws IOException
+	{
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	void survivesRestart()
+	{
+		PersistentResourceVersion resourceVersion = new PersistentResourceVersion(counting, file);
+		assertEquals("v1", resourceVersion.getVersion(new ModifiedResource(1000)));
+		assertEquals("v1", resourceVersion.getVersion(new ModifiedResource(1000)));
+		assertEquals(1, resourceVersion.getHits());
+		assertEquals(1, resourceVersion.getMisses());
+
+		PersistentResourceVersion restarted = new PersistentResourceVersion(counting, file);
+		assertEquals("v1", restarted.getVersion(new ModifiedResource(1000)));
+		assertEquals(1, computations.get());
+		assertEquals(0, restarted.getMisses());
+	}
+
+	@Test
+	void recomputedWhenModified() throws IOException
+	{
+		PersistentResourceVersion resourceVersion = new PersistentResourceVersion(counting, file);
+		assertEquals("v1", resourceVersion.getVersion(new ModifiedResource(1000)));
+		assertEquals("v2", resourceVersion.getVersion(new ModifiedResource(2000)));
+
+		// the latest appended entry wins
+		PersistentResourceVersion restarted = new PersistentResourceVersion(counting, file);
+		assertEquals("v2", restarted.getVersion(new ModifiedResource(2000)));
+
+		restarted.compact();
+		assertEquals(1, Files.readAllLines(file).size());
+		assertEquals("v2", new PersistentResourceVersion(counting, file).getVersion(
+			new ModifiedResource(2000)));
+		assertEquals(2, computations.get());
+	}
+
+	@Test
+	void compactMergesEntriesOfOtherNodes() throws IOException
+	{
+		PersistentResourceVersion node1 = new PersistentResourceVersion(counting, file);
+		PersistentResourceVersion node2 = new PersistentResourceVersion(counting, file);
+		assertEquals("v1", node1.getVersion(new ModifiedResource(1000)));
+		assertEquals("v2", node2.getVersion(new ModifiedResource(2000)));
+
+		// node1 does not know the later entry appended by node2
+		node1.compact();
+		assertEquals(1, Files.readAllLines(file).size());
+		assertEquals("v2", new PersistentResourceVersion(counting, file).getVersion(
+			new ModifiedResource(2000)));
+		assertEquals(2, computations.get());
+	}
+
+	@Test
+	void seed() throws IOException
+	{
+		PersistentResourceVersion resourceVersion = new PersistentResourceVersion(counting, file);
+		resourceVersion.getVersion(new ModifiedResource(1000));
+
+		Path other = Files.createTempFile("wicket", "versions");
+		try
+		{
+			PersistentResourceVersion seeded = new PersistentResourceVersion(counting, other);
+			seeded.seed(file.toUri().toURL());
+			assertEquals("v1", seeded.getVersion(new ModifiedResource(1000)));
+			assertEquals(1, computations.get());
+		}
+		finally
+		{
+			Files.deleteIfExists(other);
+		}
+	}
+
+	private static class ModifiedResource extends TestResource
+	{
+		private final long lastModified;
+
+		private ModifiedResource(long lastModified)
+		{
+			this.lastModified = lastModified;
+		}
+
+		@Override
+		public IResourceStream getResourceStream()
+		{
+			StringResourceStream stream = new StringResourceStream("content");
+			stream.setLastModified(Instant.ofEpochMilli(lastModified));
+			return stream;
+		}
+	}
+}
@@ -119,4 +119,28 @@ public class ComponentStringResourceLoaderTest extends StringResourceLoaderTestB
 			"another.test.string", Locale.getDefault(), null, null),
 			"Valid resource string should be found");
 	}
+
+	/**
+	 * Compiled bundles resolve like the uncompiled ones.
+	 */
+	@Test
+	void compiledBundles()
+	{
+		DummySubClassPage p = new DummySubClassPage();
+		ComponentStringResourceLoader loader = new ComponentStringResourceLoader()
+			.withCompiledBundles();
+		assertEquals("SubClass Test String", loader.loadStringResource(p.getClass(),
+			"subclass.test.string", Locale.getDefault(), null, null),
+			"Valid resource string should be found");
+		assertEquals("Another string", loader.loadStringResource(p.getClass(),
+			"another.test.string", Locale.getDefault(), null, null),
+			"Valid resource string should be found");
+		assertNull(loader.loadStringResource(p.getClass(), "test.string.bad", Locale.getDefault(),
+			null, null), "Missing resource should return null");
+
+		loader.clearCompiledBundles();
+		assertEquals("Another string", loader.loadStringResource(p.getClass(),
+			"another.test.string", Locale.getDefault(), null, null),
+			"Valid resource string should be found");
+	}
 }
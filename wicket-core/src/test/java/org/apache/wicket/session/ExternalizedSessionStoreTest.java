@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionBindingListener;
+
+import org.apache.wicket.Session;
+import org.apache.wicket.mock.MockApplication;
+import org.apache.wicket.protocol.http.WebApplication;
+import org.apache.wicket.request.Request;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ExternalizedSessionStore}.
+ */
+class ExternalizedSessionStoreTest extends WicketTestCase
+{
+	private final InMemorySessionBackend backend = new InMemorySessionBackend();
+
+	private ExternalizedSessionStore store;
+
+	private Request request;
+
+	@Override
+	protected WebApplication newApplication()
+	{
+		return new MockApplication()
+		{
+			@Override
+			protected void init()
+			{
+				super.init();
+
+				setSessionStoreProvider(() -> new ExternalizedSessionStore(backend, true, 10));
+			}
+		};
+	}
+
+	@BeforeEach
+	void before()
+	{
+		store = (ExternalizedSessionStore)tester.getApplication().getSessionStore();
+		request = tester.getRequestCycle().getRequest();
+
+		tester.getSession().bind();
+	}
+
+	@Test
+	void sessionIsKeptInBackend()
+	{
+		String key = store.getBackendKey(request, false);
+
+		assertNotNull(backend.get(key,
+			store.getSessionAttributePrefix(request) + Session.SESSION_ATTRIBUTE_NAME));
+
+		Enumeration<String> names = tester.getHttpSession().getAttributeNames();
+		while (names.hasMoreElements())
+		{
+			Object value = tester.getHttpSession().getAttribute(names.nextElement());
+			assertFalse(value instanceof Session);
+		}
+	}
+
+	@Test
+	void unchangedAttributeIsNotWritten()
+	{
+		store.setSkipUnchangedWrites(true);
+
+		store.setAttribute(request, "attribute", "value");
+		long writes = store.getRemoteWrites();
+		long skipped = store.getSkippedWrites();
+
+		store.setAttribute(request, "attribute", "value");
+		assertEquals(writes, store.getRemoteWrites());
+		assertEquals(skipped + 1, store.getSkippedWrites());
+
+		store.setAttribute(request, "attribute", "other");
+		assertEquals(writes + 1, store.getRemoteWrites());
+	}
+
+	@Test
+	void unchangedAttributeIsWrittenByDefault()
+	{
+		store.setAttribute(request, "attribute", "value");
+		long writes = store.getRemoteWrites();
+
+		store.setAttribute(request, "attribute", "value");
+		assertEquals(writes + 1, store.getRemoteWrites());
+		assertEquals(0, store.getSkippedWrites());
+	}
+
+	@Test
+	void attributesSurviveSessionIdChange()
+	{
+		store.setAttribute(request, "attribute", "value");
+		String oldId = store.getSessionId(request, false);
+
+		// the container keeps the attributes when changing the session id
+		HttpSession httpSession = tester.getHttpSession();
+		Map<String, Object> attributes = new HashMap<>();
+		Enumeration<String> names = httpSession.getAttributeNames();
+		while (names.hasMoreElements())
+		{
+			String name = names.nextElement();
+			attributes.put(name, httpSession.getAttribute(name));
+		}
+		httpSession.invalidate();
+		attributes.forEach(httpSession::setAttribute);
+
+		assertNotEquals(oldId, store.getSessionId(request, false));
+		assertEquals("value", store.getAttribute(request, "attribute"));
+		assertTrue(store.getAttributeNames(request).contains("attribute"));
+	}
+
+	@Test
+	void stickyReadsFromNearCache()
+	{
+		store.setAttribute(request, "attribute", "value");
+		long reads = store.getRemoteReads();
+
+		assertEquals("value", store.getAttribute(request, "attribute"));
+		assertEquals(reads, store.getRemoteReads());
+	}
+
+	@Test
+	void failover()
+	{
+		store.setAttribute(request, "attribute", "value");
+
+		ExternalizedSessionStore otherNode = new ExternalizedSessionStore(backend, true, 10);
+
+		assertEquals("value", otherNode.getAttribute(request, "attribute"));
+		assertEquals(1, otherNode.getRemoteReads());
+		assertTrue(otherNode.getAttributeNames(request).contains("attribute"));
+	}
+
+	@Test
+	void nonStickyDetectsChanges()
+	{
+		store.setAttribute(request, "attribute", "value");
+
+		ExternalizedSessionStore otherNode = new ExternalizedSessionStore(backend, false, 10);
+
+		Object first = otherNode.getAttribute(request, "attribute");
+		assertEquals("value", first);
+		assertSame(first, otherNode.getAttribute(request, "attribute"));
+		assertEquals(2, otherNode.getRemoteReads());
+
+		store.setAttribute(request, "attribute", "other");
+		assertEquals("other", otherNode.getAttribute(request, "attribute"));
+
+		store.removeAttribute(request, "attribute");
+		assertNull(otherNode.getAttribute(request, "attribute"));
+	}
+
+	@Test
+	void unbindRemovesFromBackend()
+	{
+		store.setAttribute(request, "attribute", "value");
+		String key = store.getBackendKey(request, false);
+
+		HttpSession httpSession = tester.getHttpSession();
+		String name = "Wicket:ExternalizedSessionKey-" + tester.getApplication().getName();
+		HttpSessionBindingListener listener = (HttpSessionBindingListener)httpSession
+			.getAttribute(name);
+		listener.valueUnbound(new HttpSessionBindingEvent(httpSession, name));
+
+		assertTrue(backend.getNames(key).isEmpty());
+	}
+}
@@ -24,6 +24,7 @@ import java.util.Objects;
 import org.apache.wicket.Application;
 import org.apache.wicket.Component;
 import org.apache.wicket.ajax.AbstractDefaultAjaxBehavior;
+import org.apache.wicket.ajax.AjaxChannel;
 import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.ajax.attributes.AjaxRequestAttributes;
 import org.apache.wicket.markup.head.HeaderItem;
@@ -116,6 +117,8 @@ public abstract class AbstractAutoCompleteBehavior extends AbstractDefaultAjaxBe
 
 	protected AutoCompleteSettings settings;
 
+	private ResourceReference choicesResource;
+
 	/**
 	 * Constructor that creates an default {@link AutoCompleteSettings}
 	 */
@@ -221,5 +224,59 @@ public abstract class AbstractAutoCompleteBehavior extends AbstractDefaultAjaxBe
 
         attributes.setWicketAjaxResponse(false);
         attributes.setDataType("html");
+
+		if (settings.getDropSupersededRequests())
+		{
+			attributes.setChannel(new AjaxChannel(getComponent().getMarkupId(),
+				AjaxChannel.Type.DROP));
+		}
     }
+
+	/**
+	 * Sets a resource answering the requests for choices instead of this behavior. Since such a
+	 * resource does not have to load the page, its choices must not depend on the state of the
+	 * page.
+	 * 
+	 * @param choicesResource
+	 *            the resource, or {@code null} to answer the requests by this behavior
+	 * @return this behavior
+	 * 
+	 * @see AutoCompleteChoicesResource
+	 */
+	public AbstractAutoCompleteBehavior setChoicesResource(ResourceReference choicesResource)
+	{
+		this.choicesResource = choicesResource;
+		return this;
+	}
+
+	/**
+	 * @return the resource answering the requests for choices, or {@code null}
+	 */
+	public ResourceReference getChoicesResource()
+	{
+		return choicesResource;
+	}
+
+	/**
+	 * Overridden to point to the {@link #getChoicesResource() choices resource}, if set.
+	 */
+	@Override
+	public CharSequence getCallbackUrl()
+	{
+		if (choicesResource != null)
+		{
+			return RequestCycle.get().urlFor(choicesResource, null);
+		}
+		return super.getCallbackUrl();
+	}
+
+	/**
+	 * Overridden to be stateless if the requests are answered by a
+	 * {@link #getChoicesResource() choices resource}.
+	 */
+	@Override
+	public boolean getStatelessHint(Component component)
+	{
+		return choicesResource != null || super.getStatelessHint(component);
+	}
 }
@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.extensions.ajax.markup.html.autocomplete;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A cache of autocomplete choices, meant to be shared by all autocomplete fields of the same kind
+ * in an application, e.g. held in a static field or in the application:
+ * 
+ * <pre>
+ * protected Iterator&lt;String&gt; getChoices(String input)
+ * {
+ * 	return cache.getChoices(input, i -&gt; countryDao.findByPrefix(i, 10)).iterator();
+ * }
+ * </pre>
+ * 
+ * Inputs are indexed by their prefixes: if the choices for a shorter input were loaded completely,
+ * i.e. less than the maximum number of choices were found, the choices for a longer input are
+ * filtered from them with {@link #matches(Object, String)} instead of being loaded again. Thus a
+ * user typing a word usually hits the loader for the first few characters only.
+ * 
+ * @param <T>
+ *            type of choices
+ */
+public class AutoCompleteChoiceCache<T>
+{
+	private final int maxEntries;
+
+	private final Duration timeToLive;
+
+	private final int maxChoices;
+
+	/**
+	 * the cached choices by input, in access order, guarded by itself
+	 */
+	private final Map<String, Entry<T>> entries;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong prefixHits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxEntries
+	 *            maximum number of cached inputs
+	 * @param timeToLive
+	 *            how long the choices for an input are cached
+	 * @param maxChoices
+	 *            the maximum number of choices the loader returns
+	 */
+	public AutoCompleteChoiceCache(final int maxEntries, final Duration timeToLive,
+		final int maxChoices)
+	{
+		this.maxEntries = Args.withinRange(1, Integer.MAX_VALUE, maxEntries, "maxEntries");
+		this.timeToLive = Args.notNull(timeToLive, "timeToLive");
+		this.maxChoices = Args.withinRange(1, Integer.MAX_VALUE, maxChoices, "maxChoices");
+
+		entries = new LinkedHashMap<String, Entry<T>>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest)
+			{
+				return size() > AutoCompleteChoiceCache.this.maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Get the choices for the given input, either cached, filtered from the cached choices of a
+	 * prefix of the input, or loaded.
+	 * 
+	 * @param input
+	 *            current input
+	 * @param loader
+	 *            loader of the choices for an input, returning at most {@code maxChoices} choices
+	 * @return choices
+	 */
+	public List<T> getChoices(String input, Function<String, List<T>> loader)
+	{
+		Args.notNull(loader, "loader");
+
+		String key = normalize(input);
+		long now = currentTimeMillis();
+
+		Entry<T> prefixEntry = null;
+		synchronized (entries)
+		{
+			Entry<T> entry = entries.get(key);
+			if (entry != null && entry.isValid(now))
+			{
+				hits.incrementAndGet();
+				return entry.choices;
+			}
+
+			for (int length = key.length() - 1; length >= 0; length--)
+			{
+				Entry<T> candidate = entries.get(key.substring(0, length));
+				if (candidate != null && candidate.isValid(now) && candidate.isComplete())
+				{
+					prefixEntry = candidate;
+					break;
+				}
+			}
+		}
+
+		Entry<T> entry;
+		if (prefixEntry != null)
+		{
+			prefixHits.incrementAndGet();
+
+			List<T> choices = new ArrayList<>();
+			for (T choice : prefixEntry.choices)
+			{
+				if (matches(choice, input))
+				{
+					choices.add(choice);
+				}
+			}
+
+			// a subset of complete choices is complete too, but no fresher than them
+			entry = new Entry<>(Collections.unmodifiableList(choices), true, prefixEntry.expires);
+		}
+		else
+		{
+			misses.incrementAndGet();
+
+			List<T> choices = new ArrayList<>(loader.apply(input));
+
+			// the loader might have truncated the choices if it returned the maximum number
+			entry = new Entry<>(Collections.unmodifiableList(choices),
+				choices.size() < maxChoices, now + timeToLive.toMillis());
+		}
+
+		synchronized (entries)
+		{
+			entries.put(key, entry);
+		}
+		return entry.choices;
+	}
+
+	/**
+	 * @return the current time in milliseconds, used to expire the cached choices
+	 */
+	protected long currentTimeMillis()
+	{
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * Normalizes an input to its key in the cache, by default lower case.
+	 * 
+	 * @param input
+	 *            the input, might be {@code null}
+	 * @return key of the input
+	 */
+	protected String normalize(String input)
+	{
+		return input == null ? "" : input.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Does the given choice match the input. Has to be consistent with the loader, i.e. a choice
+	 * loaded for an input has to match the input. By default the choice's string representation
+	 * has to start with the input, ignoring case.
+	 * 
+	 * @param choice
+	 *            the choice
+	 * @param input
+	 *            the input
+	 * @return {@code true} if the choice matches the input
+	 */
+	protected boolean matches(T choice, String input)
+	{
+		return normalize(String.valueOf(choice)).startsWith(normalize(input));
+	}
+
+	/**
+	 * Removes all cached choices.
+	 */
+	public void clear()
+	{
+		synchronized (entries)
+		{
+			entries.clear();
+		}
+	}
+
+	/**
+	 * @return the number of cached inputs
+	 */
+	public int size()
+	{
+		synchronized (entries)
+		{
+			return entries.size();
+		}
+	}
+
+	/**
+	 * @return the number of inputs served from the cache
+	 */
+	public long getHits()
+	{
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of inputs served by filtering the cached choices of a prefix
+	 */
+	public long getPrefixHits()
+	{
+		return prefixHits.get();
+	}
+
+	/**
+	 * @return the number of inputs passed to the loader
+	 */
+	public long getMisses()
+	{
+		return misses.get();
+	}
+
+	/**
+	 * The cached choices for an input
+	 */
+	private static class Entry<T>
+	{
+		private final List<T> choices;
+
+		private final boolean complete;
+
+		private final long expires;
+
+		private Entry(List<T> choices, boolean complete, long expires)
+		{
+			this.choices = choices;
+			this.complete = complete;
+			this.expires = expires;
+		}
+
+		private boolean isValid(long now)
+		{
+			return now < expires;
+		}
+
+		/**
+		 * @return whether all choices matching the input are contained
+		 */
+		private boolean isComplete()
+		{
+			return complete;
+		}
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.extensions.ajax.markup.html.autocomplete;
+
+import java.util.Iterator;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.request.Response;
+import org.apache.wicket.request.resource.AbstractResource;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A resource answering the requests of an autocomplete without loading its page, e.g. with the
+ * choices of an application scoped {@link AutoCompleteChoiceCache}. Register it as a shared
+ * resource and point the autocomplete to it:
+ * 
+ * <pre>
+ * autoCompleteBehavior.setChoicesResource(new SharedResourceReference(&quot;countries&quot;));
+ * </pre>
+ * 
+ * @param <T>
+ *            type of choices
+ * 
+ * @see AbstractAutoCompleteBehavior#setChoicesResource(org.apache.wicket.request.resource.ResourceReference)
+ */
+public abstract class AutoCompleteChoicesResource<T> extends AbstractResource
+{
+	private static final long serialVersionUID = 1L;
+
+	private final IAutoCompleteRenderer<T> renderer;
+
+	private final String parameterName;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param renderer
+	 *            renderer that will be used to generate output
+	 * @param parameterName
+	 *            the name of the request parameter with the user input
+	 * 
+	 * @see AutoCompleteSettings#getParameterName()
+	 */
+	public AutoCompleteChoicesResource(final IAutoCompleteRenderer<T> renderer,
+		final String parameterName)
+	{
+		this.renderer = Args.notNull(renderer, "renderer");
+		this.parameterName = Args.notEmpty(parameterName, "parameterName");
+	}
+
+	@Override
+	protected ResourceResponse newResourceResponse(final Attributes attributes)
+	{
+		final String input = attributes.getRequest()
+			.getRequestParameters()
+			.getParameterValue(parameterName)
+			.toOptionalString();
+
+		final String encoding = Application.get()
+			.getRequestCycleSettings()
+			.getResponseRequestEncoding();
+
+		final ResourceResponse response = new ResourceResponse();
+		response.setContentType("text/xml; charset=" + encoding);
+		response.disableCaching();
+		response.setWriteCallback(new WriteCallback()
+		{
+			@Override
+			public void writeData(final Attributes attributes)
+			{
+				Response r = attributes.getResponse();
+				try
+				{
+					Iterator<T> comps = getChoices(input);
+					int count = 0;
+					renderer.renderHeader(r);
+					while (comps.hasNext())
+					{
+						final T comp = comps.next();
+						renderer.render(comp, r, input);
+						count += 1;
+					}
+					renderer.renderFooter(r, count);
+				}
+				finally
+				{
+					renderer.detach();
+				}
+			}
+		});
+
+		return response;
+	}
+
+	/**
+	 * Callback method that should return an iterator over all possible choice objects. These
+	 * objects will be passed to the renderer to generate output.
+	 * 
+	 * @param input
+	 *            current input
+	 * @return iterator over all possible choice objects
+	 */
+	protected abstract Iterator<T> getChoices(String input);
+}
@@ -73,6 +73,8 @@ public final class AutoCompleteSettings implements IClusterable
 
 	private int minInputLength = 1;
 
+	private boolean dropSupersededRequests = false;
+
 	/**
 	 * Indicates whether the first item in the list is automatically selected when the autocomplete
 	 * list is shown.
@@ -380,4 +382,28 @@ public final class AutoCompleteSettings implements IClusterable
 		this.minInputLength = minInputLength;
 		return this;
 	}
+
+	/**
+	 * @return whether a pending request is dropped when the user types further
+	 */
+	public boolean getDropSupersededRequests()
+	{
+		return dropSupersededRequests;
+	}
+
+	/**
+	 * Sets whether a pending request is dropped when the user types further, by sending the
+	 * requests through a {@link org.apache.wicket.ajax.AjaxChannel.Type#DROP dropping channel}.
+	 * Otherwise the requests are queued and the server has to answer each of them, although only
+	 * the latest answer is shown.
+	 *
+	 * @param dropSupersededRequests
+	 *            the flag
+	 * @return this {@link AutoCompleteSettings}
+	 */
+	public AutoCompleteSettings setDropSupersededRequests(boolean dropSupersededRequests)
+	{
+		this.dropSupersededRequests = dropSupersededRequests;
+		return this;
+	}
 }
@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.extensions.markup.html.repeater.data.table;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.behavior.AbstractAjaxBehavior;
+import org.apache.wicket.extensions.markup.html.repeater.data.table.export.IExportableColumn;
+import org.apache.wicket.markup.ComponentTag;
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.request.IRequestParameters;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.handler.TextRequestHandler;
+import org.apache.wicket.util.convert.IConverter;
+import org.apache.wicket.util.string.Strings;
+
+import com.github.openjson.JSONArray;
+import com.github.openjson.JSONObject;
+
+/**
+ * A {@link DataTable} for virtual scrolling through a large number of rows: Only a small window of
+ * rows is rendered with components, further rows are fetched by the client with a lightweight
+ * callback, which returns the cell values of a slice of rows as JSON - without creating any
+ * components or rendering the page.
+ * <p>
+ * The callback url, the total number of rows and the size of the window are rendered as
+ * attributes {@value #ATTRIBUTE_URL}, {@value #ATTRIBUTE_SIZE} and {@value #ATTRIBUTE_WINDOW} on
+ * the table element. The callback expects the parameters {@value #PARAM_FIRST} and
+ * {@value #PARAM_COUNT} and responds with:
+ * 
+ * <pre>
+ * {"first": 100, "size": 100000, "rows": [["cell", "cell", ...], ...]}
+ * </pre>
+ * 
+ * Cell values are taken from columns implementing {@link IExportableColumn}, all other columns
+ * are answered with {@code null}. Sorting and filtering of the data provider apply to the fetched
+ * rows too.
+ * <p>
+ * Like a {@link org.apache.wicket.markup.html.basic.Label Label}, cell values are converted with
+ * the converter of this table and escaped as markup, unless
+ * {@link #setEscapeModelStrings(boolean)} is set to {@code false}. <strong>In that case the client
+ * has to escape the values itself before inserting them into the document.</strong>
+ * 
+ * @param <T>
+ *            The model object type
+ * @param <S>
+ *            the type of the sorting parameter
+ */
+public class VirtualDataTable<T, S> extends DataTable<T, S>
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Attribute for the url of the rows callback.
+	 */
+	public static final String ATTRIBUTE_URL = "data-wicket-rows-url";
+
+	/**
+	 * Attribute for the total number of rows.
+	 */
+	public static final String ATTRIBUTE_SIZE = "data-wicket-rows-size";
+
+	/**
+	 * Attribute for the number of rows rendered with components.
+	 */
+	public static final String ATTRIBUTE_WINDOW = "data-wicket-rows-window";
+
+	/**
+	 * Parameter for the index of the first fetched row.
+	 */
+	public static final String PARAM_FIRST = "first";
+
+	/**
+	 * Parameter for the number of fetched rows.
+	 */
+	public static final String PARAM_COUNT = "count";
+
+	private final RowsBehavior rowsBehavior;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param id
+	 *            component id
+	 * @param columns
+	 *            list of columns
+	 * @param dataProvider
+	 *            data provider
+	 * @param windowSize
+	 *            number of rows rendered with components
+	 */
+	public VirtualDataTable(final String id, final List<? extends IColumn<T, S>> columns,
+		final ISortableDataProvider<T, S> dataProvider, final long windowSize)
+	{
+		super(id, columns, dataProvider, windowSize);
+
+		setOutputMarkupId(true);
+
+		rowsBehavior = new RowsBehavior();
+		add(rowsBehavior);
+	}
+
+	@Override
+	protected void onComponentTag(final ComponentTag tag)
+	{
+		super.onComponentTag(tag);
+
+		tag.put(ATTRIBUTE_URL, rowsBehavior.getCallbackUrl());
+		tag.put(ATTRIBUTE_SIZE, getRowCount());
+		tag.put(ATTRIBUTE_WINDOW, getItemsPerPage());
+	}
+
+	/**
+	 * The maximum number of rows fetched with a single callback, defaults to ten times the size
+	 * of the window.
+	 * 
+	 * @return maximum rows
+	 */
+	protected long getMaxFetchedRows()
+	{
+		return getItemsPerPage() * 10;
+	}
+
+	/**
+	 * Creates the JSON for a slice of rows.
+	 * 
+	 * @param first
+	 *            index of the first row
+	 * @param count
+	 *            number of rows
+	 * @return JSON
+	 */
+	@SuppressWarnings("unchecked")
+	protected String fetchRows(long first, long count)
+	{
+		IDataProvider<T> dataProvider = getDataProvider();
+		List<? extends IColumn<T, S>> columns = getColumns();
+
+		long size = dataProvider.size();
+		first = Math.max(0, Math.min(first, size));
+		count = Math.max(0, Math.min(Math.min(count, getMaxFetchedRows()), size - first));
+
+		JSONArray rows = new JSONArray();
+		if (count > 0)
+		{
+			Iterator<? extends T> iterator = dataProvider.iterator(first, count);
+			while (iterator.hasNext())
+			{
+				IModel<T> rowModel = dataProvider.model(iterator.next());
+
+				JSONArray cells = new JSONArray();
+				for (IColumn<T, S> column : columns)
+				{
+					cells.put(column instanceof IExportableColumn
+						? convertToString(((IExportableColumn<T, ?>)column).getDataModel(rowModel))
+						: JSONObject.NULL);
+				}
+				rows.put(cells);
+
+				rowModel.detach();
+			}
+		}
+
+		JSONObject json = new JSONObject();
+		json.put("first", first);
+		json.put("size", size);
+		json.put("rows", rows);
+		return json.toString();
+	}
+
+	/**
+	 * Converts the value of a cell to a string, escaped as markup if
+	 * {@link #getEscapeModelStrings()} is {@code true}.
+	 * 
+	 * @param dataModel
+	 *            model of the cell
+	 * @return string or {@link JSONObject#NULL}
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected Object convertToString(IModel<?> dataModel)
+	{
+		Object value = dataModel.getObject();
+		dataModel.detach();
+
+		if (value == null)
+		{
+			return JSONObject.NULL;
+		}
+
+		IConverter converter = getConverter(value.getClass());
+		String string = converter == null ? value.toString()
+			: converter.convertToString(value, getLocale());
+		if (string == null)
+		{
+			return JSONObject.NULL;
+		}
+
+		if (getEscapeModelStrings())
+		{
+			return Strings.escapeMarkup(string).toString();
+		}
+		return string;
+	}
+
+	/**
+	 * The callback for fetching rows.
+	 */
+	private class RowsBehavior extends AbstractAjaxBehavior
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void onRequest()
+		{
+			IRequestParameters parameters = getRequest().getRequestParameters();
+			long first = parameters.getParameterValue(PARAM_FIRST).toLong(0);
+			long count = parameters.getParameterValue(PARAM_COUNT).toLong(getItemsPerPage());
+
+			String json = fetchRows(first, count);
+
+			RequestCycle.get().scheduleRequestHandlerAfterCurrent(
+				new TextRequestHandler("application/json", "UTF-8", json));
+		}
+
+		@Override
+		public boolean rendersPage()
+		{
+			return false;
+		}
+	}
+}
@@ -16,7 +16,13 @@
  */
 package org.apache.wicket.extensions.markup.html.repeater.data.table.export;
 
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.apache.wicket.markup.repeater.data.IDataProvider;
 import org.apache.wicket.model.IModel;
+import org.apache.wicket.util.lang.Args;
 
 /**
  * An abstract helper implementation of {@link IDataExporter}.
@@ -31,6 +37,8 @@ public abstract class AbstractDataExporter implements IDataExporter
 
 	private String fileNameExtension;
 
+	private long chunkSize = 0;
+
 	/**
 	 * Creates a new instance with the data format name model, content type and file name extensions provided.
 	 *
@@ -113,4 +121,91 @@ public abstract class AbstractDataExporter implements IDataExporter
 		this.fileNameExtension = fileNameExtension;
 		return this;
 	}
+
+	/**
+	 * Returns the number of rows fetched from the data provider at once.
+	 *
+	 * @return the number of rows fetched at once, {@code 0} if all rows are fetched at once.
+	 */
+	public long getChunkSize()
+	{
+		return chunkSize;
+	}
+
+	/**
+	 * Sets the number of rows fetched from the data provider at once. When set, rows are fetched in chunks, the
+	 * data provider is detached and the output is flushed after each chunk, so large exports are streamed
+	 * to the client without holding all rows in memory. This defaults to {@code 0}, fetching all rows at once.
+	 *
+	 * @param chunkSize
+	 *      the number of rows fetched at once, {@code 0} to fetch all rows at once.
+	 * @return {@code this}, for chaining.
+	 */
+	public AbstractDataExporter setChunkSize(long chunkSize)
+	{
+		this.chunkSize = Args.withinRange(0L, Long.MAX_VALUE, chunkSize, "chunkSize");
+		return this;
+	}
+
+	/**
+	 * Exports all rows of the data provider, in chunks of {@link #getChunkSize()} rows. The model of each row is
+	 * detached after it was exported.
+	 *
+	 * @param <T>
+	 *      The type of each row of data provided by the {@link IDataProvider}.
+	 * @param dataProvider
+	 *      The {@link IDataProvider} from which to retrieve the data.
+	 * @param rowExporter
+	 *      The exporter of a single row.
+	 * @param output
+	 *      The output to flush after each chunk.
+	 * @throws IOException If an error occurs.
+	 */
+	protected <T> void exportRows(IDataProvider<T> dataProvider, IRowExporter<T> rowExporter, Flushable output)
+		throws IOException
+	{
+		long numberOfRows = dataProvider.size();
+		long rowsPerChunk = chunkSize > 0 ? chunkSize : numberOfRows;
+
+		for (long first = 0; first < numberOfRows; first += rowsPerChunk)
+		{
+			long count = Math.min(rowsPerChunk, numberOfRows - first);
+
+			Iterator<? extends T> rowIterator = dataProvider.iterator(first, count);
+			while (rowIterator.hasNext())
+			{
+				IModel<T> rowModel = dataProvider.model(rowIterator.next());
+
+				rowExporter.exportRow(rowModel);
+
+				rowModel.detach();
+			}
+
+			if (first + count < numberOfRows)
+			{
+				output.flush();
+
+				dataProvider.detach();
+			}
+		}
+	}
+
+	/**
+	 * Exports a single row.
+	 *
+	 * @param <T>
+	 *      The type of the row.
+	 */
+	@FunctionalInterface
+	protected interface IRowExporter<T>
+	{
+		/**
+		 * Exports a row.
+		 *
+		 * @param rowModel
+		 *      The model of the row.
+		 * @throws IOException If an error occurs.
+		 */
+		void exportRow(IModel<T> rowModel) throws IOException;
+	}
 }
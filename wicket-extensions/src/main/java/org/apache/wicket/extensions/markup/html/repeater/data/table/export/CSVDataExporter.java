@@ -17,12 +17,12 @@
 package org.apache.wicket.extensions.markup.html.repeater.data.table.export;
 
 import java.io.Closeable;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
-import java.util.Iterator;
 import java.util.List;
 
 import org.apache.wicket.Application;
@@ -208,17 +208,12 @@ public class CSVDataExporter extends AbstractDataExporter
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	private <T> void writeData(IDataProvider<T> dataProvider, List<IExportableColumn<T, ?>> columns, Grid grid) throws IOException
 	{
-		long numberOfRows = dataProvider.size();
-		Iterator<? extends T> rowIterator = dataProvider.iterator(0, numberOfRows);
-		while (rowIterator.hasNext())
-		{
-			T row = rowIterator.next();
-
+		exportRows(dataProvider, rowModel -> {
 			for (IExportableColumn<T, ?> col : columns)
 			{
-				IModel<?> dataModel = col.getDataModel(dataProvider.model(row));
+				IModel<?> dataModel = wrapModel(col.getDataModel(rowModel));
 				
-				Object value = wrapModel(dataModel).getObject();
+				Object value = dataModel.getObject();
 				if (value != null)
 				{
 					Class<?> c = value.getClass();
@@ -238,9 +233,11 @@ public class CSVDataExporter extends AbstractDataExporter
 
 					grid.cell(quoteValue(s));
 				}
+
+				dataModel.detach();
 			}
 			grid.row();
-		}
+		}, grid);
 	}
 
 	/**
@@ -263,7 +260,7 @@ public class CSVDataExporter extends AbstractDataExporter
 		return model;
 	}
 	
-	private class Grid implements Closeable{
+	private class Grid implements Closeable, Flushable {
 
 		private Writer writer;
 
@@ -293,6 +290,12 @@ public class CSVDataExporter extends AbstractDataExporter
 			first = true;
 		}
 
+		@Override
+		public void flush() throws IOException
+		{
+			writer.flush();
+		}
+
 		@Override
 		public void close() throws IOException
 		{
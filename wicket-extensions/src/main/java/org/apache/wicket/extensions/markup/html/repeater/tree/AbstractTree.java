@@ -16,12 +16,17 @@
  */
 package org.apache.wicket.extensions.markup.html.repeater.tree;
 
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.wicket.Component;
 import org.apache.wicket.IGenericComponent;
 import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.core.request.handler.IPartialPageRequestHandler;
+import org.apache.wicket.extensions.markup.html.repeater.util.KeySubset;
 import org.apache.wicket.extensions.markup.html.repeater.util.ProviderSubset;
 import org.apache.wicket.markup.html.panel.Panel;
 import org.apache.wicket.markup.repeater.DefaultItemReuseStrategy;
@@ -50,6 +55,14 @@ public abstract class AbstractTree<T> extends Panel implements IGenericComponent
 
 	private IItemReuseStrategy itemReuseStrategy;
 
+	private int childWindowSize = 100;
+
+	/**
+	 * number of shown children for nodes whose children were requested with
+	 * {@link #showMoreChildren(Object)}, by node key - <code>null</code> for the roots
+	 */
+	private Map<Serializable, Long> childWindows;
+
 	protected AbstractTree(String id, ITreeProvider<T> provider)
 	{
 		this(id, provider, null);
@@ -97,6 +110,33 @@ public abstract class AbstractTree<T> extends Panel implements IGenericComponent
 		return itemReuseStrategy;
 	}
 
+	/**
+	 * Sets the number of roots or children shown initially and added by each call to
+	 * {@link #showMoreChildren(Object)}, if the provider is an {@link IWindowedTreeProvider}.
+	 * 
+	 * @param childWindowSize
+	 *            number of children
+	 * @return this for chaining
+	 */
+	public AbstractTree<T> setChildWindowSize(int childWindowSize)
+	{
+		if (childWindowSize < 1)
+		{
+			throw new IllegalArgumentException("argument [childWindowSize] cannot be less than 1");
+		}
+		this.childWindowSize = childWindowSize;
+
+		return this;
+	}
+
+	/**
+	 * @return number of roots or children shown initially, defaults to 100
+	 */
+	public int getChildWindowSize()
+	{
+		return childWindowSize;
+	}
+
 	/**
 	 * Get the provider of the tree nodes.
 	 * 
@@ -126,7 +166,7 @@ public abstract class AbstractTree<T> extends Panel implements IGenericComponent
 	/**
 	 * Factory method for a model, by default creates a model containing a {@link ProviderSubset}.
 	 * Depending on your {@link ITreeProvider}'s model you might consider to provide a custom
-	 * {@link Set} implementation.
+	 * {@link Set} implementation, e.g. a {@link KeySubset} for an {@link IWindowedTreeProvider}.
 	 * <p>
 	 * Note: The contained {@link Set} has at least to implement {@link Set#add(Object)},
 	 * {@link Set#remove(Object)} and {@link Set#contains(Object)}.
@@ -177,6 +217,11 @@ public abstract class AbstractTree<T> extends Panel implements IGenericComponent
 		getModelObject().remove(t);
 		modelChanged();
 
+		if (childWindows != null && childWindows.remove(getKey(t)) != null && childWindows.isEmpty())
+		{
+			childWindows = null;
+		}
+
 		getRequestCycle().find(IPartialPageRequestHandler.class).ifPresent(
 			target -> updateBranch(t, target)
 		);
@@ -204,6 +249,114 @@ public abstract class AbstractTree<T> extends Panel implements IGenericComponent
 		}
 	}
 
+	/**
+	 * Get the roots to iterate, i.e. the shown window of roots if the provider is an
+	 * {@link IWindowedTreeProvider}.
+	 * 
+	 * @return roots
+	 */
+	public Iterator<? extends T> getRoots()
+	{
+		if (provider instanceof IWindowedTreeProvider)
+		{
+			return ((IWindowedTreeProvider<T>)provider).getRoots(0, getChildWindow(null));
+		}
+		return provider.getRoots();
+	}
+
+	/**
+	 * Get the children of the given node to iterate, i.e. the shown window of children if the
+	 * provider is an {@link IWindowedTreeProvider}.
+	 * 
+	 * @param node
+	 *            node to get children for
+	 * @return children of node
+	 */
+	public Iterator<? extends T> getChildren(T node)
+	{
+		if (provider instanceof IWindowedTreeProvider)
+		{
+			return ((IWindowedTreeProvider<T>)provider).getChildren(node, 0, getChildWindow(node));
+		}
+		return provider.getChildren(node);
+	}
+
+	/**
+	 * Are there more children of the given node than the shown ones.
+	 * 
+	 * @param node
+	 *            the node to check, <code>null</code> for the roots
+	 * @return {@code true} if more children can be shown
+	 * 
+	 * @see #showMoreChildren(Object)
+	 */
+	public boolean hasMoreChildren(T node)
+	{
+		if (provider instanceof IWindowedTreeProvider)
+		{
+			IWindowedTreeProvider<T> windowed = (IWindowedTreeProvider<T>)provider;
+
+			long count = node == null ? windowed.getRootCount() : windowed.getChildCount(node);
+			return count > getChildWindow(node);
+		}
+		return false;
+	}
+
+	/**
+	 * Show further children of the given node, tries to update the affected branch if the change
+	 * happens on an {@link AjaxRequestTarget}.
+	 * <p>
+	 * For the roots no branch is updated, it is up to the caller to update the component
+	 * iterating them.
+	 * 
+	 * @param t
+	 *            the node to show more children of, <code>null</code> for the roots
+	 * 
+	 * @see #setChildWindowSize(int)
+	 * @see #updateBranch(Object, IPartialPageRequestHandler)
+	 */
+	public void showMoreChildren(T t)
+	{
+		addStateChange();
+
+		if (childWindows == null)
+		{
+			childWindows = new HashMap<>();
+		}
+		childWindows.put(getKey(t), getChildWindow(t) + childWindowSize);
+
+		if (t == null)
+		{
+			return;
+		}
+
+		getRequestCycle().find(IPartialPageRequestHandler.class).ifPresent(
+			target -> updateBranch(t, target)
+		);
+	}
+
+	private long getChildWindow(T node)
+	{
+		if (childWindows != null)
+		{
+			Long window = childWindows.get(getKey(node));
+			if (window != null)
+			{
+				return window;
+			}
+		}
+		return childWindowSize;
+	}
+
+	private Serializable getKey(T node)
+	{
+		if (node != null && provider instanceof IWindowedTreeProvider)
+		{
+			return ((IWindowedTreeProvider<T>)provider).getKey(node);
+		}
+		return null;
+	}
+
 	/**
 	 * Overridden to detach the {@link ITreeProvider}.
 	 */
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.extensions.markup.html.repeater.tree;
+
+import java.io.Serializable;
+import java.util.Iterator;
+
+import org.apache.wicket.extensions.markup.html.repeater.util.KeySubset;
+import org.apache.wicket.extensions.markup.html.repeater.util.ProviderSubset;
+
+/**
+ * Provider of a large tree: the roots and the children of a node are fetched in windows, so a
+ * tree or an expanded node with many children shows the first ones only until more are requested
+ * with {@link AbstractTree#showMoreChildren(Object)}.
+ * <p>
+ * Note that trees still keep their expansion state in a {@link ProviderSubset} by default, i.e. a
+ * model for each expanded node. Pass a {@link KeySubset} of the nodes' keys as state to keep the
+ * keys only.
+ * 
+ * @param <T>
+ *            the node type
+ */
+public interface IWindowedTreeProvider<T> extends ITreeProvider<T>
+{
+	/**
+	 * Get the stable key of a node, e.g. its primary key.
+	 * 
+	 * @param node
+	 *            the node
+	 * @return key of the node
+	 */
+	Serializable getKey(T node);
+
+	/**
+	 * Get the number of roots.
+	 * 
+	 * @return number of roots
+	 */
+	long getRootCount();
+
+	/**
+	 * Get a window of the roots.
+	 * 
+	 * @param first
+	 *            index of the first root
+	 * @param count
+	 *            maximum number of roots
+	 * @return roots
+	 */
+	Iterator<? extends T> getRoots(long first, long count);
+
+	@Override
+	default Iterator<? extends T> getRoots()
+	{
+		return getRoots(0, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Get the number of children of the given node.
+	 * 
+	 * @param node
+	 *            node to count children for
+	 * @return number of children
+	 */
+	long getChildCount(T node);
+
+	/**
+	 * Get a window of the children of the given node.
+	 * 
+	 * @param node
+	 *            node to get children for
+	 * @param first
+	 *            index of the first child
+	 * @param count
+	 *            maximum number of children
+	 * @return children of node
+	 */
+	Iterator<? extends T> getChildren(T node, long first, long count);
+
+	@Override
+	default Iterator<? extends T> getChildren(T node)
+	{
+		return getChildren(node, 0, Long.MAX_VALUE);
+	}
+}
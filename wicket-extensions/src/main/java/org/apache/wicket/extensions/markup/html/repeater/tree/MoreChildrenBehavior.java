@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.extensions.markup.html.repeater.tree;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.ajax.AbstractDefaultAjaxBehavior;
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.ajax.attributes.AjaxAttributeName;
+import org.apache.wicket.ajax.attributes.AjaxRequestAttributes;
+import org.apache.wicket.extensions.markup.html.repeater.tree.AbstractTree.State;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.head.OnDomReadyHeaderItem;
+import org.apache.wicket.request.Response;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.string.Strings;
+
+import com.github.openjson.JSONException;
+import com.github.openjson.JSONObject;
+
+/**
+ * A behavior rendering a link after its component, showing more children of an expanded node
+ * whose children are not all shown yet. The link requests them with an Ajax callback.
+ * <p>
+ * The node is the model object of the component, a <code>null</code> node stands for the roots of
+ * the tree.
+ * 
+ * @see AbstractTree#hasMoreChildren(Object)
+ * @see AbstractTree#showMoreChildren(Object)
+ * 
+ * @param <T>
+ *            node type
+ */
+public class MoreChildrenBehavior<T> extends AbstractDefaultAjaxBehavior
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Resource key of the link's text.
+	 */
+	public static final String TEXT_KEY = "tree.moreChildren";
+
+	private final AbstractTree<T> tree;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param tree
+	 *            the owning tree
+	 */
+	public MoreChildrenBehavior(AbstractTree<T> tree)
+	{
+		this.tree = Args.notNull(tree, "tree");
+	}
+
+	/**
+	 * Get the node to show more children of, by default the model object of the component.
+	 * 
+	 * @param component
+	 *            the component this behavior is bound to
+	 * @return node or <code>null</code> for the roots
+	 */
+	@SuppressWarnings("unchecked")
+	protected T getNode(Component component)
+	{
+		return (T)component.getDefaultModelObject();
+	}
+
+	private boolean isLinkVisible(Component component)
+	{
+		T node = getNode(component);
+		if (node != null && tree.getState(node) != State.EXPANDED)
+		{
+			return false;
+		}
+		return tree.hasMoreChildren(node);
+	}
+
+	private String getLinkId(Component component)
+	{
+		return component.getMarkupId() + "_more";
+	}
+
+	@Override
+	public void renderHead(Component component, IHeaderResponse response)
+	{
+		if (isLinkVisible(component))
+		{
+			super.renderHead(component, response);
+
+			response.render(OnDomReadyHeaderItem.forScript(getCallbackScript(component)));
+		}
+	}
+
+	@Override
+	public void afterRender(Component component)
+	{
+		if (isLinkVisible(component))
+		{
+			Response response = component.getResponse();
+
+			response.write("<div class=\"tree-more\"><a id=\"");
+			response.write(getLinkId(component));
+			response.write("\" href=\"#\">");
+			response.write(Strings.escapeMarkup(component.getString(TEXT_KEY, null, "more")));
+			response.write("</a></div>");
+		}
+	}
+
+	@Override
+	protected void updateAjaxAttributes(AjaxRequestAttributes attributes)
+	{
+		super.updateAjaxAttributes(attributes);
+
+		attributes.setEventNames("click");
+		attributes.setPreventDefault(true);
+	}
+
+	@Override
+	protected void postprocessConfiguration(JSONObject attributesJson, Component component)
+		throws JSONException
+	{
+		super.postprocessConfiguration(attributesJson, component);
+
+		// the link is not a component on its own
+		attributesJson.put(AjaxAttributeName.MARKUP_ID.jsonName(), getLinkId(component));
+	}
+
+	@Override
+	protected void respond(AjaxRequestTarget target)
+	{
+		Component component = getComponent();
+
+		T node = getNode(component);
+		tree.showMoreChildren(node);
+		if (node == null)
+		{
+			// roots are not a branch of the tree
+			target.add(component);
+		}
+	}
+}
@@ -16,10 +16,12 @@
  */
 package org.apache.wicket.extensions.markup.html.repeater.tree;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
+import org.apache.wicket.Component;
 import org.apache.wicket.core.request.handler.IPartialPageRequestHandler;
 import org.apache.wicket.extensions.markup.html.repeater.data.table.DataTable;
 import org.apache.wicket.extensions.markup.html.repeater.data.table.IColumn;
@@ -101,6 +103,18 @@ public abstract class TableTree<T, S> extends AbstractTree<T>
 		this.table = newDataTable("table", columns, newDataProvider(provider), rowsPerPage);
 		add(table);
 
+		table.add(new MoreChildrenBehavior<T>(this)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected T getNode(Component component)
+			{
+				// roots
+				return null;
+			}
+		});
+
 		// see #updateBranch(Object, AjaxRequestTarget)
 		setOutputMarkupId(true);
 	}
@@ -222,6 +236,18 @@ public abstract class TableTree<T, S> extends AbstractTree<T>
 			{
 				return TableTree.this.getState(object) == State.EXPANDED;
 			}
+
+			@Override
+			protected Iterator<? extends T> getRoots()
+			{
+				return TableTree.this.getRoots();
+			}
+
+			@Override
+			protected Iterator<? extends T> getChildren(T node)
+			{
+				return TableTree.this.getChildren(node);
+			}
 		};
 	}
 
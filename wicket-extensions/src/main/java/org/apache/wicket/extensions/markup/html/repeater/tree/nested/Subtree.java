@@ -21,6 +21,7 @@ import java.util.Iterator;
 import org.apache.wicket.Component;
 import org.apache.wicket.extensions.markup.html.repeater.tree.AbstractTree.State;
 import org.apache.wicket.extensions.markup.html.repeater.tree.ITreeProvider;
+import org.apache.wicket.extensions.markup.html.repeater.tree.MoreChildrenBehavior;
 import org.apache.wicket.extensions.markup.html.repeater.tree.NestedTree;
 import org.apache.wicket.markup.html.panel.Panel;
 import org.apache.wicket.markup.repeater.IItemFactory;
@@ -31,7 +32,8 @@ import org.apache.wicket.model.IModel;
 
 /**
  * A subtree handles all children of a single node (or the root nodes if a <code>null</code> node
- * was given to the constructor).
+ * was given to the constructor). A {@link MoreChildrenBehavior} renders a link after the children,
+ * if not all of them are shown.
  * 
  * @see ITreeProvider#getChildren(Object)
  * @see ITreeProvider#getRoots()
@@ -104,6 +106,8 @@ public class Subtree<T> extends Panel
 			}
 		});
 		add(branches);
+
+		add(new MoreChildrenBehavior<>(tree));
 	}
 
 	@SuppressWarnings("unchecked")
@@ -146,11 +150,11 @@ public class Subtree<T> extends Panel
 			T t = getModel().getObject();
 			if (t == null)
 			{
-				children = tree.getProvider().getRoots();
+				children = tree.getRoots();
 			}
 			else
 			{
-				children = tree.getProvider().getChildren(t);
+				children = tree.getChildren(t);
 			}
 		}
 
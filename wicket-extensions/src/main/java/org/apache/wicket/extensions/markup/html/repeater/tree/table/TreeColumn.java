@@ -18,6 +18,7 @@ package org.apache.wicket.extensions.markup.html.repeater.tree.table;
 
 import org.apache.wicket.Component;
 import org.apache.wicket.extensions.markup.html.repeater.data.grid.ICellPopulator;
+import org.apache.wicket.extensions.markup.html.repeater.tree.MoreChildrenBehavior;
 import org.apache.wicket.markup.repeater.Item;
 import org.apache.wicket.model.IModel;
 
@@ -74,6 +75,8 @@ public class TreeColumn<T, S> extends AbstractTreeColumn<T, S>
 		Component nodeComponent = getTree().newNodeComponent(componentId,
 			nodeModel.getWrappedModel());
 
+		// link renders inside the border
+		nodeComponent.add(new MoreChildrenBehavior<>(getTree()));
 		nodeComponent.add(new NodeBorder(nodeModel.getBranches()));
 
 		cellItem.add(nodeComponent);
@@ -73,7 +73,7 @@ public abstract class TreeDataProvider<T> implements ITreeDataProvider<T>
 	@Override
 	public Iterator<? extends T> iterator(long first, long count)
 	{
-		currentBranch = new Branch<>(null, provider.getRoots());
+		currentBranch = new Branch<>(null, getRoots());
 
 		Iterator<T> iterator = new Iterator<T>()
 		{
@@ -106,7 +106,7 @@ public abstract class TreeDataProvider<T> implements ITreeDataProvider<T>
 
 				if (iterateChildren(next))
 				{
-					currentBranch = new Branch<>(previousBranch, provider.getChildren(next));
+					currentBranch = new Branch<>(previousBranch, getChildren(next));
 				}
 
 				return next;
@@ -137,6 +137,29 @@ public abstract class TreeDataProvider<T> implements ITreeDataProvider<T>
 	 */
 	protected abstract boolean iterateChildren(T node);
 
+	/**
+	 * Hook method to get the roots, by default from the adapted provider.
+	 * 
+	 * @return roots
+	 */
+	protected Iterator<? extends T> getRoots()
+	{
+		return provider.getRoots();
+	}
+
+	/**
+	 * Hook method to get the children of the given node, by default from the adapted provider.
+	 * 
+	 * @param node
+	 *            node
+	 * 
+	 * @return children of the node
+	 */
+	protected Iterator<? extends T> getChildren(T node)
+	{
+		return provider.getChildren(node);
+	}
+
 	@Override
 	public NodeModel<T> model(T object)
 	{
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.extensions.markup.html.repeater.util;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.util.io.IClusterable;
+import org.apache.wicket.util.lang.Args;
+import org.danekja.java.util.function.serializable.SerializableFunction;
+
+/**
+ * A {@link Set} implementation keeping the keys of its containing elements only. Compared to
+ * {@link ProviderSubset} it needs neither a model for each element nor loading the elements on
+ * detach, so it stays small for trees with many expanded nodes.
+ * <p>
+ * Since the elements cannot be restored from their keys, {@link #iterator()} and
+ * {@link #toArray()} are not supported, use {@link #getKeys()} instead. For the same reason a
+ * subset is equal to another {@link KeySubset} with the same keys only.
+ * <p>
+ * Trees do not use this set by default, pass a model of it to the tree if its users do not need to
+ * iterate over the expanded nodes:
+ * 
+ * <pre>
+ * new NestedTree&lt;Foo&gt;(&quot;tree&quot;, provider, new KeySubset&lt;&gt;(provider::getKey).createModel())
+ * </pre>
+ * 
+ * @param <T>
+ *            type of data
+ * 
+ * @see org.apache.wicket.extensions.markup.html.repeater.tree.IWindowedTreeProvider#getKey(Object)
+ */
+public class KeySubset<T> implements Set<T>, IClusterable
+{
+	private static final long serialVersionUID = 1L;
+
+	private final SerializableFunction<T, ? extends Serializable> keyFunction;
+
+	private final Set<Serializable> keys = new HashSet<>();
+
+	/**
+	 * Create an empty subset.
+	 * 
+	 * @param keyFunction
+	 *            function returning the key of an element
+	 */
+	public KeySubset(SerializableFunction<T, ? extends Serializable> keyFunction)
+	{
+		this.keyFunction = Args.notNull(keyFunction, "keyFunction");
+	}
+
+	/**
+	 * @return the keys of the contained elements
+	 */
+	public Set<Serializable> getKeys()
+	{
+		return Collections.unmodifiableSet(keys);
+	}
+
+	@Override
+	public int size()
+	{
+		return keys.size();
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return keys.isEmpty();
+	}
+
+	@Override
+	public void clear()
+	{
+		keys.clear();
+	}
+
+	@Override
+	public boolean contains(Object o)
+	{
+		return keys.contains(key(o));
+	}
+
+	@Override
+	public boolean add(T t)
+	{
+		return keys.add(key(t));
+	}
+
+	@Override
+	public boolean remove(Object o)
+	{
+		return keys.remove(key(o));
+	}
+
+	@Override
+	public Iterator<T> iterator()
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends T> ts)
+	{
+		boolean changed = false;
+
+		for (T t : ts)
+		{
+			changed |= add(t);
+		}
+
+		return changed;
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> cs)
+	{
+		for (Object c : cs)
+		{
+			if (!contains(c))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> cs)
+	{
+		boolean changed = false;
+
+		for (Object c : cs)
+		{
+			changed |= remove(c);
+		}
+
+		return changed;
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Object[] toArray()
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public <S> S[] toArray(S[] a)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if (o == this)
+		{
+			return true;
+		}
+		if (o instanceof KeySubset == false)
+		{
+			return false;
+		}
+		return keys.equals(((KeySubset<?>)o).keys);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return keys.hashCode();
+	}
+
+	@SuppressWarnings("unchecked")
+	private Serializable key(Object o)
+	{
+		return keyFunction.apply((T)o);
+	}
+
+	/**
+	 * Create a model holding this set.
+	 * 
+	 * @return model
+	 */
+	public IModel<Set<T>> createModel()
+	{
+		return () -> KeySubset.this;
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.extensions.ajax.markup.html.autocomplete;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AutoCompleteChoiceCache}.
+ */
+public class AutoCompleteChoiceCacheTest
+{
+	private static final List<String> COUNTRIES = Arrays.asList("Germany", "Ghana", "Greece",
+		"Grenada", "Guatemala", "France", "Finland");
+
+	private final List<String> loaded = new ArrayList<>();
+
+	private final Function<String, List<String>> loader = input -> {
+		loaded.add(input);
+
+		List<String> choices = new ArrayList<>();
+		for (String country : COUNTRIES)
+		{
+			if (country.toLowerCase().startsWith(input.toLowerCase()) && choices.size() < 3)
+			{
+				choices.add(country);
+			}
+		}
+		return choices;
+	};
+
+	/**
+	 * Longer inputs are filtered from complete choices of a prefix.
+	 */
+	@Test
+	public void prefix()
+	{
+		AutoCompleteChoiceCache<String> cache = new AutoCompleteChoiceCache<>(100,
+			Duration.ofMinutes(1), 3);
+
+		// truncated, so a longer input has to be loaded
+		assertEquals(Arrays.asList("Germany", "Ghana", "Greece"), cache.getChoices("G", loader));
+		assertEquals(Arrays.asList("Greece", "Grenada"), cache.getChoices("Gr", loader));
+		assertEquals(Arrays.asList("G", "Gr"), loaded);
+
+		// complete, so filtered
+		assertEquals(Arrays.asList("Grenada"), cache.getChoices("Gren", loader));
+		assertEquals(Arrays.asList("G", "Gr"), loaded);
+		assertEquals(1, cache.getPrefixHits());
+
+		assertEquals(Arrays.asList("Greece", "Grenada"), cache.getChoices("GR", loader));
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	/**
+	 * The least recently used inputs are evicted, and entries expire.
+	 */
+	@Test
+	public void eviction()
+	{
+		AutoCompleteChoiceCache<String> cache = new AutoCompleteChoiceCache<>(2,
+			Duration.ofMinutes(1), 3);
+
+		cache.getChoices("F", loader);
+		cache.getChoices("X", loader);
+		cache.getChoices("Y", loader);
+		assertEquals(2, cache.size());
+
+		cache.getChoices("F", loader);
+		assertEquals(Arrays.asList("F", "X", "Y", "F"), loaded);
+
+		AutoCompleteChoiceCache<String> expiring = new AutoCompleteChoiceCache<>(2, Duration.ZERO,
+			3);
+		expiring.getChoices("F", loader);
+		expiring.getChoices("F", loader);
+		assertEquals(0, expiring.getHits());
+	}
+
+	/**
+	 * Choices filtered from a prefix are complete and expire with the prefix's choices.
+	 */
+	@Test
+	public void filteredChoices()
+	{
+		long[] now = { 0 };
+		AutoCompleteChoiceCache<String> cache = new AutoCompleteChoiceCache<String>(100,
+			Duration.ofMillis(1000), 2)
+		{
+			@Override
+			protected long currentTimeMillis()
+			{
+				return now[0];
+			}
+		};
+
+		// complete with a single choice
+		assertEquals(Arrays.asList("Guatemala"), cache.getChoices("Gu", loader));
+
+		now[0] = 500;
+		assertEquals(Arrays.asList("Guatemala"), cache.getChoices("Gua", loader));
+
+		// filtered from the filtered choices, since they are complete
+		now[0] = 900;
+		assertEquals(Arrays.asList("Guatemala"), cache.getChoices("Guat", loader));
+		assertEquals(Arrays.asList("Gu"), loaded);
+		assertEquals(2, cache.getPrefixHits());
+
+		// all expire with the loaded choices
+		now[0] = 1000;
+		assertEquals(Arrays.asList("Guatemala"), cache.getChoices("Guat", loader));
+		assertEquals(Arrays.asList("Gu", "Guat"), loaded);
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.extensions.ajax.markup.html.autocomplete;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.markup.IMarkupResourceStreamProvider;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.markup.html.form.TextField;
+import org.apache.wicket.model.Model;
+import org.apache.wicket.request.resource.SharedResourceReference;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AutoCompleteChoicesResource} and
+ * {@link AbstractAutoCompleteBehavior#setChoicesResource(org.apache.wicket.request.resource.ResourceReference)}.
+ */
+public class AutoCompleteChoicesResourceTest extends WicketTestCase
+{
+	private static final List<String> COUNTRIES = Arrays.asList("Germany", "Ghana", "France");
+
+	private static final AutoCompleteChoiceCache<String> CACHE = new AutoCompleteChoiceCache<>(
+		100, Duration.ofMinutes(1), 10);
+
+	private final List<String> loaded = new ArrayList<>();
+
+	/**
+	 * Register the shared resource.
+	 */
+	@BeforeEach
+	public void register()
+	{
+		CACHE.clear();
+
+		tester.getApplication()
+			.getSharedResources()
+			.add("countries", new AutoCompleteChoicesResource<String>(
+				StringAutoCompleteRenderer.instance(), "q")
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected Iterator<String> getChoices(String input)
+				{
+					return CACHE.getChoices(input, i -> {
+						loaded.add(i);
+
+						List<String> choices = new ArrayList<>();
+						for (String country : COUNTRIES)
+						{
+							if (country.toLowerCase().startsWith(i.toLowerCase()))
+							{
+								choices.add(country);
+							}
+						}
+						return choices;
+					}).iterator();
+				}
+			});
+	}
+
+	/**
+	 * The resource renders the choices without a page.
+	 */
+	@Test
+	public void choices()
+	{
+		tester.executeUrl("wicket/resource/org.apache.wicket.Application/countries?q=g");
+
+		assertEquals("<ul><li textvalue=\"Germany\">Germany</li><li textvalue=\"Ghana\">Ghana</li></ul>",
+			tester.getLastResponseAsString());
+
+		tester.executeUrl("wicket/resource/org.apache.wicket.Application/countries?q=gh");
+
+		assertEquals("<ul><li textvalue=\"Ghana\">Ghana</li></ul>",
+			tester.getLastResponseAsString());
+		assertEquals(Arrays.asList("g"), loaded);
+	}
+
+	/**
+	 * A behavior with a choices resource points to it and keeps the page stateless.
+	 */
+	@Test
+	public void stateless()
+	{
+		AutoCompleteBehavior<String> behavior = new AutoCompleteBehavior<String>(
+			StringAutoCompleteRenderer.instance())
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected Iterator<String> getChoices(String input)
+			{
+				return COUNTRIES.iterator();
+			}
+		};
+		assertFalse(behavior.getStatelessHint(null));
+
+		behavior.setChoicesResource(new SharedResourceReference("countries"));
+		assertTrue(behavior.getStatelessHint(null));
+
+		TestPage page = new TestPage(behavior);
+		tester.startPage(page);
+
+		assertTrue(page.isPageStateless());
+		tester.assertContains("wicket/resource/org.apache.wicket.Application/countries");
+	}
+
+	/**
+	 * Page with an autocomplete.
+	 */
+	public static class TestPage extends WebPage implements IMarkupResourceStreamProvider
+	{
+		private static final long serialVersionUID = 1L;
+
+		TestPage(AutoCompleteBehavior<String> behavior)
+		{
+			add(new TextField<>("country", Model.of("")).add(behavior));
+		}
+
+		@Override
+		public IResourceStream getMarkupResourceStream(MarkupContainer container,
+			Class<?> containerClass)
+		{
+			return new StringResourceStream(
+				"<html><head></head><body><input wicket:id=\"country\" type=\"text\"/></body></html>");
+		}
+	}
+}
@@ -16,6 +16,7 @@
  */
 package org.apache.wicket.extensions.markup.html.repeater.data.table;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -26,9 +27,13 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.ajax.markup.html.AjaxLink;
 import org.apache.wicket.markup.IMarkupResourceStreamProvider;
 import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.markup.repeater.data.DataPage;
 import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.markup.repeater.data.IPagingDataProvider;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
 import org.apache.wicket.request.mapper.parameter.PageParameters;
@@ -122,6 +127,98 @@ public class DataTableTest extends WicketTestCase
 
 	}
 
+	/**
+	 * The page of an {@link IPagingDataProvider} is fetched once per render, although the toolbars
+	 * ask for the row count before the rows are rendered.
+	 */
+	@Test
+	public void pagingDataProvider()
+	{
+		PagingPage page = new PagingPage();
+		tester.startPage(page);
+		assertEquals(1, page.pages);
+
+		tester.startPage(page);
+		assertEquals(2, page.pages);
+
+		// fetched by the listener, and again for rendering since the data has changed
+		tester.clickLink("remove");
+		assertEquals(4, page.pages);
+	}
+
+	/**
+	 * A page with a DataTable with toolbars over an {@link IPagingDataProvider}
+	 */
+	public static class PagingPage extends WebPage implements IMarkupResourceStreamProvider
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final List<Integer> items = new ArrayList<>(Arrays.asList(1, 2, 3, 4, 5));
+
+		private int pages;
+
+		private final DataTable<Integer, String> table;
+
+		/**
+		 * Construct.
+		 */
+		public PagingPage()
+		{
+			IPagingDataProvider<Integer> provider = new IPagingDataProvider<Integer>()
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public DataPage<Integer> page(long first, long count)
+				{
+					pages++;
+
+					int from = (int)Math.min(first, items.size());
+					int to = (int)Math.min(first + count, items.size());
+					return new DataPage<>(new ArrayList<>(items.subList(from, to)), items.size());
+				}
+
+				@Override
+				public IModel<Integer> model(Integer object)
+				{
+					return Model.of(object);
+				}
+			};
+
+			List<IColumn<Integer, String>> columns = new ArrayList<>();
+			columns.add(new LambdaColumn<Integer, String>(Model.of("value"), i -> i));
+
+			table = new DataTable<>("table", columns, provider, 2);
+			table.addTopToolbar(new NavigationToolbar(table));
+			table.addBottomToolbar(new NoRecordsToolbar(table));
+			table.setOutputMarkupId(true);
+			add(table);
+
+			add(new AjaxLink<Void>("remove")
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public void onClick(AjaxRequestTarget target)
+				{
+					if (table.getRowCount() > 0)
+					{
+						items.remove(0);
+					}
+					target.add(table);
+				}
+			});
+		}
+
+		@Override
+		public IResourceStream getMarkupResourceStream(MarkupContainer container,
+			Class<?> containerClass)
+		{
+			return new StringResourceStream(
+				"<html><body><table wicket:id='table'></table><a wicket:id='remove'>remove</a></body></html>");
+		}
+	}
+
 	/**
 	 * A page with a DataTable that either has items (tbody) or header and footer (thead/tfoot)
 	 */
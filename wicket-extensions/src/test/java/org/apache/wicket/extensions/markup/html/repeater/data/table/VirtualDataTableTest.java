@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.extensions.markup.html.repeater.data.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.wicket.extensions.markup.html.repeater.util.SortableDataProvider;
+import org.apache.wicket.markup.repeater.Item;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.Model;
+import org.apache.wicket.util.convert.IConverter;
+import org.apache.wicket.util.convert.converter.IntegerConverter;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+import com.github.openjson.JSONArray;
+import com.github.openjson.JSONObject;
+
+/**
+ * Test for {@link VirtualDataTable}.
+ */
+public class VirtualDataTableTest extends WicketTestCase
+{
+	@Test
+	public void fetchRows()
+	{
+		VirtualDataTable<Integer, String> table = newTable();
+
+		JSONObject json = new JSONObject(table.fetchRows(50, 3));
+
+		assertEquals(50, json.getLong("first"));
+		assertEquals(1000, json.getLong("size"));
+
+		JSONArray rows = json.getJSONArray("rows");
+		assertEquals(3, rows.length());
+		assertEquals("50", rows.getJSONArray(0).getString(0));
+		assertTrue(rows.getJSONArray(0).isNull(1));
+		assertEquals("52", rows.getJSONArray(2).getString(0));
+	}
+
+	@Test
+	public void fetchRowsIsLimited()
+	{
+		VirtualDataTable<Integer, String> table = newTable();
+
+		JSONObject json = new JSONObject(table.fetchRows(995, 100));
+		assertEquals(5, json.getJSONArray("rows").length());
+
+		json = new JSONObject(table.fetchRows(0, 1000));
+		assertEquals(200, json.getJSONArray("rows").length());
+
+		json = new JSONObject(table.fetchRows(2000, 10));
+		assertEquals(1000, json.getLong("first"));
+		assertEquals(0, json.getJSONArray("rows").length());
+	}
+
+	@Test
+	public void cellsAreEscaped()
+	{
+		VirtualDataTable<Integer, String> table = newTable();
+
+		JSONObject json = new JSONObject(table.fetchRows(50, 1));
+		assertEquals("&lt;b&gt;50&lt;/b&gt;", json.getJSONArray("rows").getJSONArray(0).getString(2));
+
+		table.setEscapeModelStrings(false);
+		json = new JSONObject(table.fetchRows(50, 1));
+		assertEquals("<b>50</b>", json.getJSONArray("rows").getJSONArray(0).getString(2));
+	}
+
+	@Test
+	public void cellsAreConvertedWithTableConverter()
+	{
+		VirtualDataTable<Integer, String> table = new VirtualDataTable<Integer, String>("table",
+			newColumns(), newDataProvider(), 20)
+		{
+			@Override
+			protected IConverter<?> createConverter(Class<?> type)
+			{
+				if (type == Integer.class)
+				{
+					return new IntegerConverter()
+					{
+						@Override
+						public String convertToString(Integer value, Locale locale)
+						{
+							return "#" + value;
+						}
+					};
+				}
+				return null;
+			}
+		};
+
+		JSONObject json = new JSONObject(table.fetchRows(50, 1));
+		assertEquals("#50", json.getJSONArray("rows").getJSONArray(0).getString(0));
+	}
+
+	private VirtualDataTable<Integer, String> newTable()
+	{
+		return new VirtualDataTable<>("table", newColumns(), newDataProvider(), 20);
+	}
+
+	private List<IColumn<Integer, String>> newColumns()
+	{
+		List<IColumn<Integer, String>> columns = new ArrayList<>();
+		columns.add(new LambdaColumn<>(Model.of("value"), Integer::intValue));
+		columns.add(new AbstractColumn<Integer, String>(Model.of("other"))
+		{
+			@Override
+			public void populateItem(Item<ICellPopulator<Integer>> cellItem, String componentId, IModel<Integer> rowModel)
+			{
+			}
+		});
+		columns.add(new LambdaColumn<>(Model.of("markup"), (Integer i) -> "<b>" + i + "</b>"));
+		return columns;
+	}
+
+	private SortableDataProvider<Integer, String> newDataProvider()
+	{
+		return new SortableDataProvider<Integer, String>()
+		{
+			@Override
+			public Iterator<? extends Integer> iterator(long first, long count)
+			{
+				List<Integer> values = new ArrayList<>();
+				for (long i = first; i < first + count; i++)
+				{
+					values.add((int)i);
+				}
+				return values.iterator();
+			}
+
+			@Override
+			public long size()
+			{
+				return 1000;
+			}
+
+			@Override
+			public IModel<Integer> model(Integer object)
+			{
+				return Model.of(object);
+			}
+		};
+	}
+}
@@ -22,6 +22,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.wicket.extensions.markup.html.repeater.data.table.Contact;
@@ -70,4 +71,40 @@ public class CSVDataExporterTest extends WicketTestCase
 			"\"first1\",\"last\"\"1\"\r\n" //
 			, new String(output.toByteArray(), exporter.getCharacterSet()));
 	}
+
+	@Test
+	public void chunks() throws IOException
+	{
+		CSVDataExporter exporter = new CSVDataExporter();
+		exporter.setExportHeadersEnabled(false);
+		exporter.setChunkSize(1);
+
+		List<String> calls = new ArrayList<>();
+		IDataProvider<Contact> dataProvider = new ListDataProvider<Contact>(contacts)
+		{
+			@Override
+			public Iterator<Contact> iterator(long first, long count)
+			{
+				calls.add("iterator " + first + "," + count);
+				return super.iterator(first, count);
+			}
+
+			@Override
+			public void detach()
+			{
+				calls.add("detach");
+			}
+		};
+
+		List<IExportableColumn<Contact, ?>> columns = new ArrayList<>();
+		columns.add(new PropertyColumn<>(Model.of("firstName"), "firstName"));
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		exporter.exportData(dataProvider, columns, output);
+
+		assertEquals("\"first0\"\r\n\"first1\"\r\n",
+			new String(output.toByteArray(), exporter.getCharacterSet()));
+		assertEquals(Arrays.asList("iterator 0,1", "detach", "iterator 1,1"), calls);
+	}
 }
@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.extensions.markup.html.repeater.tree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.extensions.markup.html.repeater.tree.nested.Subtree;
+import org.apache.wicket.extensions.markup.html.repeater.util.KeySubset;
+import org.apache.wicket.extensions.markup.html.repeater.util.ProviderSubset;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.Model;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.apache.wicket.util.visit.IVisit;
+import org.apache.wicket.util.visit.IVisitor;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for trees with an {@link IWindowedTreeProvider}.
+ */
+public class WindowedTreeTest extends WicketTestCase
+{
+	/**
+	 * Expansion state is kept by keys if requested.
+	 */
+	@Test
+	public void keyState()
+	{
+		assertTrue(newTree().getModelObject() instanceof ProviderSubset);
+
+		WindowedProvider provider = new WindowedProvider();
+		NestedTree<String> tree = newTree(provider,
+			new KeySubset<>(provider::getKey).createModel());
+
+		tree.expand("1");
+
+		assertTrue(tree.getModelObject() instanceof KeySubset);
+		assertEquals(AbstractTree.State.EXPANDED, tree.getState("1"));
+		assertEquals(AbstractTree.State.COLLAPSED, tree.getState("2"));
+	}
+
+	/**
+	 * Children are shown in windows.
+	 */
+	@Test
+	public void showMoreChildren()
+	{
+		NestedTree<String> tree = newTree();
+		tree.setChildWindowSize(4);
+
+		assertEquals(Arrays.asList("1.0", "1.1", "1.2", "1.3"), list(tree.getChildren("1")));
+		assertTrue(tree.hasMoreChildren("1"));
+
+		tree.showMoreChildren("1");
+		assertEquals(8, list(tree.getChildren("1")).size());
+		assertTrue(tree.hasMoreChildren("1"));
+
+		tree.showMoreChildren("1");
+		assertEquals(10, list(tree.getChildren("1")).size());
+		assertFalse(tree.hasMoreChildren("1"));
+		assertEquals(4, list(tree.getChildren("2")).size());
+
+		tree.collapse("1");
+		assertEquals(4, list(tree.getChildren("1")).size());
+	}
+
+	/**
+	 * Roots are shown in windows too.
+	 */
+	@Test
+	public void showMoreRoots()
+	{
+		NestedTree<String> tree = newTree();
+		tree.setChildWindowSize(1);
+
+		assertEquals(Arrays.asList("1"), list(tree.getRoots()));
+		assertTrue(tree.hasMoreChildren(null));
+
+		tree.showMoreChildren(null);
+		assertEquals(Arrays.asList("1", "2"), list(tree.getRoots()));
+		assertFalse(tree.hasMoreChildren(null));
+	}
+
+	/**
+	 * The link to show more children is rendered for expanded nodes only.
+	 */
+	@Test
+	public void moreChildrenLink()
+	{
+		NestedTree<String> tree = newTree();
+		tree.setChildWindowSize(4);
+		tree.expand("1");
+
+		tester.startComponentInPage(tree);
+		tester.assertContains(
+			"<div class=\"tree-more\"><a id=\"[^\"]+_more\" href=\"#\">more</a></div>");
+		tester.assertContains("1\\.3");
+		tester.assertContainsNot("1\\.4");
+		tester.assertContainsNot("2\\.0");
+
+		Subtree<String> subtree = findSubtree(tree, "1");
+		assertEquals(1, findSubtree(tree, null).getBehaviors(MoreChildrenBehavior.class).size());
+
+		tester.executeBehavior(subtree.getBehaviors(MoreChildrenBehavior.class).get(0));
+		assertEquals(8, list(tree.getChildren("1")).size());
+		tester.assertComponentOnAjaxResponse(subtree.getParent());
+		tester.assertContains("1\\.7");
+	}
+
+	/**
+	 * The link to show more roots is rendered for the roots subtree.
+	 */
+	@Test
+	public void moreRootsLink()
+	{
+		NestedTree<String> tree = newTree();
+		tree.setChildWindowSize(1);
+
+		tester.startComponentInPage(tree);
+		tester.assertContains("tree-more");
+
+		Subtree<String> roots = findSubtree(tree, null);
+		tester.executeBehavior(roots.getBehaviors(MoreChildrenBehavior.class).get(0));
+		assertEquals(2, list(tree.getRoots()).size());
+		tester.assertComponentOnAjaxResponse(roots);
+		tester.assertContainsNot("tree-more");
+	}
+
+	private Subtree<String> findSubtree(NestedTree<String> tree, String node)
+	{
+		return tree.visitChildren(Subtree.class, new IVisitor<Subtree<String>, Subtree<String>>()
+		{
+			@Override
+			public void component(Subtree<String> subtree, IVisit<Subtree<String>> visit)
+			{
+				if (Objects.equals(node, subtree.getDefaultModelObject()))
+				{
+					visit.stop(subtree);
+				}
+			}
+		});
+	}
+
+	private NestedTree<String> newTree()
+	{
+		return newTree(new WindowedProvider(), null);
+	}
+
+	private NestedTree<String> newTree(WindowedProvider provider, IModel<Set<String>> state)
+	{
+		return new NestedTree<String>("tree", provider, state)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected Component newContentComponent(String id, IModel<String> model)
+			{
+				return new Label(id, model);
+			}
+		};
+	}
+
+	private List<String> list(Iterator<? extends String> iterator)
+	{
+		List<String> list = new ArrayList<>();
+		iterator.forEachRemaining(list::add);
+		return list;
+	}
+
+	/**
+	 * Each root has 10 children.
+	 */
+	private static class WindowedProvider implements IWindowedTreeProvider<String>
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public long getRootCount()
+		{
+			return 2;
+		}
+
+		@Override
+		public Iterator<? extends String> getRoots(long first, long count)
+		{
+			return Arrays.asList("1", "2")
+				.subList((int)first, (int)Math.min(first + count, getRootCount()))
+				.iterator();
+		}
+
+		@Override
+		public boolean hasChildren(String node)
+		{
+			return node.indexOf('.') == -1;
+		}
+
+		@Override
+		public Serializable getKey(String node)
+		{
+			return node;
+		}
+
+		@Override
+		public long getChildCount(String node)
+		{
+			return hasChildren(node) ? 10 : 0;
+		}
+
+		@Override
+		public Iterator<? extends String> getChildren(String node, long first, long count)
+		{
+			List<String> children = new ArrayList<>();
+			for (long i = first; i < Math.min(first + count, getChildCount(node)); i++)
+			{
+				children.add(node + "." + i);
+			}
+			return children.iterator();
+		}
+
+		@Override
+		public IModel<String> model(String node)
+		{
+			return Model.of(node);
+		}
+
+		@Override
+		public void detach()
+		{
+		}
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.extensions.markup.html.repeater.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link KeySubset}.
+ */
+public class KeySubsetTest
+{
+	/**
+	 * Test set methods.
+	 */
+	@Test
+	public void setMethods()
+	{
+		KeySubset<String> subset = new KeySubset<>((String string) -> string.length());
+
+		subset.add("A");
+		subset.addAll(Arrays.asList("AA", "AAA"));
+
+		assertEquals(3, subset.size());
+		assertTrue(subset.getKeys().containsAll(Arrays.asList(1, 2, 3)));
+
+		assertTrue(subset.contains("B"));
+		assertFalse(subset.contains("BBBB"));
+
+		assertTrue(subset.remove("BB"));
+		assertFalse(subset.contains("AA"));
+		assertEquals(2, subset.size());
+
+		assertThrows(UnsupportedOperationException.class, () -> subset.iterator());
+
+		subset.clear();
+		assertTrue(subset.isEmpty());
+	}
+
+	/**
+	 * Subsets are equal by keys.
+	 */
+	@Test
+	public void equalKeys()
+	{
+		KeySubset<String> subset = new KeySubset<>((String string) -> string.length());
+		subset.add("A");
+
+		KeySubset<String> other = new KeySubset<>((String string) -> string.length());
+		other.add("B");
+
+		assertEquals(subset, other);
+		assertEquals(subset.hashCode(), other.hashCode());
+
+		other.add("BB");
+		assertNotEquals(subset, other);
+	}
+}
@@ -21,6 +21,9 @@ import org.apache.wicket.MetaDataKey;
 import org.apache.wicket.Page;
 import org.apache.wicket.protocol.ws.api.IWebSocketConnection;
 import org.apache.wicket.protocol.ws.api.IWebSocketConnectionFilter;
+import org.apache.wicket.protocol.ws.api.IWebSocketMessageHandler;
+import org.apache.wicket.protocol.ws.api.QueuedWebSocketConnection;
+import org.apache.wicket.protocol.ws.api.QueuedWebSocketConnection.OverflowPolicy;
 import org.apache.wicket.protocol.ws.api.ServletRequestCopy;
 import org.apache.wicket.protocol.ws.api.WebSocketConnectionFilterCollection;
 import org.apache.wicket.protocol.ws.api.WebSocketRequest;
@@ -127,6 +130,11 @@ public class WebSocketSettings
 	 */
 	private Executor sendPayloadExecutor = new SameThreadExecutor();
 
+	/**
+	 * The number of connections processed by a single task of the push message executor
+	 */
+	private int pushBatchSize = 1;
+
 	/**
 	 * Tracks all currently connected WebSocket clients
 	 */
@@ -137,6 +145,21 @@ public class WebSocketSettings
 	 */
 	private IWebSocketConnectionFilter connectionFilter;
 
+	/**
+	 * An optional handler for client messages that doesn't need the page
+	 */
+	private IWebSocketMessageHandler messageHandler;
+
+	/**
+	 * The maximum number of queued outgoing messages per connection, 0 to send synchronously
+	 */
+	private int outboundQueueCapacity = 0;
+
+	/**
+	 * What to do when the outbound queue of a connection is full
+	 */
+	private OverflowPolicy outboundQueueOverflowPolicy = OverflowPolicy.DROP_OLDEST;
+
 	/**
 	 * A function that decides whether to notify the page/resource on
 	 * web socket connection closed event.
@@ -192,6 +215,120 @@ public class WebSocketSettings
 		return webSocketPushMessageExecutor;
 	}
 
+	/**
+	 * Sets the number of connections a push message is processed for by a single task of the
+	 * {@link #getWebSocketPushMessageExecutor() push message executor}. Larger batches reduce the
+	 * number of tasks when broadcasting to many connections, but a slow page delays the remaining
+	 * connections of its batch. With batches of more than one connection, an exception thrown for
+	 * a connection is logged so that the remaining connections of the batch are still processed;
+	 * with the default of 1 it is propagated as before.
+	 *
+	 * @param pushBatchSize
+	 *            the number of connections per task, at least 1 (the default)
+	 * @return {@code this}, for method chaining
+	 */
+	public WebSocketSettings setPushBatchSize(int pushBatchSize)
+	{
+		Args.withinRange(1, Integer.MAX_VALUE, pushBatchSize, "pushBatchSize");
+		this.pushBatchSize = pushBatchSize;
+		return this;
+	}
+
+	/**
+	 * @return the number of connections a push message is processed for by a single task
+	 */
+	public int getPushBatchSize()
+	{
+		return pushBatchSize;
+	}
+
+	/**
+	 * Sets a stateless handler for the text and binary messages sent by the clients. Messages
+	 * handled by it are not delivered to the pages and resources, which saves creating a request
+	 * cycle and loading and locking the page for each message.
+	 *
+	 * @param messageHandler
+	 *              the handler or {@code null} to deliver all messages to the pages and resources
+	 * @return {@code this}, for method chaining
+	 */
+	public WebSocketSettings setMessageHandler(IWebSocketMessageHandler messageHandler)
+	{
+		this.messageHandler = messageHandler;
+		return this;
+	}
+
+	/**
+	 * @return the stateless handler for client messages or {@code null}
+	 */
+	public IWebSocketMessageHandler getMessageHandler()
+	{
+		return messageHandler;
+	}
+
+	/**
+	 * Sets the maximum number of outgoing messages queued per connection. With a capacity greater
+	 * than 0 each connection is wrapped in a {@link QueuedWebSocketConnection}, so that the
+	 * threads sending to a slow client are not blocked.
+	 *
+	 * @param outboundQueueCapacity
+	 *              the capacity of the queues or 0 (the default) to send synchronously
+	 * @return {@code this}, for method chaining
+	 */
+	public WebSocketSettings setOutboundQueueCapacity(int outboundQueueCapacity)
+	{
+		Args.withinRange(0, Integer.MAX_VALUE, outboundQueueCapacity, "outboundQueueCapacity");
+		this.outboundQueueCapacity = outboundQueueCapacity;
+		return this;
+	}
+
+	/**
+	 * @return the maximum number of outgoing messages queued per connection
+	 */
+	public int getOutboundQueueCapacity()
+	{
+		return outboundQueueCapacity;
+	}
+
+	/**
+	 * Sets what to do when the outbound queue of a connection is full.
+	 *
+	 * @param outboundQueueOverflowPolicy
+	 *              the policy, {@link OverflowPolicy#DROP_OLDEST} by default
+	 * @return {@code this}, for method chaining
+	 */
+	public WebSocketSettings setOutboundQueueOverflowPolicy(OverflowPolicy outboundQueueOverflowPolicy)
+	{
+		Args.notNull(outboundQueueOverflowPolicy, "outboundQueueOverflowPolicy");
+		this.outboundQueueOverflowPolicy = outboundQueueOverflowPolicy;
+		return this;
+	}
+
+	/**
+	 * @return what to do when the outbound queue of a connection is full
+	 */
+	public OverflowPolicy getOutboundQueueOverflowPolicy()
+	{
+		return outboundQueueOverflowPolicy;
+	}
+
+	/**
+	 * A factory method for the connection registered for a newly opened native connection.
+	 *
+	 * @param connection
+	 *              the native web socket connection
+	 * @return the connection to register, by default a {@link QueuedWebSocketConnection} if
+	 *              an {@link #setOutboundQueueCapacity(int) outbound queue capacity} is set
+	 */
+	public IWebSocketConnection newWebSocketConnection(IWebSocketConnection connection)
+	{
+		if (outboundQueueCapacity > 0)
+		{
+			return new QueuedWebSocketConnection(connection, outboundQueueCapacity,
+				outboundQueueOverflowPolicy);
+		}
+		return connection;
+	}
+
 	/**
 	 * @return The registry that tracks all currently connected WebSocket clients
 	 */
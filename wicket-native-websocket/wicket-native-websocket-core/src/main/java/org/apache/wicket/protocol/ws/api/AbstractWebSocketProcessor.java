@@ -46,6 +46,7 @@ import org.apache.wicket.protocol.ws.api.message.ErrorMessage;
 import org.apache.wicket.protocol.ws.api.message.IWebSocketMessage;
 import org.apache.wicket.protocol.ws.api.message.IWebSocketPushMessage;
 import org.apache.wicket.protocol.ws.api.message.TextMessage;
+import org.apache.wicket.protocol.ws.api.registry.IIndexedWebSocketConnectionRegistry;
 import org.apache.wicket.protocol.ws.api.registry.IKey;
 import org.apache.wicket.protocol.ws.api.registry.IWebSocketConnectionRegistry;
 import org.apache.wicket.protocol.ws.api.registry.PageIdKey;
@@ -148,25 +149,74 @@ public abstract class AbstractWebSocketProcessor implements IWebSocketProcessor
 	@Override
 	public void onMessage(final String message)
 	{
-		broadcastMessage(new TextMessage(getApplication(), getSessionId(), getRegistryKey(), message));
+		TextMessage textMessage = new TextMessage(getApplication(), getSessionId(), getRegistryKey(), message);
+		if (handleWithoutPage(textMessage) == false)
+		{
+			broadcastMessage(textMessage);
+		}
 	}
 
 	@Override
 	public void onMessage(byte[] data, int offset, int length)
 	{
 		BinaryMessage binaryMessage = new BinaryMessage(getApplication(), getSessionId(), getRegistryKey(), data, offset, length);
-		broadcastMessage(binaryMessage);
+		if (handleWithoutPage(binaryMessage) == false)
+		{
+			broadcastMessage(binaryMessage);
+		}
+	}
+
+	/**
+	 * Passes the message to the stateless {@link IWebSocketMessageHandler}, if any. An exception
+	 * thrown by the handler is propagated to the container.
+	 *
+	 * @param message
+	 *      a text or binary message
+	 * @return {@code true} if the message has been handled and must not be broadcast to the page
+	 */
+	private boolean handleWithoutPage(final IWebSocketMessage message)
+	{
+		IWebSocketMessageHandler messageHandler = webSocketSettings.getMessageHandler();
+		if (messageHandler == null)
+		{
+			return false;
+		}
+
+		IWebSocketConnection connection = connectionRegistry.getConnection(application, sessionId, getRegistryKey());
+		if (connection == null || connection.isOpen() == false)
+		{
+			return false;
+		}
+
+		Application oldApplication = ThreadContext.getApplication();
+		ThreadContext.setApplication(application);
+		try
+		{
+			if (message instanceof TextMessage)
+			{
+				return messageHandler.onMessage(connection, (TextMessage) message);
+			}
+			else
+			{
+				return messageHandler.onMessage(connection, (BinaryMessage) message);
+			}
+		}
+		finally
+		{
+			ThreadContext.setApplication(oldApplication);
+		}
 	}
 
 	/**
 	 * A helper that registers the opened connection in the application-level registry.
 	 *
-	 * @param connection
+	 * @param nativeConnection
 	 *            the web socket connection to use to communicate with the client
 	 * @see #onOpen(Object)
 	 */
-	protected final void onConnect(final IWebSocketConnection connection) {
+	protected final void onConnect(final IWebSocketConnection nativeConnection) {
 		IKey key = getRegistryKey();
+		IWebSocketConnection connection = webSocketSettings.newWebSocketConnection(nativeConnection);
 		connectionRegistry.setConnection(getApplication(), getSessionId(), key, connection);
 
 		if (connectionFilter != null)
@@ -191,6 +241,12 @@ public abstract class AbstractWebSocketProcessor implements IWebSocketProcessor
 		if (webSocketSettings.shouldNotifyOnCloseEvent(closeCode)) {
 			broadcastMessage(new ClosedMessage(getApplication(), getSessionId(), key, closeCode, message));
 		}
+		IWebSocketConnection connection = connectionRegistry.getConnection(getApplication(), getSessionId(), key);
+		if (connection instanceof QueuedWebSocketConnection)
+		{
+			// release the payloads which will never be written
+			((QueuedWebSocketConnection)connection).discard();
+		}
 		connectionRegistry.removeConnection(getApplication(), getSessionId(), key);
 	}
 
@@ -259,6 +315,13 @@ public abstract class AbstractWebSocketProcessor implements IWebSocketProcessor
 
 				if (page != null)
 				{
+					if (message instanceof ConnectedMessage && pageId != NO_PAGE_ID &&
+						connectionRegistry instanceof IIndexedWebSocketConnectionRegistry)
+					{
+						((IIndexedWebSocketConnectionRegistry)connectionRegistry).setPageClass(application,
+							sessionId, key, page.getPageClass());
+					}
+
 					WebSocketRequestHandler requestHandler = webSocketSettings.newWebSocketRequestHandler(page, connection);
 
 					WebSocketPayload payload = createEventPayload(message, requestHandler);
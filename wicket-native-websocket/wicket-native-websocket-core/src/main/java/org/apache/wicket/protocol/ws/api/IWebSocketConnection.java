@@ -17,6 +17,8 @@
 package org.apache.wicket.protocol.ws.api;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.wicket.Application;
 import org.apache.wicket.protocol.ws.api.message.IWebSocketPushMessage;
@@ -69,6 +71,62 @@ public interface IWebSocketConnection
 	 */
 	IWebSocketConnection sendMessage(byte[] message, int offset, int length) throws IOException;
 
+	/**
+	 * Sends a text message to the client without waiting for the client to receive it.
+	 * <p>
+	 *     The default implementation sends the message synchronously. Implementations backed by
+	 *     a container with an asynchronous send API should override it.
+	 * </p>
+	 *
+	 * @param message
+	 *      the text message
+	 * @return a stage completed when the message has been written to the client
+	 */
+	default CompletionStage<Void> sendMessageAsync(String message)
+	{
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		try
+		{
+			sendMessage(message);
+			result.complete(null);
+		}
+		catch (IOException | RuntimeException x)
+		{
+			result.completeExceptionally(x);
+		}
+		return result;
+	}
+
+	/**
+	 * Sends a binary message to the client without waiting for the client to receive it.
+	 * <p>
+	 *     The default implementation sends the message synchronously. Implementations backed by
+	 *     a container with an asynchronous send API should override it.
+	 * </p>
+	 *
+	 * @param message
+	 *      the binary message
+	 * @param offset
+	 *      the offset to read from
+	 * @param length
+	 *      how much data to read
+	 * @return a stage completed when the message has been written to the client
+	 */
+	default CompletionStage<Void> sendMessageAsync(byte[] message, int offset, int length)
+	{
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		try
+		{
+			sendMessage(message, offset, length);
+			result.complete(null);
+		}
+		catch (IOException | RuntimeException x)
+		{
+			result.completeExceptionally(x);
+		}
+		return result;
+	}
+
 	/**
 	 * Broadcasts a push message to the wicket page (and it's components) associated with this
 	 * connection. The components can then send messages or component updates to client by adding
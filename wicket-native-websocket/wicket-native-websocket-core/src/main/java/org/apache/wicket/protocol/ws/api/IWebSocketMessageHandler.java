@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.api;
+
+import org.apache.wicket.protocol.ws.api.message.BinaryMessage;
+import org.apache.wicket.protocol.ws.api.message.TextMessage;
+
+/**
+ * A stateless handler for the text and binary messages sent by the clients.
+ * <p>
+ *     The handler is asked before a message is delivered to the page or resource of its
+ *     connection. A message handled by it is not delivered any further, so no request cycle is
+ *     created, no session is looked up and no page is loaded from the page store or locked.
+ *     This makes it suitable for high-frequency streams like telemetry or chat messages which
+ *     don't need to update components.
+ * </p>
+ * <p>
+ *     The handler is called in the container's thread with only the
+ *     {@link org.apache.wicket.Application} bound to it. Replies can be sent with
+ *     {@link IWebSocketConnection#sendMessage(String)}. Exceptions thrown by the handler are
+ *     not caught, they are propagated to the container like any other failure while
+ *     processing a message.
+ * </p>
+ *
+ * @see org.apache.wicket.protocol.ws.WebSocketSettings#setMessageHandler(IWebSocketMessageHandler)
+ */
+public interface IWebSocketMessageHandler
+{
+	/**
+	 * Handles a text message.
+	 *
+	 * @param connection
+	 *          the connection the message has been received with
+	 * @param message
+	 *          the text message sent by the client
+	 * @return {@code true} if the message has been handled, {@code false} to deliver it to the
+	 *          page or resource of the connection
+	 */
+	default boolean onMessage(IWebSocketConnection connection, TextMessage message)
+	{
+		return false;
+	}
+
+	/**
+	 * Handles a binary message.
+	 *
+	 * @param connection
+	 *          the connection the message has been received with
+	 * @param message
+	 *          the binary message sent by the client
+	 * @return {@code true} if the message has been handled, {@code false} to deliver it to the
+	 *          page or resource of the connection
+	 */
+	default boolean onMessage(IWebSocketConnection connection, BinaryMessage message)
+	{
+		return false;
+	}
+}
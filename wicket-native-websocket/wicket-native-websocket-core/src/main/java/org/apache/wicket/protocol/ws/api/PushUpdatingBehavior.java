@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.api;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.Component;
+import org.apache.wicket.Page;
+import org.apache.wicket.behavior.Behavior;
+import org.apache.wicket.event.IEvent;
+import org.apache.wicket.protocol.ws.WebSocketSettings;
+import org.apache.wicket.protocol.ws.api.event.WebSocketPushPayload;
+import org.apache.wicket.protocol.ws.api.message.DirtyMessage;
+import org.apache.wicket.protocol.ws.api.registry.IIndexedWebSocketConnectionRegistry;
+import org.apache.wicket.protocol.ws.api.registry.IWebSocketConnectionRegistry;
+import org.apache.wicket.protocol.ws.api.registry.PageIdKey;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A push based alternative to {@link org.apache.wicket.ajax.AjaxSelfUpdatingTimerBehavior}: the
+ * component is updated when the server marks its key dirty with
+ * {@link WebSocketPushBroadcaster#markDirty(org.apache.wicket.Application, String)}, instead of
+ * polling the server periodically.
+ * <p>
+ * The updates of all components of a page are pushed over a single Web Socket connection, which
+ * requires a {@link PushUpdatingChannelBehavior} on the page. With an
+ * {@link IIndexedWebSocketConnectionRegistry} a behavior added after the page has connected
+ * subscribes the connection to its key when its component is configured for render.
+ * </p>
+ */
+public class PushUpdatingBehavior extends Behavior
+{
+	private final String key;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param key
+	 *      the key marked dirty when the component needs to be updated
+	 */
+	public PushUpdatingBehavior(String key)
+	{
+		this.key = Args.notNull(key, "key");
+	}
+
+	/**
+	 * @return the key marked dirty when the component needs to be updated
+	 */
+	public String getKey()
+	{
+		return key;
+	}
+
+	@Override
+	public void bind(Component component)
+	{
+		super.bind(component);
+
+		component.setOutputMarkupId(true);
+	}
+
+	@Override
+	public void onConfigure(Component component)
+	{
+		super.onConfigure(component);
+
+		subscribe(component);
+	}
+
+	/**
+	 * Subscribes the connection of the page to the key, in case the page connected before this
+	 * behavior was added. Does nothing if the page has no connection yet, then the
+	 * {@link PushUpdatingChannelBehavior} subscribes when it connects.
+	 *
+	 * @param component
+	 *      the component this behavior is bound to
+	 */
+	private void subscribe(Component component)
+	{
+		Application application = component.getApplication();
+		IWebSocketConnectionRegistry registry = WebSocketSettings.Holder.get(application)
+			.getConnectionRegistry();
+		if (registry instanceof IIndexedWebSocketConnectionRegistry == false)
+		{
+			return;
+		}
+
+		String sessionId = component.getSession().getId();
+		if (sessionId != null)
+		{
+			Page page = component.getPage();
+			((IIndexedWebSocketConnectionRegistry)registry).subscribe(application, sessionId,
+				new PageIdKey(page.getPageId()), DirtyMessage.toTopic(key));
+		}
+	}
+
+	@Override
+	public void onEvent(Component component, IEvent<?> event)
+	{
+		super.onEvent(component, event);
+
+		Object payload = event.getPayload();
+		if (payload instanceof WebSocketPushPayload)
+		{
+			WebSocketPushPayload pushPayload = (WebSocketPushPayload)payload;
+			if (pushPayload.getMessage() instanceof DirtyMessage &&
+				key.equals(((DirtyMessage)pushPayload.getMessage()).getKey()) &&
+				component.isVisibleInHierarchy())
+			{
+				WebSocketRequestHandler handler = pushPayload.getHandler();
+				handler.add(component);
+				onUpdate(component, handler);
+			}
+		}
+	}
+
+	/**
+	 * Called when the component is updated.
+	 *
+	 * @param component
+	 *      the updated component
+	 * @param handler
+	 *      the handler to add further components to
+	 */
+	protected void onUpdate(Component component, WebSocketRequestHandler handler)
+	{
+	}
+}
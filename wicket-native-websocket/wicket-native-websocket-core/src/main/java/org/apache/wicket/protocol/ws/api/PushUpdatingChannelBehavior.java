@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.api;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.Component;
+import org.apache.wicket.Page;
+import org.apache.wicket.protocol.ws.WebSocketSettings;
+import org.apache.wicket.protocol.ws.api.message.DirtyMessage;
+import org.apache.wicket.protocol.ws.api.registry.IIndexedWebSocketConnectionRegistry;
+
+/**
+ * The Web Socket connection of a page, over which the updates of all its components with a
+ * {@link PushUpdatingBehavior} are pushed.
+ * <p>
+ * With an {@link IIndexedWebSocketConnectionRegistry} the connection is subscribed to the keys of
+ * the components found on the page when it connects, and to the keys of components rendered
+ * later on, so that marking a key dirty loads only the pages with components for that key.
+ * Otherwise all pages with a connection are loaded.
+ * </p>
+ */
+public class PushUpdatingChannelBehavior extends WebSocketBehavior
+{
+	@Override
+	protected Collection<String> getTopics()
+	{
+		if (WebSocketSettings.Holder.get(Application.get())
+			.getConnectionRegistry() instanceof IIndexedWebSocketConnectionRegistry == false)
+		{
+			return Collections.emptyList();
+		}
+
+		Set<String> topics = new LinkedHashSet<>();
+		Page page = getComponent().getPage();
+		collectTopics(page, topics);
+		page.<Component, Void> visitChildren(Component.class, (component, visit) -> collectTopics(component, topics));
+		return topics;
+	}
+
+	private void collectTopics(Component component, Set<String> topics)
+	{
+		for (PushUpdatingBehavior behavior : component.getBehaviors(PushUpdatingBehavior.class))
+		{
+			topics.add(DirtyMessage.toTopic(behavior.getKey()));
+		}
+	}
+}
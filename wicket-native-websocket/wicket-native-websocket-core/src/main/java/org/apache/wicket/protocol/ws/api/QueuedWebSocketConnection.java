@@ -0,0 +1,500 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.api;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.protocol.ws.api.message.IWebSocketPushMessage;
+import org.apache.wicket.protocol.ws.api.registry.IKey;
+import org.apache.wicket.util.lang.Args;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A connection that queues the outgoing text and binary messages and writes them with
+ * {@link IWebSocketConnection#sendMessageAsync(String) asynchronous sends} of the wrapped
+ * connection, one at a time. A slow client therefore does not block the thread sending to it.
+ * <p>
+ *     The queue is bounded, its {@link OverflowPolicy} decides what happens when a message is
+ *     sent to a full queue. Messages sent with a key by {@link #sendMessage(String, String)}
+ *     replace a still queued message with the same key, so that only the latest state of
+ *     e.g. a progress indicator is written to a client which cannot keep up.
+ * </p>
+ *
+ * @see org.apache.wicket.protocol.ws.WebSocketSettings#setOutboundQueueCapacity(int)
+ */
+public class QueuedWebSocketConnection implements IWebSocketConnection
+{
+	private static final Logger LOG = LoggerFactory.getLogger(QueuedWebSocketConnection.class);
+
+	/**
+	 * The close code used by {@link OverflowPolicy#CLOSE}: "Try Again Later"
+	 */
+	public static final int OVERFLOW_CLOSE_CODE = 1013;
+
+	/**
+	 * Decides what happens when a message is sent to a full queue.
+	 */
+	public enum OverflowPolicy
+	{
+		/**
+		 * The oldest queued message is dropped.
+		 */
+		DROP_OLDEST,
+
+		/**
+		 * The new message is dropped.
+		 */
+		DROP_NEWEST,
+
+		/**
+		 * The connection is closed.
+		 */
+		CLOSE
+	}
+
+	private final IWebSocketConnection delegate;
+
+	private final int capacity;
+
+	private final OverflowPolicy overflowPolicy;
+
+	/**
+	 * the queued messages, guarded by {@code this}
+	 */
+	private final Deque<Frame> queue = new ArrayDeque<>();
+
+	/**
+	 * whether a message is being written, guarded by {@code this}
+	 */
+	private boolean flushing;
+
+	private final AtomicLong sentFrames = new AtomicLong();
+
+	private final AtomicLong sentBytes = new AtomicLong();
+
+	private final AtomicLong droppedFrames = new AtomicLong();
+
+	private final AtomicLong coalescedFrames = new AtomicLong();
+
+	private final AtomicLong failedFrames = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param delegate
+	 *      the connection to write to
+	 * @param capacity
+	 *      the maximum number of queued messages
+	 * @param overflowPolicy
+	 *      what to do when the queue is full
+	 */
+	public QueuedWebSocketConnection(IWebSocketConnection delegate, int capacity, OverflowPolicy overflowPolicy)
+	{
+		this.delegate = Args.notNull(delegate, "delegate");
+		this.capacity = Args.withinRange(1, Integer.MAX_VALUE, capacity, "capacity");
+		this.overflowPolicy = Args.notNull(overflowPolicy, "overflowPolicy");
+	}
+
+	/**
+	 * @return the wrapped connection
+	 */
+	public IWebSocketConnection getDelegate()
+	{
+		return delegate;
+	}
+
+	@Override
+	public boolean isOpen()
+	{
+		return delegate.isOpen();
+	}
+
+	@Override
+	public void close(int code, String reason)
+	{
+		discard();
+		delegate.close(code, reason);
+	}
+
+	/**
+	 * Drops all queued messages, e.g. because the client has closed the connection. The dropped
+	 * messages are counted by {@link #getDroppedFrames()}.
+	 */
+	public void discard()
+	{
+		synchronized (this)
+		{
+			droppedFrames.addAndGet(queue.size());
+			queue.clear();
+		}
+	}
+
+	@Override
+	public IWebSocketConnection sendMessage(String message)
+	{
+		return sendMessage(null, message);
+	}
+
+	/**
+	 * Queues a text message which replaces a still queued message with the same key.
+	 *
+	 * @param key
+	 *      the key to coalesce by, or {@code null} to never coalesce the message
+	 * @param message
+	 *      the text message
+	 * @return {@code this} object, for chaining methods
+	 */
+	public IWebSocketConnection sendMessage(String key, String message)
+	{
+		Args.notNull(message, "message");
+
+		enqueue(new TextFrame(key, message));
+		return this;
+	}
+
+	@Override
+	public IWebSocketConnection sendMessage(byte[] message, int offset, int length)
+	{
+		Args.notNull(message, "message");
+
+		// the caller may reuse the array
+		byte[] copy = new byte[length];
+		System.arraycopy(message, offset, copy, 0, length);
+		enqueue(new BinaryFrame(copy));
+		return this;
+	}
+
+	@Override
+	public void sendMessage(IWebSocketPushMessage message)
+	{
+		delegate.sendMessage(message);
+	}
+
+	@Override
+	public Application getApplication()
+	{
+		return delegate.getApplication();
+	}
+
+	@Override
+	public String getSessionId()
+	{
+		return delegate.getSessionId();
+	}
+
+	@Override
+	public IKey getKey()
+	{
+		return delegate.getKey();
+	}
+
+	/**
+	 * @return the number of queued messages
+	 */
+	public synchronized int getQueueDepth()
+	{
+		return queue.size();
+	}
+
+	/**
+	 * @return the number of messages written to the client
+	 */
+	public long getSentFrames()
+	{
+		return sentFrames.get();
+	}
+
+	/**
+	 * @return the number of bytes written to the client. Text messages are counted by their
+	 *      UTF-8 encoded length.
+	 */
+	public long getSentBytes()
+	{
+		return sentBytes.get();
+	}
+
+	/**
+	 * @return the number of messages dropped because of a full or closed queue
+	 */
+	public long getDroppedFrames()
+	{
+		return droppedFrames.get();
+	}
+
+	/**
+	 * @return the number of queued messages replaced by a newer message with the same key
+	 */
+	public long getCoalescedFrames()
+	{
+		return coalescedFrames.get();
+	}
+
+	/**
+	 * @return the number of messages which could not be written to the client
+	 */
+	public long getFailedFrames()
+	{
+		return failedFrames.get();
+	}
+
+	private void enqueue(Frame frame)
+	{
+		if (isOpen() == false)
+		{
+			throw new IllegalStateException("The connection is closed.");
+		}
+
+		boolean overflow = false;
+		boolean flush = false;
+		synchronized (this)
+		{
+			if (frame.key != null && coalesce(frame))
+			{
+				return;
+			}
+
+			if (queue.size() >= capacity)
+			{
+				switch (overflowPolicy)
+				{
+					case DROP_OLDEST :
+						queue.pollFirst();
+						droppedFrames.incrementAndGet();
+						break;
+					case DROP_NEWEST :
+						droppedFrames.incrementAndGet();
+						return;
+					case CLOSE :
+						overflow = true;
+						break;
+				}
+			}
+
+			if (overflow == false)
+			{
+				queue.addLast(frame);
+				if (flushing == false)
+				{
+					flushing = true;
+					flush = true;
+				}
+			}
+		}
+
+		if (overflow)
+		{
+			droppedFrames.incrementAndGet();
+			LOG.warn("Closing the WebSocket connection with key '{}' because its outbound queue is full",
+				getKey());
+			close(OVERFLOW_CLOSE_CODE, "Outbound queue overflow");
+		}
+		else if (flush)
+		{
+			flush();
+		}
+	}
+
+	/**
+	 * Must be called while holding the monitor of {@code this}.
+	 */
+	private boolean coalesce(Frame frame)
+	{
+		for (Frame queued : queue)
+		{
+			if (frame.key.equals(queued.key))
+			{
+				((TextFrame)queued).message = ((TextFrame)frame).message;
+				coalescedFrames.incrementAndGet();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Writes the queued messages one after another. Continues in the callback of an
+	 * asynchronous send which did not complete immediately.
+	 */
+	private void flush()
+	{
+		while (true)
+		{
+			Frame frame;
+			synchronized (this)
+			{
+				frame = queue.pollFirst();
+				if (frame == null)
+				{
+					flushing = false;
+					return;
+				}
+			}
+
+			CompletableFuture<Void> sent;
+			try
+			{
+				sent = frame.send(delegate).toCompletableFuture();
+			}
+			catch (RuntimeException x)
+			{
+				sent = new CompletableFuture<>();
+				sent.completeExceptionally(x);
+			}
+
+			if (sent.isDone() == false)
+			{
+				sent.whenComplete((result, failure) -> {
+					onSent(frame, failure);
+					flush();
+				});
+				return;
+			}
+
+			onSent(frame, getFailure(sent));
+		}
+	}
+
+	private void onSent(Frame frame, Throwable failure)
+	{
+		if (failure == null)
+		{
+			sentFrames.incrementAndGet();
+			sentBytes.addAndGet(frame.size());
+		}
+		else
+		{
+			failedFrames.incrementAndGet();
+			LOG.debug("Could not write a message to the WebSocket connection with key '{}'", getKey(), failure);
+		}
+	}
+
+	private static Throwable getFailure(CompletableFuture<Void> sent)
+	{
+		try
+		{
+			sent.join();
+			return null;
+		}
+		catch (CompletionException x)
+		{
+			return x.getCause();
+		}
+		catch (CancellationException x)
+		{
+			return x;
+		}
+	}
+
+	/**
+	 * A queued message
+	 */
+	private static abstract class Frame
+	{
+		private final String key;
+
+		private Frame(String key)
+		{
+			this.key = key;
+		}
+
+		protected abstract CompletionStage<Void> send(IWebSocketConnection connection);
+
+		protected abstract long size();
+	}
+
+	private static class TextFrame extends Frame
+	{
+		/**
+		 * replaced when coalescing, guarded by the monitor of the connection
+		 */
+		private String message;
+
+		private TextFrame(String key, String message)
+		{
+			super(key);
+			this.message = message;
+		}
+
+		@Override
+		protected CompletionStage<Void> send(IWebSocketConnection connection)
+		{
+			return connection.sendMessageAsync(message);
+		}
+
+		@Override
+		protected long size()
+		{
+			// count the encoded length without encoding the message
+			String text = message;
+			long size = 0;
+			for (int i = 0; i < text.length(); i++)
+			{
+				char c = text.charAt(i);
+				if (c < 0x80)
+				{
+					size += 1;
+				}
+				else if (c < 0x800)
+				{
+					size += 2;
+				}
+				else if (Character.isHighSurrogate(c) && i + 1 < text.length() &&
+					Character.isLowSurrogate(text.charAt(i + 1)))
+				{
+					size += 4;
+					i++;
+				}
+				else
+				{
+					size += 3;
+				}
+			}
+			return size;
+		}
+	}
+
+	private static class BinaryFrame extends Frame
+	{
+		private final byte[] message;
+
+		private BinaryFrame(byte[] message)
+		{
+			super(null);
+			this.message = message;
+		}
+
+		@Override
+		protected CompletionStage<Void> send(IWebSocketConnection connection)
+		{
+			return connection.sendMessageAsync(message, 0, message.length);
+		}
+
+		@Override
+		protected long size()
+		{
+			return message.length;
+		}
+	}
+}
@@ -16,8 +16,12 @@
  */
 package org.apache.wicket.protocol.ws.api;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import org.apache.wicket.Component;
 import org.apache.wicket.event.IEvent;
+import org.apache.wicket.protocol.ws.WebSocketSettings;
 import org.apache.wicket.protocol.ws.api.event.WebSocketAbortedPayload;
 import org.apache.wicket.protocol.ws.api.event.WebSocketBinaryPayload;
 import org.apache.wicket.protocol.ws.api.event.WebSocketClosedPayload;
@@ -33,6 +37,8 @@ import org.apache.wicket.protocol.ws.api.message.ConnectedMessage;
 import org.apache.wicket.protocol.ws.api.message.ErrorMessage;
 import org.apache.wicket.protocol.ws.api.message.IWebSocketPushMessage;
 import org.apache.wicket.protocol.ws.api.message.TextMessage;
+import org.apache.wicket.protocol.ws.api.registry.IIndexedWebSocketConnectionRegistry;
+import org.apache.wicket.protocol.ws.api.registry.IWebSocketConnectionRegistry;
 
 /**
  * A behavior that provides optional callbacks for the WebSocket
@@ -73,6 +79,7 @@ public abstract class WebSocketBehavior extends BaseWebSocketBehavior
 			{
 				WebSocketConnectedPayload connectedPayload = (WebSocketConnectedPayload) wsPayload;
 				ConnectedMessage message = connectedPayload.getMessage();
+				subscribe(message);
 				onConnect(message);
 			}
 			else if (wsPayload instanceof WebSocketClosedPayload)
@@ -102,6 +109,53 @@ public abstract class WebSocketBehavior extends BaseWebSocketBehavior
 		}
 	}
 
+	/**
+	 * Subscribes the connection to the {@link #getTopics() topics} of this behavior.
+	 *
+	 * @param message
+	 *          the connect message with the info about the client
+	 */
+	private void subscribe(ConnectedMessage message)
+	{
+		Collection<String> topics = getTopics();
+		if (topics.isEmpty())
+		{
+			return;
+		}
+
+		IWebSocketConnectionRegistry registry = WebSocketSettings.Holder.get(message.getApplication())
+				.getConnectionRegistry();
+		if (registry instanceof IIndexedWebSocketConnectionRegistry == false)
+		{
+			throw new IllegalStateException("Subscribing to topics requires an " +
+					IIndexedWebSocketConnectionRegistry.class.getSimpleName() + " but the registry is " +
+					registry.getClass().getName());
+		}
+
+		for (String topic : topics)
+		{
+			((IIndexedWebSocketConnectionRegistry) registry).subscribe(message.getApplication(),
+					message.getSessionId(), message.getKey(), topic);
+		}
+	}
+
+	/**
+	 * The topics the connection of this behavior subscribes to when it connects. Messages
+	 * broadcasted with {@link WebSocketPushBroadcaster#broadcastToTopic(org.apache.wicket.Application, String, IWebSocketPushMessage)}
+	 * are processed only by the pages subscribed to their topic, so other pages are neither loaded
+	 * nor locked.
+	 * <p>
+	 *     Requires an {@link IIndexedWebSocketConnectionRegistry}, see
+	 *     {@link WebSocketSettings#setConnectionRegistry(IWebSocketConnectionRegistry)}.
+	 * </p>
+	 *
+	 * @return the topics to subscribe to, empty by default
+	 */
+	protected Collection<String> getTopics()
+	{
+		return Collections.emptyList();
+	}
+
 	/**
 	 * A callback method called when there is a message pushed/broadcasted by the
 	 * server, e.g. pushed by a backend service
@@ -18,16 +18,25 @@ package org.apache.wicket.protocol.ws.api;
 
 import static java.util.Collections.singletonList;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 import org.apache.wicket.Application;
+import org.apache.wicket.Page;
 import org.apache.wicket.protocol.ws.WebSocketSettings;
 import org.apache.wicket.protocol.ws.api.message.ConnectedMessage;
+import org.apache.wicket.protocol.ws.api.message.DirtyMessage;
 import org.apache.wicket.protocol.ws.api.message.IWebSocketPushMessage;
+import org.apache.wicket.protocol.ws.api.registry.IIndexedWebSocketConnectionRegistry;
 import org.apache.wicket.protocol.ws.api.registry.IKey;
 import org.apache.wicket.protocol.ws.api.registry.IWebSocketConnectionRegistry;
 import org.apache.wicket.protocol.ws.concurrent.Executor;
 import org.apache.wicket.util.lang.Args;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Allows pushing events for processing to Pages that have active web sockets.
@@ -37,6 +46,8 @@ import org.apache.wicket.util.lang.Args;
  */
 public class WebSocketPushBroadcaster
 {
+	private static final Logger LOG = LoggerFactory.getLogger(WebSocketPushBroadcaster.class);
+
 	private final IWebSocketConnectionRegistry registry;
 
 	public WebSocketPushBroadcaster(IWebSocketConnectionRegistry registry)
@@ -109,21 +120,210 @@ public class WebSocketPushBroadcaster
 		process(application, wsConnections, message);
 	}
 
+	/**
+	 * Processes the given message in all pages of the given class that have active Web Socket
+	 * connections. Requires an {@link IIndexedWebSocketConnectionRegistry}.
+	 *
+	 * @param application
+	 *			The wicket application
+	 * @param pageClass
+	 *			The class of the pages to process the message in
+	 * @param message
+	 *			The push message event
+	 * @see #broadcastAll(Application, IWebSocketPushMessage)
+	 */
+	public void broadcastToPageClass(Application application, Class<? extends Page> pageClass,
+	                                 IWebSocketPushMessage message)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(pageClass, "pageClass");
+		Args.notNull(message, "message");
+
+		process(application, getIndexedRegistry().getConnectionsByPageClass(application, pageClass), message);
+	}
+
+	/**
+	 * Processes the given message in all {@link WebSocketResource}s with the given name that have
+	 * active Web Socket connections. Requires an {@link IIndexedWebSocketConnectionRegistry}.
+	 *
+	 * @param application
+	 *			The wicket application
+	 * @param resourceName
+	 *			The name of the shared resource
+	 * @param message
+	 *			The push message event
+	 * @see #broadcastAll(Application, IWebSocketPushMessage)
+	 */
+	public void broadcastToResource(Application application, String resourceName,
+	                                IWebSocketPushMessage message)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(resourceName, "resourceName");
+		Args.notNull(message, "message");
+
+		process(application, getIndexedRegistry().getConnectionsByResourceName(application, resourceName), message);
+	}
+
+	/**
+	 * Processes the given message in all pages subscribed to the given topic, see
+	 * {@link WebSocketBehavior#getTopics()}. Pages not subscribed to the topic are neither loaded
+	 * nor locked. Requires an {@link IIndexedWebSocketConnectionRegistry}.
+	 *
+	 * @param application
+	 *			The wicket application
+	 * @param topic
+	 *			The topic of the message
+	 * @param message
+	 *			The push message event
+	 * @see #broadcastAll(Application, IWebSocketPushMessage)
+	 */
+	public void broadcastToTopic(Application application, String topic, IWebSocketPushMessage message)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(topic, "topic");
+		Args.notNull(message, "message");
+
+		process(application, getIndexedRegistry().getConnectionsByTopic(application, topic), message);
+	}
+
+	/**
+	 * Marks the components with a {@link PushUpdatingBehavior} for the given key dirty, so that
+	 * they are updated in all pages with a {@link PushUpdatingChannelBehavior}. With an
+	 * {@link IIndexedWebSocketConnectionRegistry} only the pages with such components are
+	 * processed.
+	 *
+	 * @param application
+	 *			The wicket application
+	 * @param key
+	 *			The key of the dirty components
+	 */
+	public void markDirty(Application application, String key)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(key, "key");
+
+		DirtyMessage message = new DirtyMessage(key);
+		if (registry instanceof IIndexedWebSocketConnectionRegistry)
+		{
+			broadcastToTopic(application, DirtyMessage.toTopic(key), message);
+		}
+		else
+		{
+			broadcastAll(application, message);
+		}
+	}
+
+	/**
+	 * Sends the given text directly to all open Web Socket connections, without processing it in
+	 * their pages. The text is encoded once by the caller (e.g. as JSON) and shared by all
+	 * connections, so this is the cheapest way to push the same data to many clients.
+	 *
+	 * @param application
+	 *			The wicket application
+	 * @param text
+	 *			The text to send
+	 */
+	public void sendAll(Application application, final String text)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(text, "text");
+
+		Collection<IWebSocketConnection> wsConnections = registry.getConnections(application);
+		if (wsConnections == null)
+		{
+			return;
+		}
+		process(application, wsConnections, wsConnection -> {
+			if (wsConnection.isOpen())
+			{
+				try
+				{
+					wsConnection.sendMessage(text);
+				}
+				catch (IOException e)
+				{
+					LOG.debug("Could not send a message to connection {}", wsConnection, e);
+				}
+			}
+		});
+	}
+
+	private IIndexedWebSocketConnectionRegistry getIndexedRegistry()
+	{
+		if (registry instanceof IIndexedWebSocketConnectionRegistry)
+		{
+			return (IIndexedWebSocketConnectionRegistry)registry;
+		}
+		throw new IllegalStateException("Broadcasting to a subset of connections requires an " +
+			IIndexedWebSocketConnectionRegistry.class.getSimpleName() + " but the registry is " +
+			registry.getClass().getName());
+	}
+
 	private void process(final Application application, final Collection<IWebSocketConnection> wsConnections,
 	                     final IWebSocketPushMessage message)
+	{
+		process(application, wsConnections, wsConnection -> wsConnection.sendMessage(message));
+	}
+
+	/**
+	 * Runs the given action for all connections with the push message executor, in batches of
+	 * {@link WebSocketSettings#getPushBatchSize()} connections per task.
+	 * <p>
+	 * Exceptions are propagated to the executor for single connection tasks, as with the default
+	 * batch size of 1. In larger batches they are logged so they do not break the rest of the
+	 * batch.
+	 * </p>
+	 */
+	private void process(final Application application, final Collection<IWebSocketConnection> wsConnections,
+	                     final Consumer<IWebSocketConnection> action)
 	{
 		WebSocketSettings webSocketSettings = WebSocketSettings.Holder.get(application);
 		Executor executor = webSocketSettings.getWebSocketPushMessageExecutor();
+		int batchSize = webSocketSettings.getPushBatchSize();
+
+		List<IWebSocketConnection> batch = new ArrayList<>(Math.min(batchSize, 64));
 		for (final IWebSocketConnection wsConnection : wsConnections)
 		{
-			executor.run(new Runnable()
+			batch.add(wsConnection);
+			if (batch.size() >= batchSize)
+			{
+				run(executor, batch, action, batchSize > 1);
+				batch = new ArrayList<>(Math.min(batchSize, 64));
+			}
+		}
+		if (batch.isEmpty() == false)
+		{
+			run(executor, batch, action, batchSize > 1);
+		}
+	}
+
+	private void run(Executor executor, final List<IWebSocketConnection> batch,
+	                 final Consumer<IWebSocketConnection> action, final boolean isolate)
+	{
+		executor.run(new Runnable()
+		{
+			@Override
+			public void run()
 			{
-				@Override
-				public void run()
+				for (IWebSocketConnection wsConnection : batch)
 				{
-					wsConnection.sendMessage(message);
+					if (isolate == false)
+					{
+						action.accept(wsConnection);
+						continue;
+					}
+
+					try
+					{
+						action.accept(wsConnection);
+					}
+					catch (RuntimeException e)
+					{
+						// do not let a single connection break the rest of the batch
+						LOG.error("An error occurred while pushing to connection {}", wsConnection, e);
+					}
 				}
-			});
-		}
+			}
+		});
 	}
 }
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.api.message;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A push message telling the components with a
+ * {@link org.apache.wicket.protocol.ws.api.PushUpdatingBehavior} for its key that they have to
+ * be updated.
+ *
+ * @see org.apache.wicket.protocol.ws.api.WebSocketPushBroadcaster#markDirty(org.apache.wicket.Application, String)
+ */
+public class DirtyMessage implements IWebSocketPushMessage
+{
+	/**
+	 * The prefix of the topics the pages are subscribed to for dirty keys.
+	 */
+	private static final String TOPIC_PREFIX = "wicket-dirty:";
+
+	private final String key;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param key
+	 *      the key of the dirty components
+	 */
+	public DirtyMessage(String key)
+	{
+		this.key = Args.notNull(key, "key");
+	}
+
+	/**
+	 * @return the key of the dirty components
+	 */
+	public String getKey()
+	{
+		return key;
+	}
+
+	/**
+	 * @param key
+	 *      the key of the dirty components
+	 * @return the topic pages with components for the given key are subscribed to
+	 */
+	public static String toTopic(String key)
+	{
+		return TOPIC_PREFIX + key;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "DirtyMessage{key='" + key + "'}";
+	}
+}
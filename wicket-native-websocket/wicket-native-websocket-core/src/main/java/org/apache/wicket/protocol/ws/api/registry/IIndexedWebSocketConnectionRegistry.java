@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.api.registry;
+
+import java.util.Collection;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.Page;
+import org.apache.wicket.protocol.ws.api.IWebSocketConnection;
+
+/**
+ * A registry that additionally indexes the connections by the class of their page, by the name
+ * of their shared resource and by custom topics, so that a subset of the connections can be
+ * found without iterating over all of them.
+ */
+public interface IIndexedWebSocketConnectionRegistry extends IWebSocketConnectionRegistry
+{
+	/**
+	 * Associates a registered connection with the class of the page it is connected to.
+	 *
+	 * @param application
+	 *      the web application to look in
+	 * @param sessionId
+	 *      the http session id
+	 * @param key
+	 *      the web socket client key
+	 * @param pageClass
+	 *      the class of the page
+	 */
+	void setPageClass(Application application, String sessionId, IKey key, Class<? extends Page> pageClass);
+
+	/**
+	 * @param application
+	 *      the web application to look in
+	 * @param pageClass
+	 *      the class of the pages
+	 * @return collection of web socket connections used by instances of the given page class
+	 */
+	Collection<IWebSocketConnection> getConnectionsByPageClass(Application application, Class<? extends Page> pageClass);
+
+	/**
+	 * @param application
+	 *      the web application to look in
+	 * @param resourceName
+	 *      the name of the shared {@link org.apache.wicket.protocol.ws.api.WebSocketResource}
+	 * @return collection of web socket connections to the given resource
+	 */
+	Collection<IWebSocketConnection> getConnectionsByResourceName(Application application, String resourceName);
+
+	/**
+	 * Subscribes a registered connection to a topic.
+	 *
+	 * @param application
+	 *      the web application to look in
+	 * @param sessionId
+	 *      the http session id
+	 * @param key
+	 *      the web socket client key
+	 * @param topic
+	 *      the topic to subscribe to
+	 */
+	void subscribe(Application application, String sessionId, IKey key, String topic);
+
+	/**
+	 * Unsubscribes a registered connection from a topic.
+	 *
+	 * @param application
+	 *      the web application to look in
+	 * @param sessionId
+	 *      the http session id
+	 * @param key
+	 *      the web socket client key
+	 * @param topic
+	 *      the topic to unsubscribe from
+	 */
+	void unsubscribe(Application application, String sessionId, IKey key, String topic);
+
+	/**
+	 * @param application
+	 *      the web application to look in
+	 * @param topic
+	 *      the topic
+	 * @return collection of web socket connections subscribed to the given topic
+	 */
+	Collection<IWebSocketConnection> getConnectionsByTopic(Application application, String topic);
+}
@@ -0,0 +1,363 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.api.registry;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.Page;
+import org.apache.wicket.protocol.ws.api.IWebSocketConnection;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A registry that keeps all currently opened web socket connections in concurrent maps and
+ * maintains secondary indices by page class, by resource name and by topic.
+ * <p>
+ * Unlike {@link SimpleWebSocketConnectionRegistry} the connections are not kept in the
+ * application's meta data (which is guarded by the application's monitor), and
+ * {@link #getConnections(Application)} returns a live view instead of copying all connections
+ * for each broadcast.
+ * </p>
+ *
+ * @see org.apache.wicket.protocol.ws.WebSocketSettings#setConnectionRegistry(IWebSocketConnectionRegistry)
+ */
+public class IndexedWebSocketConnectionRegistry implements IIndexedWebSocketConnectionRegistry
+{
+	private final ConcurrentMap<String, Connections> connectionsByApplication = new ConcurrentHashMap<>();
+
+	@Override
+	public IWebSocketConnection getConnection(Application application, String sessionId, IKey key)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(sessionId, "sessionId");
+		Args.notNull(key, "key");
+
+		IWebSocketConnection connection = null;
+		Connections connections = connectionsByApplication.get(application.getName());
+		if (connections != null)
+		{
+			ConcurrentMap<IKey, IWebSocketConnection> connectionsByKey = connections.bySession.get(sessionId);
+			if (connectionsByKey != null)
+			{
+				connection = connectionsByKey.get(key);
+			}
+		}
+		return connection;
+	}
+
+	@Override
+	public Collection<IWebSocketConnection> getConnections(Application application, String sessionId)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(sessionId, "sessionId");
+
+		Collection<IWebSocketConnection> result = Collections.emptyList();
+		Connections connections = connectionsByApplication.get(application.getName());
+		if (connections != null)
+		{
+			ConcurrentMap<IKey, IWebSocketConnection> connectionsByKey = connections.bySession.get(sessionId);
+			if (connectionsByKey != null)
+			{
+				result = Collections.unmodifiableCollection(connectionsByKey.values());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a live view of the currently active websockets. The connections might close at any
+	 * time.
+	 *
+	 * @param application
+	 *          The application
+	 * @return a collection of currently active websockets
+	 */
+	@Override
+	public Collection<IWebSocketConnection> getConnections(Application application)
+	{
+		Args.notNull(application, "application");
+
+		Connections connections = connectionsByApplication.get(application.getName());
+		if (connections == null)
+		{
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet(connections.all);
+	}
+
+	@Override
+	public Collection<IWebSocketConnection> getConnectionsByPageClass(Application application, Class<? extends Page> pageClass)
+	{
+		Args.notNull(pageClass, "pageClass");
+
+		return getIndexed(application, new IndexKey(IndexKey.PAGE_CLASS, pageClass.getName()));
+	}
+
+	@Override
+	public Collection<IWebSocketConnection> getConnectionsByResourceName(Application application, String resourceName)
+	{
+		Args.notNull(resourceName, "resourceName");
+
+		return getIndexed(application, new IndexKey(IndexKey.RESOURCE_NAME, resourceName));
+	}
+
+	@Override
+	public Collection<IWebSocketConnection> getConnectionsByTopic(Application application, String topic)
+	{
+		Args.notNull(topic, "topic");
+
+		return getIndexed(application, new IndexKey(IndexKey.TOPIC, topic));
+	}
+
+	private Collection<IWebSocketConnection> getIndexed(Application application, IndexKey indexKey)
+	{
+		Args.notNull(application, "application");
+
+		Connections connections = connectionsByApplication.get(application.getName());
+		if (connections == null)
+		{
+			return Collections.emptySet();
+		}
+		Set<IWebSocketConnection> indexed = connections.index.get(indexKey);
+		if (indexed == null)
+		{
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet(indexed);
+	}
+
+	@Override
+	public void setConnection(Application application, String sessionId, IKey key, IWebSocketConnection connection)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(sessionId, "sessionId");
+		Args.notNull(key, "key");
+
+		if (connection == null)
+		{
+			removeConnection(application, sessionId, key);
+			return;
+		}
+
+		Connections connections = connectionsByApplication.computeIfAbsent(application.getName(),
+			name -> new Connections());
+
+		IWebSocketConnection[] previous = new IWebSocketConnection[1];
+		connections.bySession.compute(sessionId, (id, connectionsByKey) -> {
+			if (connectionsByKey == null)
+			{
+				connectionsByKey = new ConcurrentHashMap<>();
+			}
+			previous[0] = connectionsByKey.put(key, connection);
+			return connectionsByKey;
+		});
+
+		if (previous[0] != null && previous[0] != connection)
+		{
+			connections.remove(previous[0]);
+		}
+		connections.all.add(connection);
+
+		if (key instanceof ResourceNameKey)
+		{
+			connections.index(connection, new IndexKey(IndexKey.RESOURCE_NAME, ((ResourceNameKey)key).getResourceName()));
+		}
+		else if (key instanceof ResourceNameTokenKey)
+		{
+			connections.index(connection, new IndexKey(IndexKey.RESOURCE_NAME, ((ResourceNameTokenKey)key).getResourceName()));
+		}
+	}
+
+	@Override
+	public void removeConnection(Application application, String sessionId, IKey key)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(sessionId, "sessionId");
+		Args.notNull(key, "key");
+
+		Connections connections = connectionsByApplication.get(application.getName());
+		if (connections == null)
+		{
+			return;
+		}
+
+		IWebSocketConnection[] removed = new IWebSocketConnection[1];
+		connections.bySession.computeIfPresent(sessionId, (id, connectionsByKey) -> {
+			removed[0] = connectionsByKey.remove(key);
+			return connectionsByKey.isEmpty() ? null : connectionsByKey;
+		});
+
+		if (removed[0] != null)
+		{
+			connections.remove(removed[0]);
+		}
+	}
+
+	@Override
+	public void setPageClass(Application application, String sessionId, IKey key, Class<? extends Page> pageClass)
+	{
+		Args.notNull(pageClass, "pageClass");
+
+		index(application, sessionId, key, new IndexKey(IndexKey.PAGE_CLASS, pageClass.getName()));
+	}
+
+	@Override
+	public void subscribe(Application application, String sessionId, IKey key, String topic)
+	{
+		Args.notNull(topic, "topic");
+
+		index(application, sessionId, key, new IndexKey(IndexKey.TOPIC, topic));
+	}
+
+	@Override
+	public void unsubscribe(Application application, String sessionId, IKey key, String topic)
+	{
+		Args.notNull(topic, "topic");
+
+		IWebSocketConnection connection = getConnection(application, sessionId, key);
+		if (connection != null)
+		{
+			connectionsByApplication.get(application.getName()).unindex(connection,
+				new IndexKey(IndexKey.TOPIC, topic));
+		}
+	}
+
+	private void index(Application application, String sessionId, IKey key, IndexKey indexKey)
+	{
+		IWebSocketConnection connection = getConnection(application, sessionId, key);
+		if (connection != null)
+		{
+			connectionsByApplication.get(application.getName()).index(connection, indexKey);
+		}
+	}
+
+	/**
+	 * The connections of an application
+	 */
+	private static class Connections
+	{
+		/**
+		 * connections by session id and key
+		 */
+		private final ConcurrentMap<String, ConcurrentMap<IKey, IWebSocketConnection>> bySession = new ConcurrentHashMap<>();
+
+		/**
+		 * all connections
+		 */
+		private final Set<IWebSocketConnection> all = ConcurrentHashMap.newKeySet();
+
+		/**
+		 * secondary indices
+		 */
+		private final ConcurrentMap<IndexKey, Set<IWebSocketConnection>> index = new ConcurrentHashMap<>();
+
+		/**
+		 * the index keys of each connection, needed for cleaning up the index
+		 */
+		private final ConcurrentMap<IWebSocketConnection, Set<IndexKey>> indexKeys = new ConcurrentHashMap<>();
+
+		private void index(IWebSocketConnection connection, IndexKey indexKey)
+		{
+			index.compute(indexKey, (k, connections) -> {
+				if (connections == null)
+				{
+					connections = ConcurrentHashMap.newKeySet();
+				}
+				connections.add(connection);
+				return connections;
+			});
+			indexKeys.computeIfAbsent(connection, c -> ConcurrentHashMap.newKeySet()).add(indexKey);
+
+			// the connection might have been removed concurrently
+			if (all.contains(connection) == false)
+			{
+				remove(connection);
+			}
+		}
+
+		private void unindex(IWebSocketConnection connection, IndexKey indexKey)
+		{
+			index.computeIfPresent(indexKey, (k, connections) -> {
+				connections.remove(connection);
+				return connections.isEmpty() ? null : connections;
+			});
+			Set<IndexKey> keys = indexKeys.get(connection);
+			if (keys != null)
+			{
+				keys.remove(indexKey);
+			}
+		}
+
+		private void remove(IWebSocketConnection connection)
+		{
+			all.remove(connection);
+
+			Set<IndexKey> keys = indexKeys.remove(connection);
+			if (keys != null)
+			{
+				for (IndexKey indexKey : keys)
+				{
+					index.computeIfPresent(indexKey, (k, connections) -> {
+						connections.remove(connection);
+						return connections.isEmpty() ? null : connections;
+					});
+				}
+			}
+		}
+	}
+
+	/**
+	 * A key in the secondary indices
+	 */
+	private static class IndexKey
+	{
+		private static final int PAGE_CLASS = 0;
+		private static final int RESOURCE_NAME = 1;
+		private static final int TOPIC = 2;
+
+		private final int type;
+		private final String value;
+
+		private IndexKey(int type, String value)
+		{
+			this.type = type;
+			this.value = value;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (this == o)
+				return true;
+			if (o == null || getClass() != o.getClass())
+				return false;
+			IndexKey that = (IndexKey)o;
+			return type == that.type && value.equals(that.value);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(type, value);
+		}
+	}
+}
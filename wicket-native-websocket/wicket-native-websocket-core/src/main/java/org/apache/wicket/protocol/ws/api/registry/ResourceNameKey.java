@@ -30,6 +30,14 @@ public class ResourceNameKey implements IKey
 		this.resourceName = Args.notNull(resourceName, "resourceName");
 	}
 
+	/**
+	 * @return the name of the shared resource
+	 */
+	public String getResourceName()
+	{
+		return resourceName;
+	}
+
 	@Override
 	public boolean equals(Object o)
 	{
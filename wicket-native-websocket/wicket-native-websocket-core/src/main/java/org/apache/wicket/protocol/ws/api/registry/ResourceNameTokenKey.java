@@ -34,6 +34,22 @@ public class ResourceNameTokenKey implements IKey
 		this.connectionToken = Args.notNull(connectionToken, "connectionToken");
 	}
 
+	/**
+	 * @return the name of the shared resource
+	 */
+	public String getResourceName()
+	{
+		return resourceName;
+	}
+
+	/**
+	 * @return the connection token
+	 */
+	public String getConnectionToken()
+	{
+		return connectionToken;
+	}
+
 	@Override
 	public boolean equals(Object o)
 	{
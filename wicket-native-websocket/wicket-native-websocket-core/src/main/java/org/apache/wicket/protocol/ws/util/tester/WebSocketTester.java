@@ -176,7 +176,40 @@ public class WebSocketTester
 		WebSocketPushBroadcaster broadcaster = new WebSocketPushBroadcaster(webSocketSettings.getConnectionRegistry());
 		broadcaster.broadcastAll(application, message);
 	}
-	
+
+	/**
+	 * Broadcasts/pushes a message to all web socket connections subscribed to the given topic
+	 *
+	 * @param application
+	 *          The application where the web socket connection is registered
+	 * @param topic
+	 *          The topic of the message
+	 * @param message
+	 *          The message to broadcast/push
+	 */
+	public void broadcastToTopic(Application application, String topic, IWebSocketPushMessage message)
+	{
+		WebSocketSettings webSocketSettings = WebSocketSettings.Holder.get(application);
+		WebSocketPushBroadcaster broadcaster = new WebSocketPushBroadcaster(webSocketSettings.getConnectionRegistry());
+		broadcaster.broadcastToTopic(application, topic, message);
+	}
+
+	/**
+	 * Marks the components with a {@link org.apache.wicket.protocol.ws.api.PushUpdatingBehavior}
+	 * for the given key dirty
+	 *
+	 * @param application
+	 *          The application where the web socket connections are registered
+	 * @param key
+	 *          The key of the dirty components
+	 */
+	public void markDirty(Application application, String key)
+	{
+		WebSocketSettings webSocketSettings = WebSocketSettings.Holder.get(application);
+		WebSocketPushBroadcaster broadcaster = new WebSocketPushBroadcaster(webSocketSettings.getConnectionRegistry());
+		broadcaster.markDirty(application, key);
+	}
+
 	public void destroy()
 	{
 		socketProcessor.onClose(0, "Closed by WebSocketTester");
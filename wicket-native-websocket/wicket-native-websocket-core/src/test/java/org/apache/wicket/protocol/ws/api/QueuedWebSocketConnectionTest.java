@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.protocol.ws.api.QueuedWebSocketConnection.OverflowPolicy;
+import org.apache.wicket.protocol.ws.api.message.IWebSocketPushMessage;
+import org.apache.wicket.protocol.ws.api.registry.IKey;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link QueuedWebSocketConnection}
+ */
+public class QueuedWebSocketConnectionTest
+{
+	private final SlowConnection slow = new SlowConnection();
+
+	@Test
+	public void writesOneAtATime()
+	{
+		QueuedWebSocketConnection connection = new QueuedWebSocketConnection(slow, 10, OverflowPolicy.DROP_OLDEST);
+		connection.sendMessage("a");
+		connection.sendMessage("b");
+		connection.sendMessage("c");
+
+		assertEquals(1, slow.pending.size());
+		assertEquals(2, connection.getQueueDepth());
+
+		slow.completeAll();
+
+		assertEquals(3, connection.getSentFrames());
+		assertEquals(3, connection.getSentBytes());
+		assertEquals(0, connection.getQueueDepth());
+		assertEquals(Arrays.asList("a", "b", "c"), slow.written);
+	}
+
+	@Test
+	public void dropOldest()
+	{
+		QueuedWebSocketConnection connection = new QueuedWebSocketConnection(slow, 2, OverflowPolicy.DROP_OLDEST);
+		connection.sendMessage("a");
+		connection.sendMessage("b");
+		connection.sendMessage("c");
+		connection.sendMessage("d");
+
+		slow.completeAll();
+
+		assertEquals(Arrays.asList("a", "c", "d"), slow.written);
+		assertEquals(1, connection.getDroppedFrames());
+	}
+
+	@Test
+	public void dropNewest()
+	{
+		QueuedWebSocketConnection connection = new QueuedWebSocketConnection(slow, 2, OverflowPolicy.DROP_NEWEST);
+		connection.sendMessage("a");
+		connection.sendMessage("b");
+		connection.sendMessage("c");
+		connection.sendMessage("d");
+
+		slow.completeAll();
+
+		assertEquals(Arrays.asList("a", "b", "c"), slow.written);
+		assertEquals(1, connection.getDroppedFrames());
+	}
+
+	@Test
+	public void coalesceByKey()
+	{
+		QueuedWebSocketConnection connection = new QueuedWebSocketConnection(slow, 10, OverflowPolicy.DROP_OLDEST);
+		connection.sendMessage("progress", "10%");
+		connection.sendMessage("progress", "20%");
+		connection.sendMessage("other");
+		connection.sendMessage("progress", "30%");
+
+		slow.completeAll();
+
+		assertEquals(Arrays.asList("10%", "30%", "other"), slow.written);
+		assertEquals(1, connection.getCoalescedFrames());
+	}
+
+	@Test
+	public void closeOnOverflow()
+	{
+		QueuedWebSocketConnection connection = new QueuedWebSocketConnection(slow, 1, OverflowPolicy.CLOSE);
+		connection.sendMessage("a");
+		connection.sendMessage("b");
+		connection.sendMessage("c");
+
+		assertFalse(slow.isOpen());
+		assertEquals(QueuedWebSocketConnection.OVERFLOW_CLOSE_CODE, slow.closeCode);
+		assertEquals(2, connection.getDroppedFrames());
+	}
+
+	@Test
+	public void failedWrite()
+	{
+		QueuedWebSocketConnection connection = new QueuedWebSocketConnection(slow, 10, OverflowPolicy.DROP_OLDEST);
+		connection.sendMessage("a");
+		connection.sendMessage("b");
+
+		slow.pending.remove(0).completeExceptionally(new IllegalStateException("broken pipe"));
+		slow.completeAll();
+
+		assertEquals(1, connection.getFailedFrames());
+		assertEquals(1, connection.getSentFrames());
+	}
+
+	@Test
+	public void countsEncodedBytes()
+	{
+		QueuedWebSocketConnection connection = new QueuedWebSocketConnection(slow, 10, OverflowPolicy.DROP_OLDEST);
+		connection.sendMessage("a\u00e4\u20ac\ud83d\ude00");
+		slow.completeAll();
+
+		assertEquals(1 + 2 + 3 + 4, connection.getSentBytes());
+	}
+
+	@Test
+	public void discardedOnClose()
+	{
+		QueuedWebSocketConnection connection = new QueuedWebSocketConnection(slow, 10, OverflowPolicy.DROP_OLDEST);
+		connection.sendMessage("a");
+		connection.sendMessage("b");
+		connection.sendMessage("c");
+
+		connection.discard();
+		assertEquals(0, connection.getQueueDepth());
+		assertEquals(2, connection.getDroppedFrames());
+
+		slow.completeAll();
+		assertEquals(Arrays.asList("a"), slow.written);
+	}
+
+	/**
+	 * A connection whose asynchronous sends complete only when told so
+	 */
+	private static class SlowConnection implements IWebSocketConnection
+	{
+		private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+		private final List<String> written = new ArrayList<>();
+
+		private int closeCode = -1;
+
+		private void completeAll()
+		{
+			while (pending.isEmpty() == false)
+			{
+				pending.remove(0).complete(null);
+			}
+		}
+
+		@Override
+		public boolean isOpen()
+		{
+			return closeCode == -1;
+		}
+
+		@Override
+		public void close(int code, String reason)
+		{
+			closeCode = code;
+		}
+
+		@Override
+		public IWebSocketConnection sendMessage(String message)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IWebSocketConnection sendMessage(byte[] message, int offset, int length)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public CompletionStage<Void> sendMessageAsync(String message)
+		{
+			written.add(message);
+			CompletableFuture<Void> future = new CompletableFuture<>();
+			pending.add(future);
+			return future;
+		}
+
+		@Override
+		public void sendMessage(IWebSocketPushMessage message)
+		{
+		}
+
+		@Override
+		public Application getApplication()
+		{
+			return null;
+		}
+
+		@Override
+		public String getSessionId()
+		{
+			return null;
+		}
+
+		@Override
+		public IKey getKey()
+		{
+			return null;
+		}
+	}
+}
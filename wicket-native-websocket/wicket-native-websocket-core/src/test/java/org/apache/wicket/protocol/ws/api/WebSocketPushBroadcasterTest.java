@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.mock.MockApplication;
+import org.apache.wicket.protocol.ws.WebSocketSettings;
+import org.apache.wicket.protocol.ws.api.message.IWebSocketPushMessage;
+import org.apache.wicket.protocol.ws.api.registry.IKey;
+import org.apache.wicket.protocol.ws.api.registry.IndexedWebSocketConnectionRegistry;
+import org.apache.wicket.protocol.ws.api.registry.PageIdKey;
+import org.apache.wicket.util.tester.WicketTester;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link WebSocketPushBroadcaster}
+ */
+public class WebSocketPushBroadcasterTest
+{
+	private WicketTester tester;
+
+	private Application application;
+
+	private final IndexedWebSocketConnectionRegistry registry = new IndexedWebSocketConnectionRegistry();
+
+	private final AtomicInteger pushes = new AtomicInteger();
+
+	@BeforeEach
+	public void before()
+	{
+		tester = new WicketTester(new MockApplication());
+		application = tester.getApplication();
+
+		WebSocketSettings.Holder.get(application).setWebSocketPushMessageExecutor(Runnable::run);
+
+		registry.setConnection(application, "s1", new PageIdKey(1), new FailingConnection());
+		registry.setConnection(application, "s1", new PageIdKey(2), new FailingConnection());
+	}
+
+	@AfterEach
+	public void after()
+	{
+		tester.destroy();
+	}
+
+	@Test
+	public void exceptionIsPropagatedWithoutBatches()
+	{
+		WebSocketPushBroadcaster broadcaster = new WebSocketPushBroadcaster(registry);
+
+		assertThrows(IllegalStateException.class,
+			() -> broadcaster.broadcastAll(application, new IWebSocketPushMessage() {}));
+		assertEquals(1, pushes.get());
+	}
+
+	@Test
+	public void exceptionIsLoggedInBatches()
+	{
+		WebSocketSettings.Holder.get(application).setPushBatchSize(10);
+		WebSocketPushBroadcaster broadcaster = new WebSocketPushBroadcaster(registry);
+
+		broadcaster.broadcastAll(application, new IWebSocketPushMessage() {});
+		assertEquals(2, pushes.get());
+	}
+
+	private class FailingConnection implements IWebSocketConnection
+	{
+		@Override
+		public boolean isOpen()
+		{
+			return true;
+		}
+
+		@Override
+		public void close(int code, String reason)
+		{
+		}
+
+		@Override
+		public IWebSocketConnection sendMessage(String message)
+		{
+			return this;
+		}
+
+		@Override
+		public IWebSocketConnection sendMessage(byte[] message, int offset, int length)
+		{
+			return this;
+		}
+
+		@Override
+		public void sendMessage(IWebSocketPushMessage message)
+		{
+			pushes.incrementAndGet();
+
+			throw new IllegalStateException("page expired");
+		}
+
+		@Override
+		public Application getApplication()
+		{
+			return null;
+		}
+
+		@Override
+		public String getSessionId()
+		{
+			return null;
+		}
+
+		@Override
+		public IKey getKey()
+		{
+			return null;
+		}
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.api.registry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.mock.MockApplication;
+import org.apache.wicket.protocol.ws.api.IWebSocketConnection;
+import org.apache.wicket.protocol.ws.api.message.IWebSocketPushMessage;
+import org.apache.wicket.util.tester.WicketTester;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link IndexedWebSocketConnectionRegistry}
+ */
+public class IndexedWebSocketConnectionRegistryTest
+{
+	private WicketTester tester;
+
+	private Application application;
+
+	private final IndexedWebSocketConnectionRegistry registry = new IndexedWebSocketConnectionRegistry();
+
+	@BeforeEach
+	public void before()
+	{
+		tester = new WicketTester(new MockApplication());
+		application = tester.getApplication();
+	}
+
+	@AfterEach
+	public void after()
+	{
+		tester.destroy();
+	}
+
+	@Test
+	public void connectionsBySessionAndKey()
+	{
+		IWebSocketConnection connection1 = new StubConnection();
+		IWebSocketConnection connection2 = new StubConnection();
+		registry.setConnection(application, "s1", new PageIdKey(1), connection1);
+		registry.setConnection(application, "s1", new PageIdKey(2), connection2);
+
+		assertSame(connection1, registry.getConnection(application, "s1", new PageIdKey(1)));
+		assertEquals(2, registry.getConnections(application, "s1").size());
+		assertEquals(2, registry.getConnections(application).size());
+
+		registry.removeConnection(application, "s1", new PageIdKey(1));
+		assertNull(registry.getConnection(application, "s1", new PageIdKey(1)));
+		assertEquals(1, registry.getConnections(application).size());
+
+		registry.removeConnection(application, "s1", new PageIdKey(2));
+		assertTrue(registry.getConnections(application, "s1").isEmpty());
+		assertTrue(registry.getConnections(application).isEmpty());
+	}
+
+	@Test
+	public void indexedByResourceName()
+	{
+		IWebSocketConnection connection1 = new StubConnection();
+		IWebSocketConnection connection2 = new StubConnection();
+		registry.setConnection(application, "s1", new ResourceNameKey("chat"), connection1);
+		registry.setConnection(application, "s2", new ResourceNameTokenKey("chat", "tab"), connection2);
+
+		assertEquals(2, registry.getConnectionsByResourceName(application, "chat").size());
+
+		registry.removeConnection(application, "s1", new ResourceNameKey("chat"));
+		assertEquals(1, registry.getConnectionsByResourceName(application, "chat").size());
+		assertTrue(registry.getConnectionsByResourceName(application, "chat").contains(connection2));
+	}
+
+	@Test
+	public void indexedByPageClassAndTopic()
+	{
+		IWebSocketConnection connection = new StubConnection();
+		PageIdKey key = new PageIdKey(1);
+		registry.setConnection(application, "s1", key, connection);
+		registry.setPageClass(application, "s1", key, WebPage.class);
+		registry.subscribe(application, "s1", key, "news");
+
+		assertTrue(registry.getConnectionsByPageClass(application, WebPage.class).contains(connection));
+		assertTrue(registry.getConnectionsByTopic(application, "news").contains(connection));
+		assertTrue(registry.getConnectionsByTopic(application, "sports").isEmpty());
+
+		registry.unsubscribe(application, "s1", key, "news");
+		assertTrue(registry.getConnectionsByTopic(application, "news").isEmpty());
+
+		registry.subscribe(application, "s1", key, "news");
+		registry.removeConnection(application, "s1", key);
+		assertTrue(registry.getConnectionsByTopic(application, "news").isEmpty());
+		assertTrue(registry.getConnectionsByPageClass(application, WebPage.class).isEmpty());
+	}
+
+	@Test
+	public void replacedConnectionIsUnindexed()
+	{
+		IWebSocketConnection connection1 = new StubConnection();
+		IWebSocketConnection connection2 = new StubConnection();
+		PageIdKey key = new PageIdKey(1);
+		registry.setConnection(application, "s1", key, connection1);
+		registry.subscribe(application, "s1", key, "news");
+
+		registry.setConnection(application, "s1", key, connection2);
+		assertTrue(registry.getConnectionsByTopic(application, "news").isEmpty());
+		assertEquals(1, registry.getConnections(application).size());
+	}
+
+	@Test
+	public void subscribeUnknownConnection()
+	{
+		registry.subscribe(application, "s1", new PageIdKey(1), "news");
+		assertTrue(registry.getConnectionsByTopic(application, "news").isEmpty());
+	}
+
+	private static class StubConnection implements IWebSocketConnection
+	{
+		@Override
+		public boolean isOpen()
+		{
+			return true;
+		}
+
+		@Override
+		public void close(int code, String reason)
+		{
+		}
+
+		@Override
+		public IWebSocketConnection sendMessage(String message)
+		{
+			return this;
+		}
+
+		@Override
+		public IWebSocketConnection sendMessage(byte[] message, int offset, int length)
+		{
+			return this;
+		}
+
+		@Override
+		public void sendMessage(IWebSocketPushMessage message)
+		{
+		}
+
+		@Override
+		public Application getApplication()
+		{
+			return null;
+		}
+
+		@Override
+		public String getSessionId()
+		{
+			return null;
+		}
+
+		@Override
+		public IKey getKey()
+		{
+			return null;
+		}
+	}
+}
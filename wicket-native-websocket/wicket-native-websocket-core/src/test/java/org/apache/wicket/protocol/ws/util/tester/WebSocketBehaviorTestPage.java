@@ -16,6 +16,10 @@
  */
 package org.apache.wicket.protocol.ws.util.tester;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.wicket.MarkupContainer;
 import org.apache.wicket.markup.IMarkupResourceStreamProvider;
 import org.apache.wicket.markup.html.WebPage;
@@ -98,6 +102,36 @@ class WebSocketBehaviorTestPage extends WebPage implements IMarkupResourceStream
 		});
 	}
 
+	WebSocketBehaviorTestPage(final AtomicInteger messages)
+	{
+		add(new WebSocketBehavior()
+		{
+			@Override
+			protected void onMessage(WebSocketRequestHandler handler, TextMessage message)
+			{
+				messages.incrementAndGet();
+			}
+		});
+	}
+
+	WebSocketBehaviorTestPage(final String topic, final AtomicInteger pushes)
+	{
+		add(new WebSocketBehavior()
+		{
+			@Override
+			protected Collection<String> getTopics()
+			{
+				return Collections.singletonList(topic);
+			}
+
+			@Override
+			protected void onPush(WebSocketRequestHandler handler, IWebSocketPushMessage message)
+			{
+				pushes.incrementAndGet();
+			}
+		});
+	}
+
 	@Override
 	public IResourceStream getMarkupResourceStream(MarkupContainer container, Class<?> containerClass)
 	{
@@ -16,7 +16,9 @@
  */
 package org.apache.wicket.protocol.ws.util.tester;
 
+import org.apache.wicket.protocol.ws.WebSocketSettings;
 import org.apache.wicket.protocol.ws.api.message.IWebSocketPushMessage;
+import org.apache.wicket.protocol.ws.api.registry.IndexedWebSocketConnectionRegistry;
 import org.apache.wicket.protocol.ws.api.registry.PageIdKey;
 import org.apache.wicket.util.string.Strings;
 import org.apache.wicket.util.tester.WicketTester;
@@ -26,6 +28,7 @@ import org.junit.jupiter.api.Test;
 
 import java.io.UnsupportedEncodingException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -144,6 +147,30 @@ public class WebSocketTesterBehaviorTest
 		webSocketTester.destroy();
 	}
 
+	@Test
+	public void topicBroadcast()
+	{
+		WebSocketSettings.Holder.get(tester.getApplication()).setConnectionRegistry(new IndexedWebSocketConnectionRegistry());
+
+		final AtomicInteger newsPushes = new AtomicInteger();
+		WebSocketBehaviorTestPage newsPage = new WebSocketBehaviorTestPage("news", newsPushes);
+		tester.startPage(newsPage);
+		WebSocketTester newsTester = new WebSocketTester(tester, newsPage);
+
+		final AtomicInteger sportsPushes = new AtomicInteger();
+		WebSocketBehaviorTestPage sportsPage = new WebSocketBehaviorTestPage("sports", sportsPushes);
+		tester.startPage(sportsPage);
+		WebSocketTester sportsTester = new WebSocketTester(tester, sportsPage);
+
+		newsTester.broadcastToTopic(tester.getApplication(), "news", new BroadcastMessage("news"));
+
+		assertEquals(1, newsPushes.get());
+		assertEquals(0, sportsPushes.get());
+
+		newsTester.destroy();
+		sportsTester.destroy();
+	}
+
 	static class BroadcastMessage implements IWebSocketPushMessage
 	{
 		private final String message;
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.util.tester;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.wicket.protocol.ws.WebSocketSettings;
+import org.apache.wicket.protocol.ws.api.IWebSocketConnection;
+import org.apache.wicket.protocol.ws.api.IWebSocketMessageHandler;
+import org.apache.wicket.protocol.ws.api.message.TextMessage;
+import org.apache.wicket.util.tester.WicketTester;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link IWebSocketMessageHandler}
+ */
+public class WebSocketTesterMessageHandlerTest
+{
+	private static final String STATELESS_PREFIX = "stateless:";
+
+	private static final String FAILING = "fail";
+
+	WicketTester tester;
+
+	@BeforeEach
+	public void before()
+	{
+		tester = new WicketTester();
+		WebSocketSettings.Holder.get(tester.getApplication()).setMessageHandler(new IWebSocketMessageHandler()
+		{
+			@Override
+			public boolean onMessage(IWebSocketConnection connection, TextMessage message)
+			{
+				if (FAILING.equals(message.getText()))
+				{
+					throw new IllegalStateException("handler failed");
+				}
+				if (message.getText().startsWith(STATELESS_PREFIX))
+				{
+					try
+					{
+						connection.sendMessage(message.getText().substring(STATELESS_PREFIX.length()));
+					}
+					catch (IOException e)
+					{
+						throw new UncheckedIOException(e);
+					}
+					return true;
+				}
+				return false;
+			}
+		});
+	}
+
+	@AfterEach
+	public void after()
+	{
+		tester.destroy();
+	}
+
+	/**
+	 * Messages handled by the stateless handler are not delivered to the page.
+	 */
+	@Test
+	public void handledWithoutPage()
+	{
+		final AtomicInteger pageMessages = new AtomicInteger();
+		final AtomicInteger replies = new AtomicInteger();
+
+		WebSocketBehaviorTestPage page = new WebSocketBehaviorTestPage(pageMessages);
+		tester.startPage(page);
+
+		WebSocketTester webSocketTester = new WebSocketTester(tester, page)
+		{
+			@Override
+			protected void onOutMessage(String message)
+			{
+				assertEquals("ping", message);
+				replies.incrementAndGet();
+			}
+		};
+
+		for (int i = 0; i < 1000; i++)
+		{
+			webSocketTester.sendMessage(STATELESS_PREFIX + "ping");
+		}
+		assertEquals(1000, replies.get());
+		assertEquals(0, pageMessages.get());
+
+		webSocketTester.sendMessage("for the page");
+		assertEquals(1, pageMessages.get());
+
+		webSocketTester.destroy();
+	}
+
+	/**
+	 * A failing handler does not swallow the message.
+	 */
+	@Test
+	public void handlerFailurePropagates()
+	{
+		final AtomicInteger pageMessages = new AtomicInteger();
+
+		WebSocketBehaviorTestPage page = new WebSocketBehaviorTestPage(pageMessages);
+		tester.startPage(page);
+
+		WebSocketTester webSocketTester = new WebSocketTester(tester, page);
+		assertThrows(IllegalStateException.class, () -> webSocketTester.sendMessage(FAILING));
+
+		webSocketTester.destroy();
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.util.tester;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.ajax.markup.html.AjaxLink;
+import org.apache.wicket.markup.IMarkupResourceStreamProvider;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.protocol.ws.WebSocketSettings;
+import org.apache.wicket.protocol.ws.api.PushUpdatingBehavior;
+import org.apache.wicket.protocol.ws.api.PushUpdatingChannelBehavior;
+import org.apache.wicket.protocol.ws.api.registry.IndexedWebSocketConnectionRegistry;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
+import org.apache.wicket.util.tester.WicketTester;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link PushUpdatingBehavior}
+ */
+public class WebSocketTesterPushUpdatingTest
+{
+	WicketTester tester;
+
+	@BeforeEach
+	public void before()
+	{
+		tester = new WicketTester();
+	}
+
+	@AfterEach
+	public void after()
+	{
+		tester.destroy();
+	}
+
+	/**
+	 * Only the components for the dirty key are updated
+	 */
+	@Test
+	public void updateDirtyComponents()
+	{
+		AtomicInteger price = new AtomicInteger(1);
+		PushUpdatingPage page = new PushUpdatingPage(price);
+		tester.startPage(page);
+
+		List<String> updates = new ArrayList<>();
+		WebSocketTester webSocketTester = new WebSocketTester(tester, page)
+		{
+			@Override
+			protected void onOutMessage(String message)
+			{
+				updates.add(message);
+			}
+		};
+
+		price.set(2);
+		webSocketTester.markDirty(tester.getApplication(), "prices");
+
+		assertEquals(1, updates.size());
+		assertTrue(updates.get(0).contains("price: 2"));
+		assertTrue(updates.get(0).contains("news: 0") == false);
+
+		webSocketTester.destroy();
+	}
+
+	/**
+	 * With an indexed registry pages without components for the dirty key are not processed
+	 */
+	@Test
+	public void onlySubscribedPages()
+	{
+		WebSocketSettings.Holder.get(tester.getApplication()).setConnectionRegistry(new IndexedWebSocketConnectionRegistry());
+
+		PushUpdatingPage page = new PushUpdatingPage(new AtomicInteger(1));
+		tester.startPage(page);
+
+		AtomicInteger updates = new AtomicInteger();
+		WebSocketTester webSocketTester = new WebSocketTester(tester, page)
+		{
+			@Override
+			protected void onOutMessage(String message)
+			{
+				updates.incrementAndGet();
+			}
+		};
+
+		webSocketTester.markDirty(tester.getApplication(), "weather");
+		assertEquals(0, updates.get());
+
+		webSocketTester.markDirty(tester.getApplication(), "news");
+		assertEquals(1, updates.get());
+
+		webSocketTester.destroy();
+	}
+
+	/**
+	 * With an indexed registry a behavior added after the page has connected is subscribed when
+	 * its component is rendered
+	 */
+	@Test
+	public void subscribeLaterAddedBehavior()
+	{
+		WebSocketSettings.Holder.get(tester.getApplication()).setConnectionRegistry(new IndexedWebSocketConnectionRegistry());
+
+		LaterSubscribingPage page = new LaterSubscribingPage();
+		tester.startPage(page);
+
+		AtomicInteger updates = new AtomicInteger();
+		WebSocketTester webSocketTester = new WebSocketTester(tester, page)
+		{
+			@Override
+			protected void onOutMessage(String message)
+			{
+				updates.incrementAndGet();
+			}
+		};
+
+		webSocketTester.markDirty(tester.getApplication(), "weather");
+		assertEquals(0, updates.get());
+
+		tester.clickLink("subscribe");
+
+		webSocketTester.markDirty(tester.getApplication(), "weather");
+		assertEquals(1, updates.get());
+
+		webSocketTester.destroy();
+	}
+
+	private static class LaterSubscribingPage extends WebPage implements IMarkupResourceStreamProvider
+	{
+		private LaterSubscribingPage()
+		{
+			add(new PushUpdatingChannelBehavior());
+
+			Label weather = new Label("weather", "weather: sunny");
+			weather.setOutputMarkupId(true);
+			add(weather);
+
+			add(new AjaxLink<Void>("subscribe")
+			{
+				@Override
+				public void onClick(AjaxRequestTarget target)
+				{
+					weather.add(new PushUpdatingBehavior("weather"));
+					target.add(weather);
+				}
+			});
+		}
+
+		@Override
+		public IResourceStream getMarkupResourceStream(MarkupContainer container, Class<?> containerClass)
+		{
+			return new StringResourceStream(
+				"<html><head></head><body><span wicket:id='weather'></span><a wicket:id='subscribe'></a></body></html>");
+		}
+	}
+
+	private static class PushUpdatingPage extends WebPage implements IMarkupResourceStreamProvider
+	{
+		private PushUpdatingPage(AtomicInteger price)
+		{
+			add(new PushUpdatingChannelBehavior());
+
+			add(new Label("price", () -> "price: " + price.get())
+				.add(new PushUpdatingBehavior("prices")));
+			add(new Label("news", "news: 0").add(new PushUpdatingBehavior("news")));
+		}
+
+		@Override
+		public IResourceStream getMarkupResourceStream(MarkupContainer container, Class<?> containerClass)
+		{
+			return new StringResourceStream(
+				"<html><head></head><body><span wicket:id='price'></span><span wicket:id='news'></span></body></html>");
+		}
+	}
+}
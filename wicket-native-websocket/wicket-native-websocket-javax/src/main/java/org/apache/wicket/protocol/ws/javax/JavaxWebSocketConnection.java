@@ -18,8 +18,11 @@ package org.apache.wicket.protocol.ws.javax;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import javax.websocket.CloseReason;
+import javax.websocket.SendHandler;
 import javax.websocket.Session;
 
 import org.apache.wicket.protocol.ws.api.AbstractWebSocketConnection;
@@ -93,6 +96,41 @@ public class JavaxWebSocketConnection extends AbstractWebSocketConnection
 		return this;
 	}
 
+	@Override
+	public synchronized CompletionStage<Void> sendMessageAsync(String message)
+	{
+		checkClosed();
+
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		session.getAsyncRemote().sendText(message, newSendHandler(result));
+		return result;
+	}
+
+	@Override
+	public synchronized CompletionStage<Void> sendMessageAsync(byte[] message, int offset, int length)
+	{
+		checkClosed();
+
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		ByteBuffer buf = ByteBuffer.wrap(message, offset, length);
+		session.getAsyncRemote().sendBinary(buf, newSendHandler(result));
+		return result;
+	}
+
+	private static SendHandler newSendHandler(CompletableFuture<Void> result)
+	{
+		return sendResult -> {
+			if (sendResult.isOK())
+			{
+				result.complete(null);
+			}
+			else
+			{
+				result.completeExceptionally(sendResult.getException());
+			}
+		};
+	}
+
 	private void checkClosed()
 	{
 		if (!isOpen())
@@ -43,6 +43,10 @@ public abstract class WebRequest extends Request
 	public static final String PARAM_AJAX_BASE_URL = "wicket-ajax-baseurl";
 	/** marker for Ajax-relative url */
 	public static final String HEADER_AJAX_BASE_URL = "Wicket-Ajax-BaseURL";
+	/** format of the Ajax response requested by the client */
+	public static final String HEADER_AJAX_RESPONSE_FORMAT = "Wicket-Ajax-Response-Format";
+	/** hashes of the component markups the client holds as bases for markup diffs */
+	public static final String HEADER_AJAX_MARKUP_BASES = "Wicket-Ajax-Markup-Bases";
 	/** anti-cache query parameter added by Wicket.Ajax.Request at its URL */
 	public static final String PARAM_AJAX_REQUEST_ANTI_CACHE = "_";
 	/** {@code Origin} http header */